@@ -0,0 +1,82 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.QrcodecadastroApplication;
+import codigo.cadastroqrcode.qrcodecadastro.exception.FilaRenderizacaoCheiaException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmark de ponta a ponta do cadastro (gerarDadosQrCode) contra o H2 em memória da aplicação,
+ * com as imagens gravadas no armazenamento em memória. Quando a fila de renderização está cheia,
+ * o cadastro é repetido, de modo que a vazão medida é a sustentável com a geração das imagens.
+ * O ID informado só é validado; todo cadastro é uma inserção com um ID novo da sequência.
+ * O parâmetro threadsVirtuais compara o modo padrão com o de threads virtuais (Java 21 ou superior).
+ * Author: Davi Oliveira Santos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CadastroQrCodeBenchmark {
+
+    private static final long ESPERA_FILA_CHEIA_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    @Param({"false", "true"})
+    private boolean threadsVirtuais;
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private ConfigurableApplicationContext contexto;
+    private QrCodeService qrCodeService;
+    private LocalDate hoje;
+
+    @Setup
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(QrcodecadastroApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("qrcode.armazenamento.tipo=memoria", "logging.level.root=WARN",
+                        "qrcode.execucao.threads-virtuais=" + threadsVirtuais)
+                .run();
+        qrCodeService = contexto.getBean(QrCodeService.class);
+        hoje = LocalDate.now();
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    /**
+     * Cadastro completo: validação, inserção no H2 e enfileiramento da imagem.
+     */
+    @Benchmark
+    public ResultadoCadastro gerarDadosQrCode() {
+        long id = sequencia.incrementAndGet();
+        while (true) {
+            try {
+                return qrCodeService.gerarDadosQrCode(id, "150.75", "Benchmark " + id, "OPEN", hoje, hoje.plusDays(30));
+            } catch (FilaRenderizacaoCheiaException e) {
+                LockSupport.parkNanos(ESPERA_FILA_CHEIA_NANOS);
+            }
+        }
+    }
+}
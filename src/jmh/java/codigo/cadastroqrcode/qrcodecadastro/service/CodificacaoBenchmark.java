@@ -0,0 +1,64 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da codificação ZXing usada em processarQrCode, variando o tamanho do conteúdo
+ * e o nível de correção de erros. A matriz é gerada no tamanho nativo, como no modo OTIMIZADO.
+ * Author: Davi Oliveira Santos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodificacaoBenchmark {
+
+    @Param({"64", "256", "1024"})
+    private int tamanhoPayload;
+
+    @Param({"L", "M", "Q", "H"})
+    private ErrorCorrectionLevel nivelCorrecao;
+
+    private final QRCodeWriter writer = new QRCodeWriter();
+    private String payload;
+    private Map<EncodeHintType, Object> hints;
+
+    @Setup
+    public void preparar() {
+        StringBuilder conteudo = new StringBuilder(tamanhoPayload);
+        for (int i = 0; conteudo.length() < tamanhoPayload; i++) {
+            conteudo.append("Descrição ").append(i).append(' ');
+        }
+        payload = conteudo.substring(0, tamanhoPayload);
+        hints = Map.of(EncodeHintType.CHARACTER_SET, "UTF-8", EncodeHintType.ERROR_CORRECTION, nivelCorrecao);
+    }
+
+    /**
+     * Codificação do conteúdo em uma matriz com um elemento por módulo.
+     */
+    @Benchmark
+    public BitMatrix codificar() throws WriterException {
+        return writer.encode(payload, BarcodeFormat.QR_CODE, 0, 0, hints);
+    }
+}
@@ -0,0 +1,121 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark dos formatos de conteúdo do QR Code: montagem do conteúdo e codificação da matriz na menor versão,
+ * com o maior nível de correção que cabe nela. O tamanho do conteúdo e da matriz de cada formato sai nos resultados
+ * secundários do JMH.
+ * Author: Davi Oliveira Santos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadBenchmark {
+
+    @Param({"TEXTO", "JSON", "BASE45", "BR_CODE"})
+    private QrCodeProperties.Payload.Formato formato;
+
+    private final QRCodeWriter writer = new QRCodeWriter();
+    private CodificadorPayload codificador;
+    private QrCode qrCode;
+    private String payload;
+
+    @Setup
+    public void preparar() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getPayload().setChavePix("123e4567-e12b-12d1-a456-426655440000");
+        codificador = new CodificadorPayload(propriedades);
+
+        LocalDate hoje = LocalDate.now();
+        qrCode = new QrCode();
+        qrCode.setId(123456L);
+        qrCode.setValor("1599.90");
+        qrCode.setDescricao("Pagamento de mensalidade");
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(hoje);
+        qrCode.setDataExpiracao(hoje.plusDays(30));
+        qrCode.setDataVencimento(hoje.plusDays(10));
+        payload = codificador.codificar(qrCode, formato);
+    }
+
+    /**
+     * Montagem do conteúdo no formato.
+     */
+    @Benchmark
+    public String codificarPayload(Tamanho tamanho) {
+        return codificador.codificar(qrCode, formato);
+    }
+
+    /**
+     * Montagem do conteúdo e codificação da matriz com um elemento por módulo.
+     */
+    @Benchmark
+    public BitMatrix codificarMatriz(Tamanho tamanho) throws WriterException {
+        return codificar(codificador.codificar(qrCode, formato));
+    }
+
+    private BitMatrix codificar(String conteudo) throws WriterException {
+        Map<EncodeHintType, Object> hints = Map.of(EncodeHintType.ERROR_CORRECTION, CapacidadeQrCode.nivelCorrecao(conteudo));
+        return writer.encode(conteudo, BarcodeFormat.QR_CODE, 0, 0, hints);
+    }
+
+    /**
+     * Tamanho do conteúdo e da matriz do formato medido, informado como contador auxiliar de cada benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamanho {
+        private long caracteres;
+        private long versao;
+        private long modulos;
+
+        @Setup(Level.Trial)
+        public void medir(PayloadBenchmark benchmark) throws WriterException {
+            ErrorCorrectionLevel nivel = CapacidadeQrCode.nivelCorrecao(benchmark.payload);
+            caracteres = benchmark.payload.length();
+            versao = CapacidadeQrCode.versaoMinima(benchmark.payload, nivel);
+            modulos = benchmark.codificar(benchmark.payload).getWidth();
+        }
+
+        // Contadores expostos por métodos: campos públicos seriam zerados pelo JMH no início de cada iteração.
+        public long caracteres() {
+            return caracteres;
+        }
+
+        public long versao() {
+            return versao;
+        }
+
+        public long modulos() {
+            return modulos;
+        }
+    }
+}
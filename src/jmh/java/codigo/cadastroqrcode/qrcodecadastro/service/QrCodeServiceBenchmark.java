@@ -0,0 +1,145 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroCampoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.storage.MemoriaQrImageStore;
+import com.google.zxing.WriterException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das etapas do cadastro executadas pelo QrCodeService: formatação do conteúdo, validação,
+ * serialização da imagem e gravação no armazenamento, nos modos LEGADO e OTIMIZADO.
+ * Author: Davi Oliveira Santos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrCodeServiceBenchmark {
+
+    @Param({"LEGADO", "OTIMIZADO"})
+    private QrCodeProperties.Renderizacao.Modo modo;
+
+    private QrCodeService qrCodeService;
+    private PerfisRenderizacao perfis;
+    private QrCode qrCode;
+    private String payload;
+    private LocalDate hoje;
+    private long sequencia;
+
+    @Setup
+    public void preparar() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getRenderizacao().setModo(modo);
+        QrCodeProperties.Perfil miniatura = new QrCodeProperties.Perfil();
+        miniatura.setTamanho(128);
+        QrCodeProperties.Perfil vetor = new QrCodeProperties.Perfil();
+        vetor.setFormato(PerfilRenderizacao.FORMATO_SVG);
+        propriedades.getPerfis().put("miniatura", miniatura);
+        propriedades.getPerfis().put("vetor", vetor);
+        propriedades.getRenderizacao().setVariantes(List.of("miniatura", "vetor"));
+        perfis = new PerfisRenderizacao(propriedades);
+        MetricasQrCode metricas = new MetricasQrCode(ObservationRegistry.NOOP, new SimpleMeterRegistry());
+        qrCodeService = new QrCodeService(null, propriedades, null, new CacheImagemQrCode(propriedades), new MemoriaQrImageStore(),
+                metricas, new JanelaIdempotencia(propriedades, metricas), new LimitadorJdbc(propriedades), new CodificadorPayload(propriedades),
+                perfis, new GravacaoAgrupada(null, null, propriedades, null, new SimpleMeterRegistry()), null);
+
+        hoje = LocalDate.now();
+        qrCode = new QrCode();
+        qrCode.setId(123456L);
+        qrCode.setValor("1599.90");
+        qrCode.setDescricao("Pagamento de mensalidade");
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(hoje);
+        qrCode.setDataExpiracao(hoje.plusDays(30));
+        qrCode.setDataVencimento(hoje.plusDays(10));
+        payload = qrCodeService.formatarPayload(qrCode);
+    }
+
+    @TearDown
+    public void encerrar() {
+        qrCodeService.encerrar();
+    }
+
+    /**
+     * Formatação do conteúdo codificado no QR Code.
+     */
+    @Benchmark
+    public String formatarPayload() {
+        return qrCodeService.formatarPayload(qrCode);
+    }
+
+    /**
+     * Validação dos dados de um cadastro válido.
+     */
+    @Benchmark
+    public List<ErroCampoDTO> validarDadosQrCode() {
+        return qrCodeService.validarDadosQrCode(qrCode.getId(), qrCode.getValor(), hoje, hoje);
+    }
+
+    /**
+     * Codificação e serialização do PNG 400x400 servido pela API, sem cache.
+     */
+    @Benchmark
+    public void escreverPng() throws WriterException, IOException {
+        qrCodeService.escreverImagem(payload, perfis.cadastro(), OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Geração da imagem do cadastro e gravação no armazenamento em memória, como faz a fila de renderização.
+     * O conteúdo muda a cada chamada para que o cache de renderização nunca acerte.
+     */
+    @Benchmark
+    public void processarQrCode() throws WriterException, IOException {
+        qrCodeService.processarQrCode(payload + (sequencia++), "QRCode-benchmark.png", perfis.cadastro());
+    }
+
+    /**
+     * Gravação do cadastro e das variantes miniatura (png 128) e vetor (svg), derivadas da mesma matriz.
+     */
+    @Benchmark
+    public void processarImagens() throws WriterException, IOException {
+        qrCodeService.processarImagens(123456L, payload + (sequencia++));
+    }
+
+    /**
+     * Os mesmos perfis de {@link #processarImagens()}, codificando os dados separadamente para cada um.
+     */
+    @Benchmark
+    public void processarImagensSeparadas() throws WriterException, IOException {
+        String conteudo = payload + (sequencia++);
+        for (PerfilRenderizacao perfil : perfis.armazenados()) {
+            qrCodeService.processarQrCode(conteudo, QrCodeService.chaveImagem(123456L, perfil), perfil);
+        }
+    }
+
+    /**
+     * Reenvio de um conteúdo já renderizado para a mesma chave, atendido pelo cache de renderização.
+     */
+    @Benchmark
+    public void processarQrCodeDuplicado() throws WriterException, IOException {
+        qrCodeService.processarQrCode(payload, "QRCode-benchmark.png", perfis.cadastro());
+    }
+}
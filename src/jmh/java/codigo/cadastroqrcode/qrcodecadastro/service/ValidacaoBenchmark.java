@@ -0,0 +1,111 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroCampoDTO;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da validação de cadastros com uma fração configurável de requisições inválidas: a validação anterior
+ * (Double.parseDouble e uma IllegalArgumentException com pilha no primeiro campo inválido) contra o leitor de
+ * centavos com todos os erros de campo juntos, devolvidos sem exceção.
+ * Author: Davi Oliveira Santos
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidacaoBenchmark {
+
+    private static final int REQUISICOES = 1024;
+    private static final String[] VALORES_INVALIDOS = {"abc", "", "0.00", "12,50", "1e3x", "-10", "R$ 10"};
+
+    @Param({"0", "50", "90", "100"})
+    private int percentualInvalidos;
+
+    private final Long[] ids = new Long[REQUISICOES];
+    private final String[] valores = new String[REQUISICOES];
+    private final LocalDate[] datasAtualizacao = new LocalDate[REQUISICOES];
+    private final LocalDate[] datasExpiracao = new LocalDate[REQUISICOES];
+    private int proxima;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        LocalDate hoje = LocalDate.now();
+        for (int i = 0; i < REQUISICOES; i++) {
+            ids[i] = (long) i + 1;
+            valores[i] = (aleatorio.nextInt(100000) + 1) + "." + (10 + aleatorio.nextInt(90));
+            datasAtualizacao[i] = hoje;
+            datasExpiracao[i] = hoje.plusDays(30);
+            if (aleatorio.nextInt(100) < percentualInvalidos) {
+                valores[i] = VALORES_INVALIDOS[aleatorio.nextInt(VALORES_INVALIDOS.length)];
+                if (aleatorio.nextBoolean()) {
+                    datasExpiracao[i] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Validação anterior ao leitor de centavos.
+     */
+    @Benchmark
+    public int validacaoAnterior() {
+        int i = indice();
+        try {
+            validarAnterior(ids[i], valores[i], datasAtualizacao[i], datasExpiracao[i]);
+            return 0;
+        } catch (IllegalArgumentException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Caminho dos endpoints de cadastro, do lote e do fluxo NDJSON: erros devolvidos sem exceção.
+     */
+    @Benchmark
+    public long validacaoAtual() {
+        int i = indice();
+        long centavos = ValidadorQrCode.lerCentavos(valores[i]);
+        List<ErroCampoDTO> erros = ValidadorQrCode.validar(ids[i], centavos, datasAtualizacao[i], datasExpiracao[i], null, false);
+        return erros.isEmpty() ? centavos : -erros.size();
+    }
+
+    private int indice() {
+        int i = proxima;
+        proxima = (i + 1) & (REQUISICOES - 1);
+        return i;
+    }
+
+    private static void validarAnterior(Long id, String valor, LocalDate dataAtualizacao, LocalDate dataExpiracao) {
+        if (id == null) {
+            throw new IllegalArgumentException("O ID não pode ser nulo");
+        }
+        if (StringUtils.isBlank(valor) || Double.parseDouble(valor) <= 0) {
+            throw new IllegalArgumentException("Por favor, insira um valor válido");
+        }
+        if (dataAtualizacao == null) {
+            throw new IllegalArgumentException("Data de Atualização é obrigatória");
+        }
+        if (dataExpiracao == null) {
+            throw new IllegalArgumentException("Data de Expiração é obrigatória");
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package codigo.cadastroqrcode.qrcodecadastro;
 
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.service.AquecimentoRenderizacao;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableConfigurationProperties(QrCodeProperties.class)
+@EnableScheduling
 @Slf4j
 public class QrcodecadastroApplication {
 
@@ -12,4 +21,13 @@ public class QrcodecadastroApplication {
 		SpringApplication.run(QrcodecadastroApplication.class, args);
 	}
 
+	/**
+	 * Aquece a renderização antes de a aplicação aceitar tráfego: a prontidão só passa a UP depois que
+	 * os ApplicationRunner terminam. Em testes de fatia, sem o serviço de QR Code, não faz nada.
+	 */
+	@Bean
+	public ApplicationRunner aquecerRenderizacao(ObjectProvider<AquecimentoRenderizacao> aquecimento) {
+		return argumentos -> aquecimento.ifAvailable(AquecimentoRenderizacao::aquecer);
+	}
+
 }
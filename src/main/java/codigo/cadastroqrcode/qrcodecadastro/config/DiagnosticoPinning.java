@@ -0,0 +1,80 @@
+package codigo.cadastroqrcode.qrcodecadastro.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Registra, pelo evento JFR jdk.VirtualThreadPinned, as threads virtuais presas à thread portadora por
+ * blocos synchronized ou código nativo (por exemplo, no ImageIO do modo LEGADO), com a pilha do ponto de bloqueio.
+ * Ativo apenas com qrcode.execucao.threads-virtuais=true.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@ConditionalOnProperty(prefix = "qrcode.execucao", name = "threads-virtuais", havingValue = "true")
+@Slf4j
+public class DiagnosticoPinning {
+
+    private static final String EVENTO_PINNING = "jdk.VirtualThreadPinned";
+    private static final int QUADROS_REGISTRADOS = 8;
+
+    private final QrCodeProperties propriedades;
+    private final Counter pinnings;
+    private RecordingStream gravacao;
+
+    public DiagnosticoPinning(QrCodeProperties propriedades, MeterRegistry meterRegistry) {
+        this.propriedades = propriedades;
+        this.pinnings = Counter.builder("qrcode.threads.virtuais.pinning")
+                .description("Threads virtuais presas à thread portadora acima do limite configurado")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a leitura dos eventos de pinning quando a aplicação sobe.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void iniciar() {
+        if (gravacao != null || !ThreadsVirtuais.suportadas()) {
+            return;
+        }
+        gravacao = new RecordingStream();
+        gravacao.enable(EVENTO_PINNING)
+                .withThreshold(propriedades.getExecucao().getLimitePinning())
+                .withStackTrace();
+        gravacao.onEvent(EVENTO_PINNING, this::registrar);
+        gravacao.startAsync();
+        log.info("Diagnóstico de pinning de threads virtuais ativo (limite {})", propriedades.getExecucao().getLimitePinning());
+    }
+
+    /**
+     * Encerra a leitura dos eventos.
+     */
+    @PreDestroy
+    public synchronized void encerrar() {
+        if (gravacao != null) {
+            gravacao.close();
+            gravacao = null;
+        }
+    }
+
+    private void registrar(RecordedEvent evento) {
+        pinnings.increment();
+        List<RecordedFrame> quadros = evento.getStackTrace() == null ? List.of() : evento.getStackTrace().getFrames();
+        String pilha = quadros.stream()
+                .limit(QUADROS_REGISTRADOS)
+                .map(quadro -> quadro.getMethod().getType().getName() + "." + quadro.getMethod().getName() + ":" + quadro.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+        log.warn("Thread virtual presa por {} ms: {}", evento.getDuration().toMillis(), pilha);
+    }
+}
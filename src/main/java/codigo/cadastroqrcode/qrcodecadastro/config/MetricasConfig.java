@@ -0,0 +1,45 @@
+package codigo.cadastroqrcode.qrcodecadastro.config;
+
+import codigo.cadastroqrcode.qrcodecadastro.service.CacheImagemQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.FilaRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.storage.QrImageStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges de ocupação da fila de renderização, do cache de imagens e do armazenamento.
+ * Author: Davi Oliveira Santos
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Registra os gauges, lidos a cada coleta das métricas.
+     *
+     * @param filaRenderizacao A fila de renderização das imagens.
+     * @param cacheImagem O cache das imagens servidas pela API.
+     * @param qrImageStore O armazenamento das imagens geradas.
+     * @return O binder dos gauges.
+     */
+    @Bean
+    public MeterBinder metricasOcupacaoQrCode(FilaRenderizacao filaRenderizacao, CacheImagemQrCode cacheImagem, QrImageStore qrImageStore) {
+        return registry -> {
+            Gauge.builder("qrcode.renderizacao.fila", filaRenderizacao, FilaRenderizacao::profundidade)
+                    .description("Renderizações aguardando ou em execução")
+                    .register(registry);
+            Gauge.builder("qrcode.cache.imagem.bytes", cacheImagem, CacheImagemQrCode::bytesArmazenados)
+                    .description("Bytes das imagens mantidas no cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("qrcode.armazenamento.bytes", qrImageStore, store -> {
+                        long bytes = store.bytesArmazenados();
+                        return bytes < 0 ? Double.NaN : bytes;
+                    })
+                    .description("Bytes das imagens gravadas no armazenamento")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
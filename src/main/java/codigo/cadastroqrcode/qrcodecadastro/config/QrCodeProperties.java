@@ -0,0 +1,391 @@
+package codigo.cadastroqrcode.qrcodecadastro.config;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Propriedades de configuração do cadastro de QR Code (prefixo "qrcode").
+ * Author: Davi Oliveira Santos
+ */
+@Data
+@ConfigurationProperties(prefix = "qrcode")
+public class QrCodeProperties {
+
+    private Lote lote = new Lote();
+
+    private Renderizacao renderizacao = new Renderizacao();
+
+    private CacheImagem cacheImagem = new CacheImagem();
+
+    private CacheRenderizacao cacheRenderizacao = new CacheRenderizacao();
+
+    private Armazenamento armazenamento = new Armazenamento();
+
+    private Idempotencia idempotencia = new Idempotencia();
+
+    private Expiracao expiracao = new Expiracao();
+
+    private Execucao execucao = new Execucao();
+
+    private Reativo reativo = new Reativo();
+
+    private Payload payload = new Payload();
+
+    /**
+     * Perfis de renderização por nome. O perfil "cadastro" gera as imagens armazenadas e é criado com os
+     * valores padrão quando não for configurado.
+     */
+    private Map<String, Perfil> perfis = new LinkedHashMap<>();
+
+    private Aquecimento aquecimento = new Aquecimento();
+
+    private Gravacao gravacao = new Gravacao();
+
+    private Exportacao exportacao = new Exportacao();
+
+    private Verificacao verificacao = new Verificacao();
+
+    /**
+     * Configurações do cadastro em lote.
+     */
+    @Data
+    public static class Lote {
+
+        /**
+         * Quantidade de registros enviados ao banco de cada vez; o lote inteiro é gravado em uma única transação.
+         */
+        private int tamanhoBloco = 500;
+
+        /**
+         * Quantidade de threads usadas para gerar as imagens do lote.
+         */
+        private int threadsRenderizacao = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Quantidade máxima de imagens aguardando uma thread livre.
+         */
+        private int capacidadeFila = 1000;
+    }
+
+    /**
+     * Configurações da fila de renderização assíncrona das imagens.
+     */
+    @Data
+    public static class Renderizacao {
+
+        /**
+         * Caminho de geração das imagens: LEGADO usa BufferedImage e ImageIO; OTIMIZADO escreve
+         * o PNG de 1 bit diretamente a partir da matriz nativa do QR Code.
+         */
+        private Modo modo = Modo.OTIMIZADO;
+
+        /**
+         * Quantidade de threads que geram as imagens enfileiradas.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Quantidade máxima de imagens aguardando ou em geração; acima disso o cadastro é recusado.
+         */
+        private int capacidadeFila = 500;
+
+        /**
+         * Quantidade de tarefas mantidas em memória para consulta de situação.
+         */
+        private int tarefasRetidas = 10000;
+
+        /**
+         * Perfis gerados e armazenados junto com a imagem do cadastro, a partir da mesma matriz; aceitam
+         * somente png e svg.
+         */
+        private List<String> variantes = new ArrayList<>();
+
+        public enum Modo {
+            LEGADO,
+            OTIMIZADO
+        }
+    }
+
+    /**
+     * Configurações do cache das imagens servidas pela API.
+     */
+    @Data
+    public static class CacheImagem {
+
+        /**
+         * Total máximo de bytes de imagens mantidos em memória.
+         */
+        private long capacidadeBytes = 64L * 1024 * 1024;
+    }
+
+    /**
+     * Configurações do cache de renderização, que evita gerar de novo imagens com o mesmo conteúdo.
+     */
+    @Data
+    public static class CacheRenderizacao {
+
+        /**
+         * Total máximo de bytes de imagens renderizadas mantidos em memória.
+         */
+        private long capacidadeBytes = 16L * 1024 * 1024;
+    }
+
+    /**
+     * Configurações do armazenamento das imagens geradas.
+     */
+    @Data
+    public static class Armazenamento {
+
+        /**
+         * Implementação do armazenamento: sistema-arquivos ou memoria.
+         */
+        private String tipo = "sistema-arquivos";
+
+        /**
+         * Diretório base das imagens no armazenamento em sistema de arquivos.
+         */
+        private String diretorio = "imagens-qrcode";
+    }
+
+    /**
+     * Configurações da janela em memória das chaves de idempotência recentes.
+     */
+    @Data
+    public static class Idempotencia {
+
+        /**
+         * Tempo em que uma chave recente é respondida sem consultar o banco.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Quantidade máxima de chaves mantidas em memória.
+         */
+        private long capacidade = 100_000;
+    }
+
+    /**
+     * Configurações da tarefa agendada que expira os QR Codes abertos com data de expiração vencida.
+     */
+    @Data
+    public static class Expiracao {
+
+        /**
+         * Agenda da tarefa, em expressão cron do Spring.
+         */
+        private String cron = "0 */5 * * * *";
+
+        /**
+         * Quantidade de QR Codes atualizados por transação.
+         */
+        private int tamanhoBloco = 1000;
+
+        /**
+         * Prazo da trava que impede execuções simultâneas em vários nós, renovado a cada terço enquanto a execução dura.
+         */
+        private Duration duracaoTrava = Duration.ofMinutes(10);
+
+        /**
+         * Remove do armazenamento as imagens dos QR Codes expirados. Desligado, as imagens são gravadas novamente
+         * com o status EXPIRED, já que o status faz parte do conteúdo do QR Code.
+         */
+        private boolean removerImagens = false;
+    }
+
+    /**
+     * Configurações do modo de execução das requisições.
+     */
+    @Data
+    public static class Execucao {
+
+        /**
+         * Executa as requisições em threads virtuais (exige Java 21 ou superior). A fila de renderização continua
+         * no pool de threads de plataforma de qrcode.renderizacao.threads.
+         */
+        private boolean threadsVirtuais = false;
+
+        /**
+         * Quantidade máxima de operações simultâneas no banco com threads virtuais; deve acompanhar
+         * o tamanho do pool de conexões.
+         */
+        private int permissoesJdbc = 10;
+
+        /**
+         * Tempo máximo de espera por uma permissão de acesso ao banco antes de recusar a requisição.
+         */
+        private Duration esperaJdbc = Duration.ofSeconds(5);
+
+        /**
+         * Duração mínima de um pinning de thread virtual para ser registrado.
+         */
+        private Duration limitePinning = Duration.ofMillis(20);
+    }
+
+    /**
+     * Configurações da API reativa de cadastro.
+     */
+    @Data
+    public static class Reativo {
+
+        /**
+         * Quantidade máxima de threads que gravam e geram as imagens dos cadastros reativos; também limita
+         * quantos registros de um fluxo são processados ao mesmo tempo.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Quantidade máxima de cadastros aguardando uma thread livre; acima disso o cadastro é recusado.
+         */
+        private int capacidadeFila = 1000;
+    }
+
+    /**
+     * Configurações do conteúdo gravado nos QR Codes.
+     */
+    @Data
+    public static class Payload {
+
+        /**
+         * Formato do conteúdo: TEXTO mantém o bloco de rótulos e valores original; JSON usa chaves curtas sem
+         * campos nulos; BASE45 grava campos binários de tamanho fixo em Base45, no modo alfanumérico do QR Code;
+         * BR_CODE monta o payload EMV do PIX com o valor e o ID como identificador da transação.
+         */
+        private Formato formato = Formato.TEXTO;
+
+        /**
+         * Chave PIX do recebedor, obrigatória no formato BR_CODE.
+         */
+        private String chavePix;
+
+        /**
+         * Nome do recebedor no formato BR_CODE, com até 25 caracteres.
+         */
+        private String nomeRecebedor = "CADASTRO QRCODE";
+
+        /**
+         * Cidade do recebedor no formato BR_CODE, com até 15 caracteres.
+         */
+        private String cidadeRecebedor = "SAO PAULO";
+
+        public enum Formato {
+            TEXTO,
+            JSON,
+            BASE45,
+            BR_CODE
+        }
+    }
+
+    /**
+     * Perfil de renderização das imagens de QR Code.
+     */
+    @Data
+    public static class Perfil {
+
+        /**
+         * Largura e altura da imagem, em pixels.
+         */
+        private int tamanho = 400;
+
+        /**
+         * Zona de silêncio ao redor do QR Code, em módulos.
+         */
+        private int margem = 4;
+
+        /**
+         * Nível de correção de erros; vazio escolhe o maior nível que cabe na menor versão do conteúdo.
+         */
+        private ErrorCorrectionLevel correcao;
+
+        /**
+         * Charset do modo byte, gravado no QR Code em um segmento ECI; vazio usa ISO-8859-1 sem ECI.
+         */
+        private String charset;
+
+        /**
+         * Formato da imagem: png, svg, gif ou bmp.
+         */
+        private String formato = "png";
+    }
+
+    /**
+     * Configurações do aquecimento da renderização na inicialização, antes de a aplicação aceitar tráfego.
+     */
+    @Data
+    public static class Aquecimento {
+
+        /**
+         * Quantidade de imagens geradas por perfil; 0 desativa o aquecimento.
+         */
+        private int iteracoes = 200;
+    }
+
+    /**
+     * Configurações da gravação dos cadastros individuais.
+     */
+    @Data
+    public static class Gravacao {
+
+        /**
+         * Agrupa os cadastros em um buffer em memória e os grava em transações compartilhadas; cada cadastro só
+         * é confirmado depois do commit do seu grupo.
+         */
+        private boolean agrupada = false;
+
+        /**
+         * Quantidade máxima de cadastros gravados em uma transação.
+         */
+        private int tamanhoGrupo = 200;
+
+        /**
+         * Tempo máximo que o primeiro cadastro de um grupo aguarda outros antes da gravação.
+         */
+        private Duration esperaGrupo = Duration.ofMillis(2);
+
+        /**
+         * Quantidade máxima de cadastros aguardando gravação; acima disso o cadastro é recusado.
+         */
+        private int capacidadeFila = 10000;
+
+        /**
+         * Tempo máximo que a requisição aguarda o seu cadastro entrar em um grupo, também usado como timeout da
+         * transação do grupo; um cadastro que não entrou em um grupo nesse tempo é recusado e não é gravado.
+         */
+        private Duration esperaConfirmacao = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Configurações da exportação dos QR Codes cadastrados.
+     */
+    @Data
+    public static class Exportacao {
+
+        /**
+         * Quantidade de linhas trazidas do banco a cada busca do cursor da exportação.
+         */
+        private int tamanhoBusca = 500;
+    }
+
+    /**
+     * Configurações do cache de leitura da verificação dos QR Codes lidos.
+     */
+    @Data
+    public static class Verificacao {
+
+        /**
+         * Tempo em que a situação de um QR Code consultado é respondida sem consultar o banco.
+         */
+        private Duration ttl = Duration.ofSeconds(5);
+
+        /**
+         * Quantidade máxima de QR Codes mantidos no cache.
+         */
+        private long capacidade = 100_000;
+    }
+}
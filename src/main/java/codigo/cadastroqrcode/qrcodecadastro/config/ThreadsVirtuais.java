@@ -0,0 +1,23 @@
+package codigo.cadastroqrcode.qrcodecadastro.config;
+
+/**
+ * Detecção das threads virtuais, já que o projeto compila para Java 17 e as threads virtuais só existem
+ * a partir do Java 21.
+ * Author: Davi Oliveira Santos
+ */
+public final class ThreadsVirtuais {
+
+    private static final int VERSAO_MINIMA = 21;
+
+    private ThreadsVirtuais() {
+    }
+
+    /**
+     * Indica se a JVM em execução suporta threads virtuais.
+     *
+     * @return true a partir do Java 21.
+     */
+    public static boolean suportadas() {
+        return Runtime.version().feature() >= VERSAO_MINIMA;
+    }
+}
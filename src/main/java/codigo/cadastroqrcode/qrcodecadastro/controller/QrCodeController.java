@@ -1,48 +1,231 @@
 package codigo.cadastroqrcode.qrcodecadastro.controller;
 
+import codigo.cadastroqrcode.qrcodecadastro.dto.CadastroQrCodeRespostaDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroValidacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.FiltroQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.PaginaQrCodeDTO;
 import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoLoteDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoVerificacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.TarefaRenderizacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.VerificacaoQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.service.ExportacaoQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.FilaRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.service.ImagemQrCode;
 import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeService;
+import codigo.cadastroqrcode.qrcodecadastro.service.ResultadoCadastro;
+import codigo.cadastroqrcode.qrcodecadastro.service.VerificacaoQrCode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.zxing.WriterException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.persistence.EntityNotFoundException;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
 
 @RestController
 public class QrCodeController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     @Autowired
     private QrCodeService qrCodeService;
 
-    @Operation(summary = "Cadastra QrCode Imediato", description = "Cadastra e gera um QR Code imediato")
+    @Autowired
+    private FilaRenderizacao filaRenderizacao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExportacaoQrCode exportacaoQrCode;
+
+    @Autowired
+    private VerificacaoQrCode verificacaoQrCode;
+
+    @Operation(summary = "Cadastra QrCode Imediato", description = "Cadastra e gera um QR Code imediato; repetições com o mesmo Idempotency-Key devolvem o cadastro original")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "QR Code gerado com sucesso"),
+            @ApiResponse(responseCode = "202", description = "QR Code cadastrado e imagem enfileirada para geração"),
             @ApiResponse(responseCode = "404", description = "QR Code não encontrado"),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos")
+            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key já usado com outra requisição"),
+            @ApiResponse(responseCode = "503", description = "Fila de renderização cheia")
     })
     @PostMapping("/cadastroQrCode")
-    public String cadastroQrCodeImediato(
+    public ResponseEntity<?> cadastroQrCodeImediato(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Dados do QR Code a ser cadastrado")
-            @RequestBody QrCodeDTO qrCodeDTO) {
-        qrCodeService.gerarDadosQrCode(qrCodeDTO.getId(), qrCodeDTO.getValor(), qrCodeDTO.getDescricao(), qrCodeDTO.getStatus(),
-                qrCodeDTO.getDataAtualizacao(), qrCodeDTO.getDataExpiracao());
-        return "QR Code Imediato Cadastrado com Sucesso!";
+            @RequestBody QrCodeDTO qrCodeDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String chaveIdempotencia) {
+        ResultadoCadastro resultado = qrCodeService.gerarDadosQrCode(qrCodeDTO.getId(), qrCodeDTO.getValor(), qrCodeDTO.getDescricao(), qrCodeDTO.getStatus(),
+                qrCodeDTO.getDataAtualizacao(), qrCodeDTO.getDataExpiracao(), chaveIdempotencia);
+        return resposta(resultado, "QR Code Imediato Cadastrado com Sucesso!");
     }
 
-    @Operation(summary = "Cadastra QrCode Imediato com Data de Vencimento", description = "Cadastra e gera um QR Code imediato com data de vencimento")
+    @Operation(summary = "Cadastra QrCode Imediato com Data de Vencimento", description = "Cadastra e gera um QR Code imediato com data de vencimento; repetições com o mesmo Idempotency-Key devolvem o cadastro original")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "QR Code gerado com sucesso"),
+            @ApiResponse(responseCode = "202", description = "QR Code cadastrado e imagem enfileirada para geração"),
             @ApiResponse(responseCode = "404", description = "QR Code não encontrado"),
-            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos")
+            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key já usado com outra requisição"),
+            @ApiResponse(responseCode = "503", description = "Fila de renderização cheia")
     })
     @PostMapping("/cadastroQrCodeVencimento")
-    public String cadastroQrCodeImediatoDataVencimento(
+    public ResponseEntity<?> cadastroQrCodeImediatoDataVencimento(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Dados do QR Code a ser cadastrado")
-            @RequestBody QrCodeDTO qrCodeDTO) {
-        qrCodeService.gerarDadosQrCodeVencimento(qrCodeDTO.getId(), qrCodeDTO.getValor(), qrCodeDTO.getDescricao(), qrCodeDTO.getStatus(),
-                qrCodeDTO.getDataAtualizacao(), qrCodeDTO.getDataExpiracao(), qrCodeDTO.getDataVencimento());
-        return "QR Code Imedato com Vencimento Cadastrado com Sucesso!";
+            @RequestBody QrCodeDTO qrCodeDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String chaveIdempotencia) {
+        ResultadoCadastro resultado = qrCodeService.gerarDadosQrCodeVencimento(qrCodeDTO.getId(), qrCodeDTO.getValor(), qrCodeDTO.getDescricao(), qrCodeDTO.getStatus(),
+                qrCodeDTO.getDataAtualizacao(), qrCodeDTO.getDataExpiracao(), qrCodeDTO.getDataVencimento(), chaveIdempotencia);
+        return resposta(resultado, "QR Code Imedato com Vencimento Cadastrado com Sucesso!");
+    }
+
+    @Operation(summary = "Cadastra QrCodes em Lote", description = "Cadastra e gera QR Codes a partir de um array JSON ou de um fluxo NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote cadastrado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Registros inválidos no lote; nenhum registro é cadastrado")
+    })
+    @PostMapping(value = "/cadastroQrCodeLote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoLoteDTO> cadastroQrCodeLote(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array JSON ou NDJSON com os QR Codes a serem cadastrados")
+            InputStream corpo) throws IOException {
+        List<QrCodeDTO> qrCodesDTO;
+        try (MappingIterator<QrCodeDTO> registros = objectMapper.readerFor(QrCodeDTO.class).readValues(corpo)) {
+            qrCodesDTO = registros.readAll();
+        }
+        ResultadoLoteDTO resultado = qrCodeService.gerarDadosQrCodeLote(qrCodesDTO);
+        HttpStatus status = resultado.getErros().isEmpty() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return new ResponseEntity<>(resultado, status);
+    }
+
+    @Operation(summary = "Consulta Renderização", description = "Consulta a situação da geração da imagem de um QR Code")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação da renderização"),
+            @ApiResponse(responseCode = "404", description = "Tarefa de renderização não encontrada")
+    })
+    @GetMapping("/renderizacao/{idTarefa}")
+    public TarefaRenderizacaoDTO consultaRenderizacao(@PathVariable String idTarefa) {
+        return filaRenderizacao.consultar(idTarefa)
+                .orElseThrow(() -> new EntityNotFoundException("Tarefa de renderização não encontrada com o id " + idTarefa));
+    }
+
+    @Operation(summary = "Consulta QrCodes", description = "Lista QR Codes por status e intervalos de expiração e vencimento, em páginas ordenadas por ID; "
+            + "a próxima página é pedida com aposId igual ao proximoAposId da resposta")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de QR Codes"),
+            @ApiResponse(responseCode = "400", description = "Limite ou intervalo de datas inválido")
+    })
+    @GetMapping("/qrcodes")
+    public PaginaQrCodeDTO consultaQrCodes(@ParameterObject FiltroQrCodeDTO filtro) {
+        return qrCodeService.consultarQrCodes(filtro);
+    }
+
+    @Operation(summary = "Imagem do QrCode", description = "Gera a imagem de um QR Code cadastrado no perfil de renderização informado, "
+            + "respondendo 304 quando o ETag informado ainda é válido; tamanho e formato não informados vêm do perfil, e os perfis "
+            + "armazenados sem tamanho ou formato próprios são servidos pela imagem gravada, enquanto ela corresponder ao conteúdo atual")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Imagem do QR Code"),
+            @ApiResponse(responseCode = "304", description = "Imagem não modificada"),
+            @ApiResponse(responseCode = "404", description = "QR Code não encontrado"),
+            @ApiResponse(responseCode = "400", description = "Perfil, tamanho ou formato inválido (png, svg, gif ou bmp)")
+    })
+    @GetMapping("/qrcode/{id}/image")
+    public ResponseEntity<byte[]> imagemQrCode(@PathVariable Long id,
+                                               @RequestParam(required = false) String perfil,
+                                               @RequestParam(required = false) Integer tamanho,
+                                               @RequestParam(required = false) String formato,
+                                               WebRequest webRequest) throws WriterException, IOException {
+        ImagemQrCode imagem = qrCodeService.prepararImagem(id, perfil, tamanho, formato);
+        if (webRequest.checkNotModified(imagem.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(imagem.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.parseMediaType(imagem.getTipoConteudo()))
+                .body(qrCodeService.gerarImagem(imagem));
+    }
+
+    @Operation(summary = "Exporta QrCodes", description = "Exporta todos os QR Codes cadastrados em CSV ou NDJSON, transmitidos direto na resposta; "
+            + "com imagens=true, a resposta é um ZIP com o arquivo de linhas e os PNGs armazenados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arquivo exportado"),
+            @ApiResponse(responseCode = "400", description = "Formato inválido (CSV ou NDJSON)")
+    })
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportacao(@RequestParam(defaultValue = "CSV") ExportacaoQrCode.Formato formato,
+                                                            @RequestParam(defaultValue = "false") boolean imagens) {
+        String arquivo = "qrcodes." + (imagens ? "zip" : formato.getExtensao());
+        StreamingResponseBody corpo = imagens
+                ? saida -> exportacaoQrCode.exportarComImagens(formato, saida)
+                : saida -> exportacaoQrCode.exportar(formato, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(imagens ? "application/zip" : formato.getTipoConteudo()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo).build().toString())
+                .body(corpo);
+    }
+
+    @Operation(summary = "Verifica QrCode Lido", description = "Extrai o ID do conteúdo lido de um QR Code, em qualquer formato de payload, "
+            + "confere o status e a data de expiração do cadastro e compara o conteúdo com o cadastro codificado no mesmo formato")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação do QR Code; valido indica se a cobrança ainda pode ser paga"),
+            @ApiResponse(responseCode = "400", description = "Conteúdo sem ID reconhecível")
+    })
+    @PostMapping("/verificacao")
+    public ResultadoVerificacaoDTO verificacao(@RequestBody VerificacaoQrCodeDTO verificacaoDTO) {
+        return verificacaoQrCode.verificar(verificacaoDTO.getConteudo());
+    }
+
+    @Operation(summary = "Verifica Imagem de QrCode", description = "Lê o QR Code da imagem enviada, confere o status e a data de expiração do cadastro "
+            + "e compara o conteúdo com o cadastro codificado no mesmo formato")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Situação do QR Code; valido indica se a cobrança ainda pode ser paga"),
+            @ApiResponse(responseCode = "400", description = "Imagem inválida ou sem QR Code legível")
+    })
+    @PostMapping(value = "/verificacao/imagem", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResultadoVerificacaoDTO verificacaoImagem(@RequestParam MultipartFile imagem) throws IOException {
+        try (InputStream conteudo = imagem.getInputStream()) {
+            return verificacaoQrCode.verificarImagem(conteudo);
+        }
+    }
+
+    private ResponseEntity<?> resposta(ResultadoCadastro resultado, String mensagem) {
+        if (!resultado.isValido()) {
+            return ResponseEntity.badRequest().body(new ErroValidacaoDTO("Dados inválidos", resultado.getErros()));
+        }
+        CadastroQrCodeRespostaDTO resposta = resultado.getResposta();
+        resposta.setMensagem(mensagem);
+        return aceito(resposta);
+    }
+
+    private ResponseEntity<CadastroQrCodeRespostaDTO> aceito(CadastroQrCodeRespostaDTO resposta) {
+        URI local = resposta.getIdTarefaRenderizacao() != null
+                ? URI.create("/renderizacao/" + resposta.getIdTarefaRenderizacao())
+                : URI.create("/qrcode/" + resposta.getId() + "/image");
+        return ResponseEntity.accepted()
+                .location(local)
+                .body(resposta);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package codigo.cadastroqrcode.qrcodecadastro.controller;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.CadastroQrCodeRespostaDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroValidacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoRegistroDTO;
+import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeServiceReativo;
+import codigo.cadastroqrcode.qrcodecadastro.service.ResultadoCadastro;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/reativo")
+public class QrCodeReativoController {
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    @Autowired
+    private QrCodeServiceReativo qrCodeServiceReativo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Operation(summary = "Cadastra QrCode Imediato (reativo)", description = "Cadastra e gera um QR Code imediato sem ocupar a thread da requisição")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "QR Code cadastrado e imagem enfileirada para geração"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
+            @ApiResponse(responseCode = "503", description = "Fila de renderização ou de cadastros reativos cheia")
+    })
+    @PostMapping("/cadastroQrCode")
+    public Mono<ResponseEntity<?>> cadastroQrCodeImediato(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Dados do QR Code a ser cadastrado")
+            @RequestBody QrCodeDTO qrCodeDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String chaveIdempotencia) {
+        return qrCodeServiceReativo.gerarDadosQrCode(qrCodeDTO, chaveIdempotencia)
+                .map(resultado -> resposta(resultado, "QR Code Imediato Cadastrado com Sucesso!"));
+    }
+
+    @Operation(summary = "Cadastra QrCode Imediato com Data de Vencimento (reativo)", description = "Cadastra e gera um QR Code imediato com data de vencimento sem ocupar a thread da requisição")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "QR Code cadastrado e imagem enfileirada para geração"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
+            @ApiResponse(responseCode = "503", description = "Fila de renderização ou de cadastros reativos cheia")
+    })
+    @PostMapping("/cadastroQrCodeVencimento")
+    public Mono<ResponseEntity<?>> cadastroQrCodeImediatoDataVencimento(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Dados do QR Code a ser cadastrado")
+            @RequestBody QrCodeDTO qrCodeDTO,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String chaveIdempotencia) {
+        return qrCodeServiceReativo.gerarDadosQrCodeVencimento(qrCodeDTO, chaveIdempotencia)
+                .map(resultado -> resposta(resultado, "QR Code Imedato com Vencimento Cadastrado com Sucesso!"));
+    }
+
+    @Operation(summary = "Cadastra QrCodes em Fluxo", description = "Cadastra um array JSON ou fluxo NDJSON de QR Codes e devolve o resultado de cada registro, "
+            + "em NDJSON ou server-sent events, assim que sua imagem é gerada; o corpo só é lido conforme os resultados são consumidos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados dos registros, na ordem de entrada")
+    })
+    @PostMapping(value = "/cadastroQrCodeFluxo",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ResultadoRegistroDTO> cadastroQrCodeFluxo(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Array JSON ou NDJSON com os QR Codes a serem cadastrados")
+            InputStream corpo) {
+        Flux<QrCodeDTO> registros = Flux.using(
+                () -> objectMapper.readerFor(QrCodeDTO.class).<QrCodeDTO>readValues(corpo),
+                iterador -> Flux.fromIterable(() -> iterador),
+                QrCodeReativoController::fechar);
+        return qrCodeServiceReativo.gerarDadosQrCodeFluxo(registros);
+    }
+
+    private static void fechar(MappingIterator<QrCodeDTO> registros) {
+        try {
+            registros.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResponseEntity<?> resposta(ResultadoCadastro resultado, String mensagem) {
+        if (!resultado.isValido()) {
+            return ResponseEntity.badRequest().body(new ErroValidacaoDTO("Dados inválidos", resultado.getErros()));
+        }
+        CadastroQrCodeRespostaDTO resposta = resultado.getResposta();
+        resposta.setMensagem(mensagem);
+        URI local = resposta.getIdTarefaRenderizacao() != null
+                ? URI.create("/renderizacao/" + resposta.getIdTarefaRenderizacao())
+                : URI.create("/qrcode/" + resposta.getId() + "/image");
+        return ResponseEntity.accepted()
+                .location(local)
+                .body(resposta);
+    }
+}
@@ -0,0 +1,13 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroCampoDTO {
+    private String campo;
+    private String mensagem;
+}
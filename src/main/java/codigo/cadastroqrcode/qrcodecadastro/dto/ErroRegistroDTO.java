@@ -0,0 +1,14 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroRegistroDTO {
+    private int indice;
+    private Long id;
+    private String mensagem;
+}
@@ -0,0 +1,15 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroValidacaoDTO {
+    private String mensagem;
+    private List<ErroCampoDTO> erros;
+}
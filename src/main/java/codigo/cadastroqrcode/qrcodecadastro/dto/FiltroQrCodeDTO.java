@@ -0,0 +1,21 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class FiltroQrCodeDTO {
+    private String status;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataExpiracaoDe;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataExpiracaoAte;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataVencimentoDe;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataVencimentoAte;
+    private Long aposId;
+    private int limite = 50;
+}
@@ -0,0 +1,15 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaQrCodeDTO {
+    private List<QrCodeResumoDTO> itens;
+    private Long proximoAposId;
+}
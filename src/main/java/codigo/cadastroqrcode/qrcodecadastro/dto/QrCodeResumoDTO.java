@@ -0,0 +1,20 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QrCodeResumoDTO {
+    private Long id;
+    private String valor;
+    private String descricao;
+    private String status;
+    private LocalDate dataAtualizacao;
+    private LocalDate dataExpiracao;
+    private LocalDate dataVencimento;
+}
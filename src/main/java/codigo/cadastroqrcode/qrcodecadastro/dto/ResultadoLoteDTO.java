@@ -0,0 +1,14 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResultadoLoteDTO {
+    private int totalRegistros;
+    private int totalCadastrados;
+    private int falhasRenderizacao;
+    private List<ErroRegistroDTO> erros = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoRegistroDTO {
+    private long indice;
+    private Long idInformado;
+    private Long id;
+    private boolean imagemGerada;
+    private String erro;
+}
@@ -0,0 +1,20 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoVerificacaoDTO {
+    private Long id;
+    private boolean valido;
+    private SituacaoVerificacao situacao;
+    private String status;
+    private String valor;
+    private LocalDate dataExpiracao;
+    private LocalDate dataVencimento;
+}
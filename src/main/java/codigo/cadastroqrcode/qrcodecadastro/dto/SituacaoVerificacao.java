@@ -0,0 +1,9 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+public enum SituacaoVerificacao {
+    VALIDO,
+    NAO_ENCONTRADO,
+    EXPIRADO,
+    STATUS_INVALIDO,
+    CONTEUDO_DIVERGENTE
+}
@@ -0,0 +1,8 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+public enum StatusRenderizacao {
+    PENDENTE,
+    PROCESSANDO,
+    CONCLUIDA,
+    FALHA
+}
@@ -0,0 +1,18 @@
+package codigo.cadastroqrcode.qrcodecadastro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TarefaRenderizacaoDTO {
+    private String id;
+    private Long qrCodeId;
+    private StatusRenderizacao status;
+    private Instant criadaEm;
+    private Instant concluidaEm;
+}
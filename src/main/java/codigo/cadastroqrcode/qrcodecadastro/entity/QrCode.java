@@ -6,16 +6,25 @@ import lombok.Data;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "qrcode")
+@Table(name = "qrcode",
+        uniqueConstraints = @UniqueConstraint(name = "uk_qrcode_chave_idempotencia", columnNames = "chave_idempotencia"),
+        indexes = {
+                @Index(name = "idx_qrcode_status_expiracao", columnList = "status, data_expiracao, id"),
+                @Index(name = "idx_qrcode_vencimento", columnList = "data_vencimento, id")
+        })
 @Data
 public class QrCode {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "qrcode_seq")
+    @SequenceGenerator(name = "qrcode_seq", sequenceName = "qrcode_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
     private String valor;
 
+    @Column(name = "valor_centavos")
+    private Long valorCentavos;
+
     private String descricao;
 
     private String status;
@@ -28,4 +37,10 @@ public class QrCode {
 
     @NotNull
     private LocalDate dataVencimento;
+
+    @Column(name = "chave_idempotencia", length = 128)
+    private String chaveIdempotencia;
+
+    @Column(name = "hash_requisicao", length = 64)
+    private String hashRequisicao;
 }
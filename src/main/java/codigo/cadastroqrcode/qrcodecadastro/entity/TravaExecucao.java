@@ -0,0 +1,20 @@
+package codigo.cadastroqrcode.qrcodecadastro.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "trava_execucao")
+@Data
+public class TravaExecucao {
+    @Id
+    @Column(length = 64)
+    private String nome;
+
+    private Instant bloqueadaAte;
+
+    @Column(length = 128)
+    private String dono;
+}
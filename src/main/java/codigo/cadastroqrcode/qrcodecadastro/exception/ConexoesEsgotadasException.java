@@ -0,0 +1,11 @@
+package codigo.cadastroqrcode.qrcodecadastro.exception;
+
+/**
+ * Lançada quando não há permissão de acesso ao banco disponível dentro do tempo de espera.
+ */
+public class ConexoesEsgotadasException extends RuntimeException {
+
+    public ConexoesEsgotadasException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package codigo.cadastroqrcode.qrcodecadastro.exception;
+
+/**
+ * Lançada quando uma chave de idempotência já usada é repetida com outro corpo ou em outro endpoint de cadastro.
+ */
+public class ConflitoIdempotenciaException extends RuntimeException {
+
+    public ConflitoIdempotenciaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package codigo.cadastroqrcode.qrcodecadastro.exception;
+
+/**
+ * Lançada quando a fila de renderização de QR Codes não tem vagas para uma nova imagem.
+ */
+public class FilaRenderizacaoCheiaException extends RuntimeException {
+
+    public FilaRenderizacaoCheiaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package codigo.cadastroqrcode.qrcodecadastro.exception;
+
+/**
+ * Lançada quando a gravação agrupada não aceita mais cadastros ou não confirma a gravação dentro do tempo de espera.
+ */
+public class GravacaoIndisponivelException extends RuntimeException {
+
+    public GravacaoIndisponivelException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package codigo.cadastroqrcode.qrcodecadastro.repository;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.FiltroQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeResumoDTO;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de QR Codes cadastrados que não cabem em métodos derivados do Spring Data.
+ * Author: Davi Oliveira Santos
+ */
+public interface QrCodeConsultaRepository {
+
+    /**
+     * Busca um trecho dos QR Codes que atendem ao filtro, em ordem de ID, a partir do ID seguinte a
+     * filtro.aposId (paginação por chave, sem OFFSET).
+     *
+     * @param filtro Os filtros da consulta e o ID do último registro da página anterior.
+     * @param quantidade A quantidade máxima de registros.
+     * @return Os resumos dos QR Codes encontrados.
+     */
+    List<QrCodeResumoDTO> buscarResumos(FiltroQrCodeDTO filtro, int quantidade);
+
+    /**
+     * Percorre todos os QR Codes em ordem de ID com um cursor do banco, buscando tamanhoBusca linhas por vez.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     *
+     * @param tamanhoBusca A quantidade de linhas trazidas do banco a cada busca do cursor.
+     * @return Os resumos de todos os QR Codes.
+     */
+    Stream<QrCodeResumoDTO> transmitirResumos(int tamanhoBusca);
+}
@@ -0,0 +1,71 @@
+package codigo.cadastroqrcode.qrcodecadastro.repository;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.FiltroQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeResumoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementação das consultas por Criteria, projetando diretamente no DTO de resumo para não carregar entidades.
+ * Author: Davi Oliveira Santos
+ */
+public class QrCodeConsultaRepositoryImpl implements QrCodeConsultaRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<QrCodeResumoDTO> buscarResumos(FiltroQrCodeDTO filtro, int quantidade) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<QrCodeResumoDTO> consulta = cb.createQuery(QrCodeResumoDTO.class);
+        Root<QrCode> qrCode = consulta.from(QrCode.class);
+
+        List<Predicate> condicoes = new ArrayList<>();
+        if (filtro.getStatus() != null) {
+            condicoes.add(cb.equal(qrCode.get("status"), filtro.getStatus()));
+        }
+        if (filtro.getDataExpiracaoDe() != null) {
+            condicoes.add(cb.greaterThanOrEqualTo(qrCode.get("dataExpiracao"), filtro.getDataExpiracaoDe()));
+        }
+        if (filtro.getDataExpiracaoAte() != null) {
+            condicoes.add(cb.lessThanOrEqualTo(qrCode.get("dataExpiracao"), filtro.getDataExpiracaoAte()));
+        }
+        if (filtro.getDataVencimentoDe() != null) {
+            condicoes.add(cb.greaterThanOrEqualTo(qrCode.get("dataVencimento"), filtro.getDataVencimentoDe()));
+        }
+        if (filtro.getDataVencimentoAte() != null) {
+            condicoes.add(cb.lessThanOrEqualTo(qrCode.get("dataVencimento"), filtro.getDataVencimentoAte()));
+        }
+        if (filtro.getAposId() != null) {
+            condicoes.add(cb.greaterThan(qrCode.get("id"), filtro.getAposId()));
+        }
+
+        consulta.select(cb.construct(QrCodeResumoDTO.class,
+                        qrCode.get("id"), qrCode.get("valor"), qrCode.get("descricao"), qrCode.get("status"),
+                        qrCode.get("dataAtualizacao"), qrCode.get("dataExpiracao"), qrCode.get("dataVencimento")))
+                .where(condicoes.toArray(new Predicate[0]))
+                .orderBy(cb.asc(qrCode.get("id")));
+        return entityManager.createQuery(consulta)
+                .setMaxResults(quantidade)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<QrCodeResumoDTO> transmitirResumos(int tamanhoBusca) {
+        return entityManager.createQuery("select new codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeResumoDTO(q.id, q.valor, q.descricao, "
+                        + "q.status, q.dataAtualizacao, q.dataExpiracao, q.dataVencimento) from QrCode q order by q.id", QrCodeResumoDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, tamanhoBusca)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -1,9 +1,28 @@
 package codigo.cadastroqrcode.qrcodecadastro.repository;
 
 import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface QrCodeRepository extends JpaRepository<QrCode, Long> {
+public interface QrCodeRepository extends JpaRepository<QrCode, Long>, QrCodeConsultaRepository {
+
+    Optional<QrCode> findByChaveIdempotencia(String chaveIdempotencia);
+
+    @Query("select q.id from QrCode q where q.status = :status and q.dataExpiracao < :data order by q.id")
+    List<Long> buscarIdsExpirados(@Param("status") String status, @Param("data") LocalDate data, Limit limite);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update QrCode q set q.status = :novoStatus, q.dataAtualizacao = :data where q.id in :ids and q.status = :status")
+    int atualizarStatus(@Param("ids") Collection<Long> ids, @Param("status") String status, @Param("novoStatus") String novoStatus,
+                        @Param("data") LocalDate data);
 }
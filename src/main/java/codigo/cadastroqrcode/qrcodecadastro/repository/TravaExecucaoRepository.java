@@ -0,0 +1,31 @@
+package codigo.cadastroqrcode.qrcodecadastro.repository;
+
+import codigo.cadastroqrcode.qrcodecadastro.entity.TravaExecucao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface TravaExecucaoRepository extends JpaRepository<TravaExecucao, String> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update TravaExecucao t set t.bloqueadaAte = :ate, t.dono = :dono "
+            + "where t.nome = :nome and (t.bloqueadaAte <= :agora or t.dono = :dono)")
+    int adquirir(@Param("nome") String nome, @Param("dono") String dono, @Param("agora") Instant agora, @Param("ate") Instant ate);
+
+    @Modifying
+    @Query(value = "insert into trava_execucao (nome, bloqueada_ate) values (:nome, :bloqueadaAte)", nativeQuery = true)
+    int criar(@Param("nome") String nome, @Param("bloqueadaAte") Instant bloqueadaAte);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update TravaExecucao t set t.bloqueadaAte = :ate where t.nome = :nome and t.dono = :dono and t.bloqueadaAte > :agora")
+    int renovar(@Param("nome") String nome, @Param("dono") String dono, @Param("agora") Instant agora, @Param("ate") Instant ate);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update TravaExecucao t set t.bloqueadaAte = :agora where t.nome = :nome and t.dono = :dono")
+    int liberar(@Param("nome") String nome, @Param("dono") String dono, @Param("agora") Instant agora);
+}
@@ -0,0 +1,67 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import com.google.zxing.WriterException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Aquece a renderização na inicialização, gerando imagens descartáveis em cada perfil para que o JIT compile
+ * a codificação e a serialização e o ImageIO carregue seus plugins antes do primeiro cadastro.
+ * Nada é gravado no armazenamento nem nos caches.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@Slf4j
+public class AquecimentoRenderizacao {
+
+    private final QrCodeService qrCodeService;
+    private final PerfisRenderizacao perfis;
+    private final int iteracoes;
+
+    public AquecimentoRenderizacao(QrCodeService qrCodeService, PerfisRenderizacao perfis, QrCodeProperties propriedades) {
+        this.qrCodeService = qrCodeService;
+        this.perfis = perfis;
+        this.iteracoes = propriedades.getAquecimento().getIteracoes();
+    }
+
+    /**
+     * Gera as imagens de aquecimento de todos os perfis. Falhas são registradas e não impedem a inicialização.
+     */
+    public void aquecer() {
+        if (iteracoes <= 0) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        QrCode amostra = criarAmostra();
+        for (PerfilRenderizacao perfil : perfis.todos()) {
+            try {
+                for (int i = 0; i < iteracoes; i++) {
+                    amostra.setId((long) i);
+                    qrCodeService.escreverImagem(qrCodeService.formatarPayload(amostra), perfil, OutputStream.nullOutputStream());
+                }
+            } catch (WriterException | IOException | RuntimeException e) {
+                log.warn("Falha ao aquecer o perfil de renderização {}", perfil.getNome(), e);
+            }
+        }
+        log.info("Renderização aquecida em {} ms ({} perfis, {} imagens por perfil)",
+                (System.nanoTime() - inicio) / 1_000_000, perfis.todos().size(), iteracoes);
+    }
+
+    private static QrCode criarAmostra() {
+        LocalDate hoje = LocalDate.now();
+        QrCode qrCode = new QrCode();
+        qrCode.setValor("100.00");
+        qrCode.setDescricao("Aquecimento da renderização");
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(hoje);
+        qrCode.setDataExpiracao(hoje.plusDays(30));
+        qrCode.setDataVencimento(hoje.plusDays(10));
+        return qrCode;
+    }
+}
@@ -0,0 +1,79 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import java.util.Arrays;
+
+/**
+ * Codificação Base45 (RFC 9285), cujo alfabeto é exatamente o do modo alfanumérico do QR Code:
+ * cada par de bytes vira três caracteres, que o QR Code guarda em 16,5 bits.
+ * Author: Davi Oliveira Santos
+ */
+public final class Base45 {
+
+    private static final char[] ALFABETO = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:".toCharArray();
+    private static final int[] VALORES = new int[128];
+
+    static {
+        Arrays.fill(VALORES, -1);
+        for (int i = 0; i < ALFABETO.length; i++) {
+            VALORES[ALFABETO[i]] = i;
+        }
+    }
+
+    private Base45() {
+    }
+
+    /**
+     * Codifica bytes em Base45.
+     *
+     * @param dados Os bytes a codificar.
+     * @return O texto em Base45.
+     */
+    public static String codificar(byte[] dados) {
+        StringBuilder texto = new StringBuilder((dados.length / 2) * 3 + (dados.length % 2) * 2);
+        int i = 0;
+        for (; i + 1 < dados.length; i += 2) {
+            int valor = (dados[i] & 0xFF) * 256 + (dados[i + 1] & 0xFF);
+            texto.append(ALFABETO[valor % 45]).append(ALFABETO[(valor / 45) % 45]).append(ALFABETO[valor / (45 * 45)]);
+        }
+        if (i < dados.length) {
+            int valor = dados[i] & 0xFF;
+            texto.append(ALFABETO[valor % 45]).append(ALFABETO[valor / 45]);
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Decodifica um texto em Base45.
+     *
+     * @param texto O texto em Base45.
+     * @return Os bytes decodificados.
+     * @throws IllegalArgumentException Se o texto não for Base45 válido.
+     */
+    public static byte[] decodificar(String texto) {
+        if (texto.length() % 3 == 1) {
+            throw new IllegalArgumentException("Tamanho inválido para Base45: " + texto.length());
+        }
+        byte[] dados = new byte[(texto.length() / 3) * 2 + (texto.length() % 3 == 2 ? 1 : 0)];
+        int posicao = 0;
+        for (int i = 0; i < texto.length(); i += 3) {
+            boolean par = i + 2 < texto.length();
+            int valor = valor(texto.charAt(i)) + valor(texto.charAt(i + 1)) * 45 + (par ? valor(texto.charAt(i + 2)) * 45 * 45 : 0);
+            if (valor > (par ? 0xFFFF : 0xFF)) {
+                throw new IllegalArgumentException("Sequência inválida para Base45 na posição " + i);
+            }
+            if (par) {
+                dados[posicao++] = (byte) (valor >>> 8);
+            }
+            dados[posicao++] = (byte) valor;
+        }
+        return dados;
+    }
+
+    private static int valor(char caractere) {
+        int valor = caractere < VALORES.length ? VALORES[caractere] : -1;
+        if (valor < 0) {
+            throw new IllegalArgumentException("Caractere inválido para Base45: " + caractere);
+        }
+        return valor;
+    }
+}
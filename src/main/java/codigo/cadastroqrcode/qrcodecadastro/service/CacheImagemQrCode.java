@@ -0,0 +1,67 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU em memória das imagens de QR Code servidas pela API, limitado pelo total de bytes armazenados.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+public class CacheImagemQrCode {
+
+    private final long capacidadeBytes;
+    private final LinkedHashMap<String, byte[]> imagens = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytesArmazenados;
+
+    public CacheImagemQrCode(QrCodeProperties propriedades) {
+        this.capacidadeBytes = propriedades.getCacheImagem().getCapacidadeBytes();
+    }
+
+    /**
+     * Obtém uma imagem do cache, marcando-a como usada recentemente.
+     *
+     * @param chave A chave da imagem.
+     * @return Os bytes da imagem, ou null se não estiver no cache.
+     */
+    public synchronized byte[] obter(String chave) {
+        return imagens.get(chave);
+    }
+
+    /**
+     * Armazena uma imagem no cache, removendo as menos usadas até caber no limite de bytes.
+     * Imagens maiores que o próprio limite não são armazenadas.
+     *
+     * @param chave A chave da imagem.
+     * @param conteudo Os bytes da imagem.
+     */
+    public synchronized void armazenar(String chave, byte[] conteudo) {
+        if (conteudo.length > capacidadeBytes) {
+            return;
+        }
+        byte[] anterior = imagens.put(chave, conteudo);
+        if (anterior != null) {
+            bytesArmazenados -= anterior.length;
+        }
+        bytesArmazenados += conteudo.length;
+
+        Iterator<Map.Entry<String, byte[]>> maisAntigas = imagens.entrySet().iterator();
+        while (bytesArmazenados > capacidadeBytes && maisAntigas.hasNext()) {
+            bytesArmazenados -= maisAntigas.next().getValue().length;
+            maisAntigas.remove();
+        }
+    }
+
+    /**
+     * Total de bytes das imagens em cache.
+     *
+     * @return O total de bytes armazenados.
+     */
+    public synchronized long bytesArmazenados() {
+        return bytesArmazenados;
+    }
+}
@@ -0,0 +1,118 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Mode;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Calcula, sem codificar a matriz, a menor versão de QR Code que comporta um conteúdo e o maior nível de
+ * correção de erros que ainda cabe nessa versão. Segue as mesmas regras do Encoder do ZXing: um único segmento
+ * no modo escolhido por Encoder.chooseMode e o modo byte em ISO-8859-1, ou no charset informado precedido
+ * do segmento ECI.
+ * Author: Davi Oliveira Santos
+ */
+public final class CapacidadeQrCode {
+
+    private static final int VERSAO_MAXIMA = 40;
+    private static final int BITS_MODO = 4;
+    private static final int BITS_ECI = BITS_MODO + 8;
+    private static final ErrorCorrectionLevel[] NIVEIS_DECRESCENTES = {
+            ErrorCorrectionLevel.H, ErrorCorrectionLevel.Q, ErrorCorrectionLevel.M, ErrorCorrectionLevel.L
+    };
+
+    private CapacidadeQrCode() {
+    }
+
+    /**
+     * Escolhe o maior nível de correção de erros que não aumenta a versão mínima do QR Code.
+     *
+     * @param conteudo O conteúdo do QR Code.
+     * @return O nível de correção; L se o conteúdo não couber em nenhuma versão.
+     */
+    public static ErrorCorrectionLevel nivelCorrecao(String conteudo) {
+        return nivelCorrecao(conteudo, null);
+    }
+
+    /**
+     * Escolhe o maior nível de correção de erros que não aumenta a versão mínima do QR Code.
+     *
+     * @param conteudo O conteúdo do QR Code.
+     * @param charset O charset do modo byte, informado ao ZXing no hint CHARACTER_SET, ou null.
+     * @return O nível de correção; L se o conteúdo não couber em nenhuma versão.
+     */
+    public static ErrorCorrectionLevel nivelCorrecao(String conteudo, Charset charset) {
+        Mode modo = Encoder.chooseMode(conteudo);
+        int bitsDados = bitsDados(conteudo, modo, charset);
+        Version versao = versaoMinima(modo, bitsDados, ErrorCorrectionLevel.L);
+        if (versao == null) {
+            return ErrorCorrectionLevel.L;
+        }
+        int bitsNecessarios = BITS_MODO + modo.getCharacterCountBits(versao) + bitsDados;
+        for (ErrorCorrectionLevel nivel : NIVEIS_DECRESCENTES) {
+            if (bitsNecessarios <= capacidadeBits(versao, nivel)) {
+                return nivel;
+            }
+        }
+        return ErrorCorrectionLevel.L;
+    }
+
+    /**
+     * Calcula a menor versão de QR Code que comporta o conteúdo no nível de correção informado.
+     *
+     * @param conteudo O conteúdo do QR Code.
+     * @param nivel O nível de correção de erros.
+     * @return O número da versão, de 1 a 40, ou -1 se o conteúdo não couber.
+     */
+    public static int versaoMinima(String conteudo, ErrorCorrectionLevel nivel) {
+        return versaoMinima(conteudo, nivel, null);
+    }
+
+    /**
+     * Calcula a menor versão de QR Code que comporta o conteúdo no nível de correção informado.
+     *
+     * @param conteudo O conteúdo do QR Code.
+     * @param nivel O nível de correção de erros.
+     * @param charset O charset do modo byte, informado ao ZXing no hint CHARACTER_SET, ou null.
+     * @return O número da versão, de 1 a 40, ou -1 se o conteúdo não couber.
+     */
+    public static int versaoMinima(String conteudo, ErrorCorrectionLevel nivel, Charset charset) {
+        Mode modo = Encoder.chooseMode(conteudo);
+        Version versao = versaoMinima(modo, bitsDados(conteudo, modo, charset), nivel);
+        return versao == null ? -1 : versao.getVersionNumber();
+    }
+
+    private static Version versaoMinima(Mode modo, int bitsDados, ErrorCorrectionLevel nivel) {
+        for (int numero = 1; numero <= VERSAO_MAXIMA; numero++) {
+            Version versao = Version.getVersionForNumber(numero);
+            if (BITS_MODO + modo.getCharacterCountBits(versao) + bitsDados <= capacidadeBits(versao, nivel)) {
+                return versao;
+            }
+        }
+        return null;
+    }
+
+    private static int capacidadeBits(Version versao, ErrorCorrectionLevel nivel) {
+        return (versao.getTotalCodewords() - versao.getECBlocksForLevel(nivel).getTotalECCodewords()) * 8;
+    }
+
+    /**
+     * Bits dos dados do segmento, incluindo o segmento ECI que o ZXing acrescenta ao modo byte quando o charset é informado.
+     */
+    private static int bitsDados(String conteudo, Mode modo, Charset charset) {
+        int tamanho = conteudo.length();
+        switch (modo) {
+            case NUMERIC:
+                return (tamanho / 3) * 10 + (tamanho % 3 == 1 ? 4 : tamanho % 3 == 2 ? 7 : 0);
+            case ALPHANUMERIC:
+                return (tamanho / 2) * 11 + (tamanho % 2) * 6;
+            default:
+                return charset == null
+                        ? conteudo.getBytes(StandardCharsets.ISO_8859_1).length * 8
+                        : BITS_ECI + conteudo.getBytes(charset).length * 8;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Monta o conteúdo gravado nos QR Codes no formato configurado em qrcode.payload.formato.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+public class CodificadorPayload {
+
+    /**
+     * Prefixo do formato BASE45, seguido da versão do layout binário.
+     */
+    public static final String PREFIXO_BASE45 = "QC1:";
+
+    private static final int VERSAO_BINARIO = 1;
+    private static final int STATUS_OUTRO = 0;
+    private static final String[] STATUS_CONHECIDOS = {null, "OPEN", "EXPIRED"};
+    private static final int DIA_AUSENTE = 0xFFFF;
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String ROTULO_ID = "ID: ";
+    private static final String INICIO_BR_CODE = "000201";
+
+    private static final String GUI_PIX = "br.gov.bcb.pix";
+    private static final int TAMANHO_MAXIMO_CAMPO_EMV = 99;
+    private static final int TAMANHO_MAXIMO_NOME = 25;
+    private static final int TAMANHO_MAXIMO_CIDADE = 15;
+    private static final int TAMANHO_MAXIMO_TXID = 25;
+
+    private final QrCodeProperties.Payload propriedades;
+
+    public CodificadorPayload(QrCodeProperties propriedades) {
+        this.propriedades = propriedades.getPayload();
+        if (this.propriedades.getFormato() == QrCodeProperties.Payload.Formato.BR_CODE && StringUtils.isBlank(this.propriedades.getChavePix())) {
+            throw new IllegalStateException("qrcode.payload.chave-pix é obrigatória no formato BR_CODE");
+        }
+    }
+
+    /**
+     * Monta o conteúdo do QR Code no formato configurado.
+     *
+     * @param qrCode O QR Code gravado.
+     * @return O conteúdo a ser codificado no QR Code.
+     */
+    public String codificar(QrCode qrCode) {
+        return codificar(qrCode, propriedades.getFormato());
+    }
+
+    /**
+     * Monta o conteúdo do QR Code no formato informado.
+     *
+     * @param qrCode O QR Code gravado.
+     * @param formato O formato do conteúdo.
+     * @return O conteúdo a ser codificado no QR Code.
+     */
+    public String codificar(QrCode qrCode, QrCodeProperties.Payload.Formato formato) {
+        switch (formato) {
+            case JSON:
+                return json(qrCode);
+            case BASE45:
+                return PREFIXO_BASE45 + Base45.codificar(binario(qrCode));
+            case BR_CODE:
+                return brCode(qrCode);
+            default:
+                return texto(qrCode);
+        }
+    }
+
+    /**
+     * Extrai o ID do QR Code de um conteúdo lido, em qualquer um dos formatos, para que imagens geradas antes de
+     * uma troca de qrcode.payload.formato continuem verificáveis.
+     *
+     * @param conteudo O conteúdo lido do QR Code.
+     * @return O ID do QR Code.
+     * @throws IllegalArgumentException Se o conteúdo não estiver em um formato conhecido ou não trouxer o ID.
+     */
+    public static long extrairId(String conteudo) {
+        switch (formato(conteudo)) {
+            case BASE45:
+                return idBinario(Base45.decodificar(conteudo.substring(PREFIXO_BASE45.length())));
+            case JSON:
+                return idJson(conteudo);
+            case BR_CODE:
+                return idBrCode(conteudo);
+            default:
+                int fim = conteudo.indexOf('\n');
+                return numero(conteudo.substring(ROTULO_ID.length(), fim < 0 ? conteudo.length() : fim));
+        }
+    }
+
+    /**
+     * Identifica o formato de um conteúdo lido pelo seu início, para que ele possa ser comparado com o cadastro
+     * codificado no mesmo formato.
+     *
+     * @param conteudo O conteúdo lido do QR Code.
+     * @return O formato do conteúdo.
+     * @throws IllegalArgumentException Se o conteúdo estiver vazio ou não estiver em um formato conhecido.
+     */
+    public static QrCodeProperties.Payload.Formato formato(String conteudo) {
+        if (conteudo == null || conteudo.isEmpty()) {
+            throw new IllegalArgumentException("Conteúdo do QR Code vazio");
+        }
+        if (conteudo.startsWith(PREFIXO_BASE45)) {
+            return QrCodeProperties.Payload.Formato.BASE45;
+        }
+        if (conteudo.startsWith("{")) {
+            return QrCodeProperties.Payload.Formato.JSON;
+        }
+        if (conteudo.startsWith(ROTULO_ID)) {
+            return QrCodeProperties.Payload.Formato.TEXTO;
+        }
+        if (conteudo.startsWith(INICIO_BR_CODE)) {
+            return QrCodeProperties.Payload.Formato.BR_CODE;
+        }
+        throw new IllegalArgumentException("Conteúdo de QR Code não reconhecido");
+    }
+
+    /**
+     * Bloco de rótulos e valores original, mantido sem alterações para não mudar as imagens já geradas.
+     */
+    static String texto(QrCode qrCode) {
+        return String.format("ID: %d\nValor: %s\nDescrição: %s\nStatus: %s\nData de Atualização: %s\nData de Expiração: %s\nData de Vencimento: %s",
+                qrCode.getId(), qrCode.getValor(), qrCode.getDescricao(), qrCode.getStatus(), qrCode.getDataAtualizacao(), qrCode.getDataExpiracao(), qrCode.getDataVencimento());
+    }
+
+    /**
+     * JSON sem espaços, com chaves curtas e sem os campos nulos.
+     */
+    static String json(QrCode qrCode) {
+        StringWriter texto = new StringWriter(128);
+        try (JsonGenerator json = JSON.createGenerator(texto)) {
+            json.writeStartObject();
+            if (qrCode.getId() != null) {
+                json.writeNumberField("id", qrCode.getId());
+            }
+            escreverCampo(json, "v", qrCode.getValor());
+            escreverCampo(json, "d", qrCode.getDescricao());
+            escreverCampo(json, "s", qrCode.getStatus());
+            escreverCampo(json, "a", qrCode.getDataAtualizacao());
+            escreverCampo(json, "e", qrCode.getDataExpiracao());
+            escreverCampo(json, "vc", qrCode.getDataVencimento());
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Layout binário: versão (1 byte), ID e valor em centavos (varint), status (1 byte, com o texto após o
+     * código 0 quando não for conhecido), datas de atualização, expiração e vencimento em dias desde 1970
+     * (2 bytes cada, 0xFFFF quando ausente) e, no restante, a descrição em UTF-8.
+     */
+    static byte[] binario(QrCode qrCode) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(32);
+        saida.write(VERSAO_BINARIO);
+        escreverVarint(saida, qrCode.getId() == null ? 0 : qrCode.getId());
+        escreverVarint(saida, centavos(qrCode));
+        escreverStatus(saida, qrCode.getStatus());
+        escreverDia(saida, qrCode.getDataAtualizacao());
+        escreverDia(saida, qrCode.getDataExpiracao());
+        escreverDia(saida, qrCode.getDataVencimento());
+        if (qrCode.getDescricao() != null) {
+            saida.writeBytes(qrCode.getDescricao().getBytes(StandardCharsets.UTF_8));
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * Payload EMV do BR Code (PIX) com valor, recebedor, descrição como informação adicional e o ID como
+     * identificador da transação, terminado pelo CRC16-CCITT.
+     */
+    String brCode(QrCode qrCode) {
+        String chavePix = propriedades.getChavePix();
+        StringBuilder contaRecebedor = new StringBuilder();
+        campoEmv(contaRecebedor, "00", GUI_PIX);
+        campoEmv(contaRecebedor, "01", StringUtils.defaultString(chavePix));
+        int espacoDescricao = TAMANHO_MAXIMO_CAMPO_EMV - contaRecebedor.length() - 4;
+        String descricao = normalizarAscii(qrCode.getDescricao());
+        if (espacoDescricao > 0 && !descricao.isEmpty()) {
+            campoEmv(contaRecebedor, "02", StringUtils.left(descricao, espacoDescricao));
+        }
+
+        StringBuilder payload = new StringBuilder(160);
+        campoEmv(payload, "00", "01");
+        campoEmv(payload, "01", "12");
+        campoEmv(payload, "26", contaRecebedor.toString());
+        campoEmv(payload, "52", "0000");
+        campoEmv(payload, "53", "986");
+        campoEmv(payload, "54", ValidadorQrCode.formatarCentavos(centavos(qrCode)));
+        campoEmv(payload, "58", "BR");
+        campoEmv(payload, "59", StringUtils.left(normalizarAscii(propriedades.getNomeRecebedor()).toUpperCase(Locale.ROOT), TAMANHO_MAXIMO_NOME));
+        campoEmv(payload, "60", StringUtils.left(normalizarAscii(propriedades.getCidadeRecebedor()).toUpperCase(Locale.ROOT), TAMANHO_MAXIMO_CIDADE));
+        StringBuilder adicionais = new StringBuilder();
+        campoEmv(adicionais, "05", qrCode.getId() == null ? "***" : StringUtils.left(String.valueOf(qrCode.getId()), TAMANHO_MAXIMO_TXID));
+        campoEmv(payload, "62", adicionais.toString());
+        payload.append("6304");
+        return payload.append(String.format("%04X", crc16(payload))).toString();
+    }
+
+    /**
+     * CRC16-CCITT (polinômio 0x1021, valor inicial 0xFFFF) exigido no campo 63 do BR Code.
+     *
+     * @param conteudo O payload até o identificador e o tamanho do campo 63, inclusive.
+     * @return O CRC de 16 bits.
+     */
+    static int crc16(CharSequence conteudo) {
+        int crc = 0xFFFF;
+        for (int i = 0; i < conteudo.length(); i++) {
+            crc ^= (conteudo.charAt(i) & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+
+    private static long idBinario(byte[] binario) {
+        if (binario.length < 2 || binario[0] != VERSAO_BINARIO) {
+            throw new IllegalArgumentException("Versão do formato BASE45 não suportada");
+        }
+        long id = 0;
+        for (int posicao = 1, deslocamento = 0; ; posicao++, deslocamento += 7) {
+            if (posicao >= binario.length || deslocamento > 63) {
+                throw new IllegalArgumentException("ID do formato BASE45 incompleto");
+            }
+            id |= (long) (binario[posicao] & 0x7F) << deslocamento;
+            if ((binario[posicao] & 0x80) == 0) {
+                break;
+            }
+        }
+        if (id == 0) {
+            throw new IllegalArgumentException("QR Code sem ID");
+        }
+        return id;
+    }
+
+    private static long idJson(String conteudo) {
+        try (JsonParser json = JSON.createParser(conteudo)) {
+            if (json.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Conteúdo JSON do QR Code inválido");
+            }
+            while (json.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = json.currentName();
+                JsonToken valor = json.nextToken();
+                if ("id".equals(campo) && valor == JsonToken.VALUE_NUMBER_INT) {
+                    return json.getLongValue();
+                }
+                json.skipChildren();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Conteúdo JSON do QR Code inválido", e);
+        }
+        throw new IllegalArgumentException("QR Code sem ID");
+    }
+
+    /**
+     * Confere o CRC16 do BR Code e lê o identificador da transação (campo 05 do campo 62).
+     */
+    private static long idBrCode(String conteudo) {
+        int inicioCrc = conteudo.length() - 4;
+        if (inicioCrc < 4 || !conteudo.startsWith("6304", inicioCrc - 4)
+                || !String.format("%04X", crc16(conteudo.substring(0, inicioCrc))).equalsIgnoreCase(conteudo.substring(inicioCrc))) {
+            throw new IllegalArgumentException("CRC do BR Code inválido");
+        }
+        String adicionais = campoEmv(conteudo, "62");
+        String txid = adicionais == null ? null : campoEmv(adicionais, "05");
+        if (txid == null || "***".equals(txid)) {
+            throw new IllegalArgumentException("QR Code sem ID");
+        }
+        return numero(txid);
+    }
+
+    /**
+     * Procura um campo EMV de primeiro nível pelo identificador.
+     */
+    private static String campoEmv(String conteudo, String id) {
+        int posicao = 0;
+        while (posicao + 4 <= conteudo.length()) {
+            int tamanho;
+            try {
+                tamanho = Integer.parseInt(conteudo, posicao + 2, posicao + 4, 10);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Campo EMV inválido no BR Code");
+            }
+            int fim = posicao + 4 + tamanho;
+            if (fim > conteudo.length()) {
+                throw new IllegalArgumentException("Campo EMV incompleto no BR Code");
+            }
+            if (conteudo.startsWith(id, posicao)) {
+                return conteudo.substring(posicao + 4, fim);
+            }
+            posicao = fim;
+        }
+        return null;
+    }
+
+    private static long numero(String texto) {
+        try {
+            return Long.parseLong(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID do QR Code inválido: " + texto);
+        }
+    }
+
+    private static void escreverCampo(JsonGenerator json, String nome, Object valor) throws IOException {
+        if (valor != null) {
+            json.writeStringField(nome, valor.toString());
+        }
+    }
+
+    /**
+     * Valor em centavos lido na validação do cadastro; registros gravados antes da coluna são lidos do texto.
+     */
+    private static long centavos(QrCode qrCode) {
+        if (qrCode.getValorCentavos() != null) {
+            return qrCode.getValorCentavos();
+        }
+        return new BigDecimal(qrCode.getValor()).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    private static void escreverVarint(ByteArrayOutputStream saida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            saida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        saida.write((int) valor);
+    }
+
+    private static void escreverStatus(ByteArrayOutputStream saida, String status) {
+        for (int codigo = 1; codigo < STATUS_CONHECIDOS.length; codigo++) {
+            if (STATUS_CONHECIDOS[codigo].equals(status)) {
+                saida.write(codigo);
+                return;
+            }
+        }
+        byte[] texto = StringUtils.defaultString(status).getBytes(StandardCharsets.UTF_8);
+        saida.write(STATUS_OUTRO);
+        saida.write(Math.min(texto.length, 0xFF));
+        saida.write(texto, 0, Math.min(texto.length, 0xFF));
+    }
+
+    private static void escreverDia(ByteArrayOutputStream saida, LocalDate data) {
+        long dia = data == null ? DIA_AUSENTE : data.toEpochDay();
+        if (data != null && (dia < 0 || dia >= DIA_AUSENTE)) {
+            throw new IllegalArgumentException("Data fora do intervalo do formato BASE45: " + data);
+        }
+        saida.write((int) (dia >>> 8));
+        saida.write((int) dia);
+    }
+
+    private static void campoEmv(StringBuilder destino, String id, String valor) {
+        if (valor.length() > TAMANHO_MAXIMO_CAMPO_EMV) {
+            throw new IllegalArgumentException("Campo " + id + " do BR Code excede " + TAMANHO_MAXIMO_CAMPO_EMV + " caracteres");
+        }
+        destino.append(id).append(valor.length() < 10 ? "0" : "").append(valor.length()).append(valor);
+    }
+
+    /**
+     * Remove acentos e caracteres fora do ASCII imprimível, como exigido pelos campos de texto do BR Code.
+     */
+    private static String normalizarAscii(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return semAcentos.replaceAll("[^\\x20-\\x7E]", "").trim();
+    }
+}
@@ -0,0 +1,175 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.storage.QrImageStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tarefa agendada que muda para EXPIRED os QR Codes OPEN cuja data de expiração já passou.
+ * A atualização é feita em blocos de IDs, cada um com um UPDATE em sua própria transação, sem carregar entidades;
+ * as imagens dos QR Codes expirados são removidas ou gravadas novamente com o novo status.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@Slf4j
+public class ExpiracaoQrCode {
+
+    public static final String STATUS_ABERTO = "OPEN";
+    public static final String STATUS_EXPIRADO = "EXPIRED";
+    private static final String NOME_TRAVA = "expiracao-qrcode";
+
+    private final QrCodeRepository qrCodeRepository;
+    private final QrCodeService qrCodeService;
+    private final QrImageStore qrImageStore;
+    private final PerfisRenderizacao perfis;
+    private final TravaDistribuida travaDistribuida;
+    private final LimitadorJdbc limitadorJdbc;
+    private final QrCodeProperties.Expiracao expiracao;
+    private final TransactionTemplate transacao;
+    private final Counter expirados;
+    private final Counter imagensRemovidas;
+    private final Counter imagensRegravadas;
+    private final Timer duracao;
+    private final AtomicLong ultimaExecucao = new AtomicLong();
+
+    public ExpiracaoQrCode(QrCodeRepository qrCodeRepository, QrCodeService qrCodeService, QrImageStore qrImageStore,
+                           PerfisRenderizacao perfis, TravaDistribuida travaDistribuida, LimitadorJdbc limitadorJdbc,
+                           QrCodeProperties propriedades, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.qrCodeService = qrCodeService;
+        this.qrImageStore = qrImageStore;
+        this.perfis = perfis;
+        this.travaDistribuida = travaDistribuida;
+        this.limitadorJdbc = limitadorJdbc;
+        this.expiracao = propriedades.getExpiracao();
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.expirados = Counter.builder("qrcode.expiracao.expirados")
+                .description("QR Codes alterados de OPEN para EXPIRED")
+                .register(meterRegistry);
+        this.imagensRemovidas = Counter.builder("qrcode.expiracao.imagens.removidas")
+                .description("Imagens removidas do armazenamento na expiração")
+                .register(meterRegistry);
+        this.imagensRegravadas = Counter.builder("qrcode.expiracao.imagens.regravadas")
+                .description("QR Codes expirados com as imagens gravadas novamente com o status atual")
+                .register(meterRegistry);
+        this.duracao = Timer.builder("qrcode.expiracao.execucao")
+                .description("Duração de cada execução da expiração")
+                .register(meterRegistry);
+        Gauge.builder("qrcode.expiracao.ultima.execucao", ultimaExecucao, AtomicLong::get)
+                .description("Instante, em segundos desde a época, da última execução concluída")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a expiração na agenda configurada, somente no nó que adquirir a trava.
+     */
+    @Scheduled(cron = "${qrcode.expiracao.cron:0 */5 * * * *}")
+    public void executarAgendado() {
+        if (!travaDistribuida.adquirir(NOME_TRAVA, expiracao.getDuracaoTrava())) {
+            log.debug("Expiração de QR Codes em execução em outro nó");
+            return;
+        }
+        try {
+            long total = duracao.recordCallable(() -> expirar(() -> travaDistribuida.isMantida(NOME_TRAVA)));
+            if (total > 0) {
+                log.info("QR Codes expirados: {}", total);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao expirar QR Codes", e);
+        } finally {
+            travaDistribuida.liberar(NOME_TRAVA);
+        }
+    }
+
+    /**
+     * Expira, bloco a bloco, todos os QR Codes abertos com data de expiração anterior a hoje.
+     * Como os blocos atualizados deixam de estar OPEN, cada nova busca já começa nos próximos.
+     *
+     * @return A quantidade de QR Codes expirados.
+     */
+    public long expirar() {
+        return expirar(() -> true);
+    }
+
+    /**
+     * Expira os QR Codes bloco a bloco enquanto a condição permitir, parando antes do próximo bloco quando a trava
+     * da execução é perdida.
+     *
+     * @param continuar Se a execução pode seguir para o próximo bloco.
+     * @return A quantidade de QR Codes expirados.
+     */
+    long expirar(BooleanSupplier continuar) {
+        LocalDate hoje = LocalDate.now();
+        int tamanhoBloco = Math.max(1, expiracao.getTamanhoBloco());
+        long total = 0;
+        while (true) {
+            if (!continuar.getAsBoolean()) {
+                log.warn("Expiração de QR Codes interrompida: a trava foi perdida");
+                break;
+            }
+            List<Long> ids = limitadorJdbc.executar(() -> qrCodeRepository.buscarIdsExpirados(STATUS_ABERTO, hoje, Limit.of(tamanhoBloco)));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer atualizados = limitadorJdbc.executar(
+                    () -> transacao.execute(status -> qrCodeRepository.atualizarStatus(ids, STATUS_ABERTO, STATUS_EXPIRADO, hoje)));
+            total += atualizados == null ? 0 : atualizados;
+            expirados.increment(atualizados == null ? 0 : atualizados);
+            if (expiracao.isRemoverImagens()) {
+                removerImagens(ids);
+            } else {
+                imagensRegravadas.increment(qrCodeService.regravarImagens(ids));
+            }
+            if (ids.size() < tamanhoBloco) {
+                break;
+            }
+        }
+        ultimaExecucao.set(Instant.now().getEpochSecond());
+        return total;
+    }
+
+    /**
+     * Remove as imagens dos QR Codes expirados, em todos os perfis armazenados, com os seus ETags, e as descarta do
+     * cache de renderização.
+     *
+     * @param ids Os IDs dos QR Codes expirados.
+     */
+    private void removerImagens(List<Long> ids) {
+        Set<String> chaves = new HashSet<>(ids.size() * perfis.armazenados().size() * 2);
+        for (Long id : ids) {
+            for (PerfilRenderizacao perfil : perfis.armazenados()) {
+                String chave = QrCodeService.chaveImagem(id, perfil);
+                chaves.add(chave);
+                try {
+                    if (qrImageStore.remover(chave)) {
+                        imagensRemovidas.increment();
+                    }
+                    qrImageStore.remover(QrCodeService.chaveEtag(chave));
+                } catch (IOException e) {
+                    log.warn("Não foi possível remover a imagem {}", chave, e);
+                }
+            }
+        }
+        qrCodeService.descartarRenderizacoes(chaves);
+    }
+}
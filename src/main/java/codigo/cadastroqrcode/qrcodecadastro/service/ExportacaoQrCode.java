@@ -0,0 +1,232 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeResumoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.storage.QrImageStore;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.observation.Observation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exporta todos os QR Codes cadastrados em CSV ou NDJSON, opcionalmente em um ZIP com as imagens do armazenamento.
+ * As linhas são lidas por um cursor do banco em uma transação somente leitura e escritas direto na saída, uma a uma,
+ * então a memória usada não depende do tamanho da tabela. O cursor ocupa uma conexão até a última linha, então a
+ * exportação inteira roda dentro do {@link LimitadorJdbc}.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@Slf4j
+public class ExportacaoQrCode {
+
+    private static final String[] COLUNAS = {"id", "valor", "descricao", "status", "dataAtualizacao", "dataExpiracao", "dataVencimento"};
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final QrCodeRepository qrCodeRepository;
+    private final QrImageStore qrImageStore;
+    private final LimitadorJdbc limitadorJdbc;
+    private final TransactionTemplate transacaoLeitura;
+    private final int tamanhoBusca;
+
+    public ExportacaoQrCode(QrCodeRepository qrCodeRepository, QrImageStore qrImageStore, QrCodeProperties propriedades,
+                            LimitadorJdbc limitadorJdbc, PlatformTransactionManager transactionManager) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.qrImageStore = qrImageStore;
+        this.limitadorJdbc = limitadorJdbc;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.tamanhoBusca = Math.max(1, propriedades.getExportacao().getTamanhoBusca());
+    }
+
+    /**
+     * Formato das linhas exportadas.
+     */
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String tipoConteudo;
+        private final String extensao;
+
+        Formato(String tipoConteudo, String extensao) {
+            this.tipoConteudo = tipoConteudo;
+            this.extensao = extensao;
+        }
+
+        public String getTipoConteudo() {
+            return tipoConteudo;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+    }
+
+    /**
+     * Escreve todos os QR Codes no formato informado.
+     *
+     * @param formato O formato das linhas.
+     * @param saida A saída da exportação, que não é fechada.
+     * @return A quantidade de QR Codes exportados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public long exportar(Formato formato, OutputStream saida) throws IOException {
+        long total = emTransacaoLeitura(() -> escreverLinhas(formato, saida));
+        log.info("Exportação {} concluída: {} QR Codes", formato, total);
+        return total;
+    }
+
+    /**
+     * Escreve um ZIP com o arquivo de linhas no formato informado e a imagem PNG de cada QR Code em imagens/.
+     * As linhas e as imagens são percorridas em duas passagens pelo cursor, porque o ZIP grava uma entrada por vez.
+     * Os PNGs já são comprimidos e entram sem nova compressão; QR Codes sem imagem armazenada são ignorados.
+     *
+     * @param formato O formato do arquivo de linhas.
+     * @param saida A saída do ZIP, que não é fechada.
+     * @return A quantidade de QR Codes exportados.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public long exportarComImagens(Formato formato, OutputStream saida) throws IOException {
+        return emTransacaoLeitura(() -> escreverZip(formato, saida));
+    }
+
+    private long escreverZip(Formato formato, OutputStream saida) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(saida);
+        zip.putNextEntry(new ZipEntry("qrcodes." + formato.getExtensao()));
+        long total = escreverLinhas(formato, zip);
+        zip.closeEntry();
+
+        long imagens = 0;
+        CRC32 crc = new CRC32();
+        try (Stream<QrCodeResumoDTO> resumos = qrCodeRepository.transmitirResumos(tamanhoBusca)) {
+            for (Iterator<QrCodeResumoDTO> iterador = resumos.iterator(); iterador.hasNext(); ) {
+                String chave = QrCodeService.chaveImagem(iterador.next().getId());
+                Optional<byte[]> imagem = qrImageStore.ler(chave);
+                if (imagem.isEmpty()) {
+                    continue;
+                }
+                byte[] conteudo = imagem.get();
+                crc.reset();
+                crc.update(conteudo);
+                ZipEntry entrada = new ZipEntry("imagens/" + chave);
+                entrada.setMethod(ZipEntry.STORED);
+                entrada.setSize(conteudo.length);
+                entrada.setCrc(crc.getValue());
+                zip.putNextEntry(entrada);
+                zip.write(conteudo);
+                zip.closeEntry();
+                imagens++;
+            }
+        }
+        zip.finish();
+        zip.flush();
+        log.info("Exportação {} com imagens concluída: {} QR Codes, {} imagens", formato, total, imagens);
+        return total;
+    }
+
+    /**
+     * Executa a escrita em uma transação somente leitura, com uma permissão do {@link LimitadorJdbc} obtida antes da
+     * conexão e mantida até o fim da transação.
+     */
+    private long emTransacaoLeitura(Observation.CheckedCallable<Long, IOException> escrita) throws IOException {
+        try {
+            return limitadorJdbc.executar(() -> transacaoLeitura.execute(status -> {
+                try {
+                    return escrita.call();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long escreverLinhas(Formato formato, OutputStream saida) throws IOException {
+        Writer texto = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        long total = 0;
+        try (Stream<QrCodeResumoDTO> resumos = qrCodeRepository.transmitirResumos(tamanhoBusca)) {
+            if (formato == Formato.CSV) {
+                texto.write(String.join(",", COLUNAS));
+                texto.write("\r\n");
+            }
+            for (Iterator<QrCodeResumoDTO> iterador = resumos.iterator(); iterador.hasNext(); total++) {
+                if (formato == Formato.CSV) {
+                    escreverCsv(iterador.next(), texto);
+                } else {
+                    escreverJson(iterador.next(), texto);
+                }
+            }
+        }
+        texto.flush();
+        return total;
+    }
+
+    /**
+     * Linha CSV (RFC 4180): campos com vírgula, aspas ou quebra de linha ficam entre aspas, com as aspas duplicadas.
+     */
+    static void escreverCsv(QrCodeResumoDTO resumo, Writer texto) throws IOException {
+        Object[] campos = {resumo.getId(), resumo.getValor(), resumo.getDescricao(), resumo.getStatus(),
+                resumo.getDataAtualizacao(), resumo.getDataExpiracao(), resumo.getDataVencimento()};
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                texto.write(',');
+            }
+            if (campos[i] == null) {
+                continue;
+            }
+            String campo = campos[i].toString();
+            if (campo.indexOf(',') >= 0 || campo.indexOf('"') >= 0 || campo.indexOf('\n') >= 0 || campo.indexOf('\r') >= 0) {
+                texto.write('"');
+                texto.write(campo.replace("\"", "\"\""));
+                texto.write('"');
+            } else {
+                texto.write(campo);
+            }
+        }
+        texto.write("\r\n");
+    }
+
+    /**
+     * Linha NDJSON com as mesmas colunas do CSV, sem os campos nulos.
+     */
+    static void escreverJson(QrCodeResumoDTO resumo, Writer texto) throws IOException {
+        JsonGenerator json = JSON.createGenerator(texto);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeNumberField("id", resumo.getId());
+        escreverCampo(json, "valor", resumo.getValor());
+        escreverCampo(json, "descricao", resumo.getDescricao());
+        escreverCampo(json, "status", resumo.getStatus());
+        escreverCampo(json, "dataAtualizacao", resumo.getDataAtualizacao());
+        escreverCampo(json, "dataExpiracao", resumo.getDataExpiracao());
+        escreverCampo(json, "dataVencimento", resumo.getDataVencimento());
+        json.writeEndObject();
+        json.close();
+        texto.write('\n');
+    }
+
+    private static void escreverCampo(JsonGenerator json, String nome, Object valor) throws IOException {
+        if (valor != null) {
+            json.writeStringField(nome, valor.toString());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.StatusRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.dto.TarefaRenderizacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.exception.FilaRenderizacaoCheiaException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fila limitada de renderização das imagens de QR Code, executada fora da requisição de cadastro.
+ * A renderização ocupa a CPU, então roda sempre em um pool fixo de threads de plataforma, mesmo com as
+ * requisições em threads virtuais.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@Slf4j
+public class FilaRenderizacao {
+
+    private final ExecutorService executor;
+    private final int capacidade;
+    private final Semaphore vagas;
+    private final Map<String, TarefaRenderizacao> tarefas;
+
+    public FilaRenderizacao(QrCodeProperties propriedades) {
+        QrCodeProperties.Renderizacao renderizacao = propriedades.getRenderizacao();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, renderizacao.getThreads()), new CustomizableThreadFactory("qrcode-render-"));
+        this.capacidade = Math.max(1, renderizacao.getCapacidadeFila());
+        this.vagas = new Semaphore(capacidade);
+        int tarefasRetidas = Math.max(1, renderizacao.getTarefasRetidas());
+        this.tarefas = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TarefaRenderizacao> eldest) {
+                return size() > tarefasRetidas;
+            }
+        });
+    }
+
+    /**
+     * Reserva uma vaga na fila antes de o QR Code ser persistido, para que um cadastro
+     * nunca seja aceito sem que sua imagem possa ser enfileirada.
+     *
+     * @throws FilaRenderizacaoCheiaException Se a fila estiver cheia.
+     */
+    public void reservarVaga() {
+        if (!vagas.tryAcquire()) {
+            throw new FilaRenderizacaoCheiaException("Fila de renderização cheia, tente novamente em instantes");
+        }
+    }
+
+    /**
+     * Libera uma vaga reservada que não chegou a ser enfileirada.
+     */
+    public void liberarVaga() {
+        vagas.release();
+    }
+
+    /**
+     * Enfileira a renderização de um QR Code usando uma vaga previamente reservada.
+     *
+     * @param qrCodeId O ID do QR Code.
+     * @param renderizacao A geração da imagem, que retorna true em caso de sucesso.
+     * @return O ID da tarefa de renderização.
+     */
+    public String enfileirar(Long qrCodeId, BooleanSupplier renderizacao) {
+        TarefaRenderizacao tarefa = new TarefaRenderizacao(UUID.randomUUID().toString(), qrCodeId);
+        tarefas.put(tarefa.id, tarefa);
+        try {
+            executor.execute(() -> executar(tarefa, renderizacao));
+        } catch (RuntimeException e) {
+            tarefas.remove(tarefa.id);
+            vagas.release();
+            throw e;
+        }
+        return tarefa.id;
+    }
+
+    /**
+     * Consulta a situação de uma tarefa de renderização.
+     *
+     * @param idTarefa O ID da tarefa.
+     * @return A tarefa, se ainda estiver retida.
+     */
+    public Optional<TarefaRenderizacaoDTO> consultar(String idTarefa) {
+        return Optional.ofNullable(tarefas.get(idTarefa)).map(TarefaRenderizacao::paraDTO);
+    }
+
+    /**
+     * Quantidade de vagas ocupadas, contando renderizações aguardando ou em execução.
+     *
+     * @return A profundidade atual da fila.
+     */
+    public int profundidade() {
+        return capacidade - vagas.availablePermits();
+    }
+
+    /**
+     * Aguarda as renderizações já enfileiradas antes de encerrar as threads.
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Renderizações pendentes descartadas no encerramento: {}", profundidade());
+            executor.shutdownNow();
+        }
+    }
+
+    private void executar(TarefaRenderizacao tarefa, BooleanSupplier renderizacao) {
+        tarefa.status = StatusRenderizacao.PROCESSANDO;
+        boolean sucesso = false;
+        try {
+            sucesso = renderizacao.getAsBoolean();
+        } catch (RuntimeException e) {
+            log.error("Erro ao renderizar QR Code {}", tarefa.qrCodeId, e);
+        } finally {
+            vagas.release();
+            tarefa.concluidaEm = Instant.now();
+            tarefa.status = sucesso ? StatusRenderizacao.CONCLUIDA : StatusRenderizacao.FALHA;
+        }
+    }
+
+    /**
+     * Situação de uma renderização, atualizada pela thread da fila e lida pelas requisições de consulta.
+     */
+    private static final class TarefaRenderizacao {
+        private final String id;
+        private final Long qrCodeId;
+        private final Instant criadaEm = Instant.now();
+        private volatile StatusRenderizacao status = StatusRenderizacao.PENDENTE;
+        private volatile Instant concluidaEm;
+
+        private TarefaRenderizacao(String id, Long qrCodeId) {
+            this.id = id;
+            this.qrCodeId = qrCodeId;
+        }
+
+        private TarefaRenderizacaoDTO paraDTO() {
+            return new TarefaRenderizacaoDTO(id, qrCodeId, status, criadaEm, concluidaEm);
+        }
+    }
+}
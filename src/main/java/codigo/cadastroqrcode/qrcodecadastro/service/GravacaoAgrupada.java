@@ -0,0 +1,294 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.exception.ConexoesEsgotadasException;
+import codigo.cadastroqrcode.qrcodecadastro.exception.GravacaoIndisponivelException;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gravação agrupada dos cadastros individuais (group commit). Os cadastros entram em um buffer limitado e uma única
+ * thread os grava em transações de até qrcode.gravacao.tamanho-grupo registros, quando o grupo enche ou quando o
+ * primeiro registro espera qrcode.gravacao.espera-grupo. A requisição só é respondida depois do commit do seu grupo,
+ * então um cadastro confirmado está sempre gravado. Se o grupo falhar, cada registro é gravado na sua própria
+ * transação para que apenas os registros inválidos recebam o erro.
+ * Uma requisição que desiste de esperar só recebe o erro se o seu cadastro ainda não entrou em um grupo: o registro é
+ * retirado do buffer e nunca gravado. Se o grupo já está sendo gravado, a requisição aguarda o seu commit, limitado
+ * pelo timeout da transação, para não responder erro sobre um cadastro gravado.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@Slf4j
+public class GravacaoAgrupada {
+
+    private static final long ESPERA_OCIOSA_MILLIS = 100;
+
+    private final QrCodeRepository qrCodeRepository;
+    private final LimitadorJdbc limitadorJdbc;
+    private final QrCodeProperties.Gravacao gravacao;
+    private final TransactionTemplate transacao;
+    private final BlockingQueue<Pendente> fila;
+    private final Thread gravador;
+    private final DistributionSummary tamanhoGrupo;
+    private final Timer duracaoGrupo;
+    private volatile boolean encerrando;
+
+    public GravacaoAgrupada(QrCodeRepository qrCodeRepository, LimitadorJdbc limitadorJdbc, QrCodeProperties propriedades,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.limitadorJdbc = limitadorJdbc;
+        this.gravacao = propriedades.getGravacao();
+        this.tamanhoGrupo = DistributionSummary.builder("qrcode.gravacao.grupo.tamanho")
+                .description("Cadastros gravados em cada transação agrupada")
+                .register(meterRegistry);
+        this.duracaoGrupo = Timer.builder("qrcode.gravacao.grupo.duracao")
+                .description("Duração da gravação e do commit de cada grupo")
+                .register(meterRegistry);
+        if (!gravacao.isAgrupada()) {
+            this.transacao = null;
+            this.fila = null;
+            this.gravador = null;
+            return;
+        }
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setTimeout((int) Math.max(1, gravacao.getEsperaConfirmacao().toSeconds()));
+        this.fila = new ArrayBlockingQueue<>(Math.max(1, gravacao.getCapacidadeFila()));
+        Gauge.builder("qrcode.gravacao.fila", fila, Collection::size)
+                .description("Cadastros aguardando gravação")
+                .register(meterRegistry);
+        this.gravador = new Thread(this::executar, "qrcode-gravacao");
+        this.gravador.start();
+    }
+
+    /**
+     * Indica se os cadastros devem passar pela gravação agrupada.
+     *
+     * @return true se qrcode.gravacao.agrupada estiver ativa.
+     */
+    public boolean isAtiva() {
+        return fila != null;
+    }
+
+    /**
+     * Coloca o QR Code no próximo grupo e aguarda o commit da transação do grupo.
+     *
+     * @param qrCode O QR Code novo a ser gravado, sem ID.
+     * @return O QR Code gravado, com o ID definitivo.
+     * @throws GravacaoIndisponivelException Se o buffer estiver cheio, a gravação estiver encerrando ou o cadastro
+     *                                        não entrar em um grupo dentro do tempo de espera; nesses casos nada é
+     *                                        gravado.
+     */
+    public QrCode gravar(QrCode qrCode) {
+        if (encerrando) {
+            throw new GravacaoIndisponivelException("Gravação de cadastros encerrando, tente novamente em instantes");
+        }
+        Pendente pendente = new Pendente(qrCode);
+        if (!fila.offer(pendente)) {
+            throw new GravacaoIndisponivelException("Fila de gravação cheia, tente novamente em instantes");
+        }
+        // A thread de gravação pode ter saído entre a verificação acima e a inserção no buffer.
+        if (encerrando) {
+            desistir(pendente, "Gravação de cadastros encerrando, tente novamente em instantes");
+            return confirmado(pendente);
+        }
+        try {
+            return pendente.resultado.get(gravacao.getEsperaConfirmacao().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw desembrulhar(e.getCause());
+        } catch (TimeoutException e) {
+            desistir(pendente, "Gravação não confirmada dentro do tempo de espera");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            desistir(pendente, "Espera pela gravação interrompida");
+        }
+        return confirmado(pendente);
+    }
+
+    /**
+     * Retira o cadastro do buffer e recusa a requisição, se a thread de gravação ainda não o colocou em um grupo.
+     * Caso contrário o grupo já está sendo gravado e retorna sem erro, para que a requisição aguarde o commit.
+     */
+    private void desistir(Pendente pendente, String mensagem) {
+        if (pendente.estado.compareAndSet(Pendente.AGUARDANDO, Pendente.DESISTIDO)) {
+            fila.remove(pendente);
+            throw new GravacaoIndisponivelException(mensagem);
+        }
+    }
+
+    /**
+     * Aguarda o resultado de um cadastro cujo grupo já está sendo gravado ou que já foi concluído.
+     */
+    private QrCode confirmado(Pendente pendente) {
+        try {
+            return pendente.resultado.join();
+        } catch (CompletionException e) {
+            throw desembrulhar(e.getCause());
+        }
+    }
+
+    private static RuntimeException desembrulhar(Throwable causa) {
+        if (causa instanceof RuntimeException excecao) {
+            return excecao;
+        }
+        if (causa instanceof Error erro) {
+            throw erro;
+        }
+        return new IllegalStateException(causa);
+    }
+
+    /**
+     * Quantidade de cadastros aguardando gravação.
+     *
+     * @return O tamanho atual do buffer.
+     */
+    public int pendentes() {
+        return fila == null ? 0 : fila.size();
+    }
+
+    /**
+     * Para de aceitar cadastros e aguarda a gravação dos que já estão no buffer.
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        if (gravador == null) {
+            return;
+        }
+        encerrando = true;
+        gravador.join(gravacao.getEsperaConfirmacao().toMillis());
+        if (gravador.isAlive()) {
+            log.warn("Cadastros pendentes não gravados no encerramento: {}", fila.size());
+            return;
+        }
+        List<Pendente> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        restantes.stream()
+                .filter(pendente -> pendente.estado.compareAndSet(Pendente.AGUARDANDO, Pendente.DESISTIDO))
+                .forEach(pendente -> pendente.resultado.completeExceptionally(
+                        new GravacaoIndisponivelException("Gravação de cadastros encerrada, tente novamente em instantes")));
+    }
+
+    /**
+     * Laço da thread de gravação: monta os grupos e os grava até o encerramento, esvaziando o buffer antes de sair.
+     */
+    private void executar() {
+        int tamanhoMaximo = Math.max(1, gravacao.getTamanhoGrupo());
+        long esperaNanos = gravacao.getEsperaGrupo().toNanos();
+        List<Pendente> grupo = new ArrayList<>(tamanhoMaximo);
+        while (true) {
+            try {
+                Pendente primeiro = fila.poll(ESPERA_OCIOSA_MILLIS, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    if (encerrando) {
+                        return;
+                    }
+                    continue;
+                }
+                grupo.add(primeiro);
+                long limite = System.nanoTime() + esperaNanos;
+                while (grupo.size() < tamanhoMaximo) {
+                    fila.drainTo(grupo, tamanhoMaximo - grupo.size());
+                    long restante = limite - System.nanoTime();
+                    if (grupo.size() >= tamanhoMaximo || restante <= 0 || encerrando) {
+                        break;
+                    }
+                    Pendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    grupo.add(proximo);
+                }
+            } catch (InterruptedException e) {
+                encerrando = true;
+                fila.drainTo(grupo);
+            }
+            gravarGrupo(grupo);
+            grupo.clear();
+        }
+    }
+
+    /**
+     * Grava o grupo em uma única transação e confirma cada cadastro depois do commit. Os cadastros cujas
+     * requisições já desistiram são descartados antes da transação. Se o {@link LimitadorJdbc} recusar o grupo, todos
+     * os cadastros recebem o erro sem a gravação individual, que também seria recusada.
+     */
+    private void gravarGrupo(List<Pendente> grupo) {
+        grupo.removeIf(pendente -> !pendente.estado.compareAndSet(Pendente.AGUARDANDO, Pendente.GRAVANDO));
+        if (grupo.isEmpty()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            List<QrCode> salvos = limitadorJdbc.executar(() -> transacao.execute(status -> {
+                List<QrCode> gravados = qrCodeRepository.saveAll(grupo.stream().map(pendente -> pendente.qrCode).toList());
+                qrCodeRepository.flush();
+                return gravados;
+            }));
+            for (int i = 0; i < grupo.size(); i++) {
+                grupo.get(i).resultado.complete(salvos.get(i));
+            }
+        } catch (ConexoesEsgotadasException e) {
+            grupo.forEach(pendente -> pendente.resultado.completeExceptionally(e));
+        } catch (RuntimeException e) {
+            if (grupo.size() == 1) {
+                grupo.get(0).resultado.completeExceptionally(e);
+            } else {
+                log.debug("Grupo de {} cadastros recusado, gravando individualmente", grupo.size(), e);
+                grupo.forEach(this::gravarIndividualmente);
+            }
+        }
+        tamanhoGrupo.record(grupo.size());
+        duracaoGrupo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Grava um cadastro de um grupo recusado na sua própria transação. O ID é limpo porque o grupo desfeito pode ter
+     * atribuído um ID da sequência ao registro, e salvar uma entidade com ID faria um merge em vez de uma inserção.
+     */
+    private void gravarIndividualmente(Pendente pendente) {
+        pendente.qrCode.setId(null);
+        try {
+            pendente.resultado.complete(limitadorJdbc.executar(() -> transacao.execute(status -> qrCodeRepository.saveAndFlush(pendente.qrCode))));
+        } catch (RuntimeException e) {
+            pendente.resultado.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Cadastro aguardando a gravação do seu grupo. O estado decide, uma única vez, se o cadastro entra em um
+     * grupo ou se a requisição desistiu dele.
+     */
+    private static final class Pendente {
+        private static final int AGUARDANDO = 0;
+        private static final int GRAVANDO = 1;
+        private static final int DESISTIDO = 2;
+
+        private final QrCode qrCode;
+        private final CompletableFuture<QrCode> resultado = new CompletableFuture<>();
+        private final AtomicInteger estado = new AtomicInteger(AGUARDANDO);
+
+        private Pendente(QrCode qrCode) {
+            this.qrCode = qrCode;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import lombok.Value;
+
+/**
+ * Imagem de QR Code solicitada pela API, identificada pelo ETag calculado a partir do conteúdo codificado
+ * e do perfil de renderização. A chave armazenada é a da imagem gravada no cadastro, quando o perfil é armazenado.
+ */
+@Value
+public class ImagemQrCode {
+    String etag;
+    String payload;
+    PerfilRenderizacao perfil;
+    String tipoConteudo;
+    String chaveArmazenada;
+}
@@ -0,0 +1,83 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.CadastroQrCodeRespostaDTO;
+import codigo.cadastroqrcode.qrcodecadastro.exception.ConflitoIdempotenciaException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+/**
+ * Janela em memória, limitada e com expiração, das respostas dos cadastros feitos com chave de idempotência.
+ * Repetições dentro da janela são respondidas sem chegar ao banco; depois dela, o índice único da chave
+ * garante que o cadastro não seja duplicado. Cada resposta fica junto do hash da requisição original, para que
+ * a mesma chave com outro corpo ou em outro endpoint seja recusada em vez de devolver um cadastro diferente.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+public class JanelaIdempotencia {
+
+    private final Cache<String, Registro> respostas;
+
+    public JanelaIdempotencia(QrCodeProperties propriedades, MetricasQrCode metricas) {
+        QrCodeProperties.Idempotencia idempotencia = propriedades.getIdempotencia();
+        this.respostas = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, idempotencia.getCapacidade()))
+                .expireAfterWrite(idempotencia.getTtl())
+                .recordStats()
+                .build();
+        metricas.monitorarCache("qrcode.idempotencia", respostas);
+    }
+
+    /**
+     * Obtém uma cópia da resposta original de uma chave recente.
+     *
+     * @param chave A chave de idempotência.
+     * @param hashRequisicao O hash da requisição repetida.
+     * @return A resposta original, ou null se a chave não estiver na janela.
+     * @throws ConflitoIdempotenciaException Se a chave foi usada com outra requisição.
+     */
+    public CadastroQrCodeRespostaDTO obter(String chave, String hashRequisicao) {
+        Registro registro = respostas.getIfPresent(chave);
+        if (registro == null) {
+            return null;
+        }
+        conferir(registro.hashRequisicao(), hashRequisicao);
+        return copiar(registro.resposta());
+    }
+
+    /**
+     * Registra a resposta de um cadastro, mantendo a primeira resposta se a chave já estiver registrada.
+     *
+     * @param chave A chave de idempotência.
+     * @param hashRequisicao O hash da requisição do cadastro, ou null para cadastros gravados sem ele.
+     * @param resposta A resposta do cadastro.
+     */
+    public void registrar(String chave, String hashRequisicao, CadastroQrCodeRespostaDTO resposta) {
+        respostas.asMap().putIfAbsent(chave, new Registro(hashRequisicao, copiar(resposta)));
+    }
+
+    /**
+     * Confere o hash de uma requisição repetida com o da requisição original. Cadastros gravados antes do hash
+     * não são conferidos.
+     *
+     * @param original O hash da requisição original, ou null.
+     * @param repetida O hash da requisição repetida.
+     * @throws ConflitoIdempotenciaException Se os hashes forem diferentes.
+     */
+    public static void conferir(String original, String repetida) {
+        if (original != null && !original.equals(repetida)) {
+            throw new ConflitoIdempotenciaException("A chave de idempotência já foi usada com outra requisição");
+        }
+    }
+
+    private static CadastroQrCodeRespostaDTO copiar(CadastroQrCodeRespostaDTO resposta) {
+        return new CadastroQrCodeRespostaDTO(resposta.getMensagem(), resposta.getId(), resposta.getIdTarefaRenderizacao());
+    }
+
+    /**
+     * Resposta de um cadastro com o hash da requisição que o gerou.
+     */
+    private record Registro(String hashRequisicao, CadastroQrCodeRespostaDTO resposta) {
+    }
+}
@@ -0,0 +1,57 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.exception.ConexoesEsgotadasException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limita as operações simultâneas no banco quando as requisições rodam em threads virtuais.
+ * Sem o limite, milhares de threads virtuais disputariam as poucas conexões do pool e esgotariam o tempo de espera
+ * do Hikari; com ele, o excesso espera no semáforo e é recusado rapidamente. O pool de conexões tem exatamente
+ * qrcode.execucao.permissoes-jdbc conexões, então todo acesso ao banco passa por aqui: requisições, exportação,
+ * gravação agrupada, expiração e trava distribuída. Com threads de plataforma, o próprio pool do Tomcat já limita a
+ * concorrência e o limitador não atua.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+public class LimitadorJdbc {
+
+    private final Semaphore permissoes;
+    private final long esperaNanos;
+
+    public LimitadorJdbc(QrCodeProperties propriedades) {
+        QrCodeProperties.Execucao execucao = propriedades.getExecucao();
+        this.permissoes = execucao.isThreadsVirtuais() ? new Semaphore(Math.max(1, execucao.getPermissoesJdbc()), true) : null;
+        this.esperaNanos = execucao.getEsperaJdbc().toNanos();
+    }
+
+    /**
+     * Executa uma operação no banco dentro do limite de operações simultâneas.
+     *
+     * @param operacao A operação no banco.
+     * @return O resultado da operação.
+     * @throws ConexoesEsgotadasException Se nenhuma permissão for liberada dentro do tempo de espera.
+     */
+    public <T> T executar(Supplier<T> operacao) {
+        if (permissoes == null) {
+            return operacao.get();
+        }
+        try {
+            if (!permissoes.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS)) {
+                throw new ConexoesEsgotadasException("Banco de dados ocupado, tente novamente em instantes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConexoesEsgotadasException("Espera por conexão interrompida");
+        }
+        try {
+            return operacao.get();
+        } finally {
+            permissoes.release();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Instrumentação das etapas do cadastro de QR Code. Cada etapa é uma Observation com o nome "qrcode.etapa"
+ * e a tag "etapa", o que gera um timer com histograma por etapa e, com o tracing habilitado, um span por etapa.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+public class MetricasQrCode {
+
+    public static final String ETAPA_VALIDACAO = "validacao";
+    public static final String ETAPA_INSERCAO = "insercao";
+    public static final String ETAPA_CODIFICACAO = "codificacao";
+    public static final String ETAPA_SERIALIZACAO = "serializacao";
+    public static final String ETAPA_GRAVACAO = "gravacao";
+
+    private static final String NOME_ETAPA = "qrcode.etapa";
+    private static final String NOME_FALHAS = "qrcode.renderizacao.falhas";
+
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public MetricasQrCode(ObservationRegistry observationRegistry, MeterRegistry meterRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Mede uma etapa que produz um resultado.
+     *
+     * @param etapa O nome da etapa.
+     * @param execucao A execução da etapa.
+     * @return O resultado da etapa.
+     * @throws E Se a etapa falhar; o erro também é registrado na observação.
+     */
+    public <T, E extends Throwable> T medir(String etapa, Observation.CheckedCallable<T, E> execucao) throws E {
+        return observacao(etapa).observeChecked(execucao);
+    }
+
+    /**
+     * Mede uma etapa sem resultado.
+     *
+     * @param etapa O nome da etapa.
+     * @param execucao A execução da etapa.
+     * @throws E Se a etapa falhar; o erro também é registrado na observação.
+     */
+    public <E extends Throwable> void executar(String etapa, Observation.CheckedRunnable<E> execucao) throws E {
+        observacao(etapa).observeChecked(execucao);
+    }
+
+    /**
+     * Conta uma falha de renderização de imagem, identificada pelo tipo do erro.
+     *
+     * @param causa O erro que impediu a renderização.
+     */
+    public void registrarFalhaRenderizacao(Throwable causa) {
+        Counter.builder(NOME_FALHAS)
+                .description("Imagens de QR Code que não puderam ser geradas")
+                .tag("causa", causa.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Registra as métricas de acertos, falhas e remoções de um cache Caffeine criado com recordStats.
+     *
+     * @param nome O nome do cache, usado na tag "cache".
+     * @param cache O cache monitorado.
+     */
+    public void monitorarCache(String nome, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, nome);
+    }
+
+    private Observation observacao(String etapa) {
+        return Observation.createNotStarted(NOME_ETAPA, observationRegistry)
+                .lowCardinalityKeyValue("etapa", etapa)
+                .contextualName("qrcode " + etapa);
+    }
+}
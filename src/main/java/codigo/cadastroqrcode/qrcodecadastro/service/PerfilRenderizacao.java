@@ -0,0 +1,198 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Perfil de renderização imutável, com os hints do ZXing calculados uma única vez. Com a correção automática,
+ * há um conjunto de hints por nível, escolhido pela capacidade do conteúdo a cada codificação. A matriz nativa é
+ * codificada sem margem, então perfis que só diferem na margem, no tamanho ou no formato compartilham a mesma
+ * matriz; a zona de silêncio do perfil é aplicada na renderização.
+ * O QRCodeWriter não guarda estado entre codificações e é compartilhado por todos os perfis e threads.
+ * Author: Davi Oliveira Santos
+ */
+public final class PerfilRenderizacao {
+
+    public static final String FORMATO_PNG = "png";
+    public static final String FORMATO_SVG = "svg";
+    public static final int TAMANHO_MINIMO = 64;
+    public static final int TAMANHO_MAXIMO = 2000;
+
+    private static final Set<String> FORMATOS = Set.of(FORMATO_PNG, FORMATO_SVG, "gif", "bmp");
+    private static final QRCodeWriter CODIFICADOR = new QRCodeWriter();
+
+    private final String nome;
+    private final int tamanho;
+    private final int margem;
+    private final ErrorCorrectionLevel correcao;
+    private final Charset charset;
+    private final String formato;
+    private final Map<ErrorCorrectionLevel, Map<EncodeHintType, Object>> hints;
+    private final Map<ErrorCorrectionLevel, Map<EncodeHintType, Object>> hintsNativos;
+    private final String assinatura;
+    private final String assinaturaCodificacao;
+
+    /**
+     * Cria o perfil a partir da configuração, validando tamanho, margem, formato e charset.
+     *
+     * @param nome O nome do perfil.
+     * @param perfil A configuração do perfil.
+     */
+    public PerfilRenderizacao(String nome, QrCodeProperties.Perfil perfil) {
+        validar(perfil.getTamanho(), perfil.getFormato());
+        if (perfil.getMargem() < 0) {
+            throw new IllegalArgumentException("A margem do perfil " + nome + " não pode ser negativa");
+        }
+        this.nome = nome;
+        this.tamanho = perfil.getTamanho();
+        this.margem = perfil.getMargem();
+        this.correcao = perfil.getCorrecao();
+        this.charset = StringUtils.isBlank(perfil.getCharset()) ? null : Charset.forName(perfil.getCharset());
+        this.formato = perfil.getFormato();
+        this.hints = criarHints(margem, correcao, charset);
+        this.hintsNativos = criarHints(0, correcao, charset);
+        this.assinaturaCodificacao = (correcao == null ? "auto" : correcao) + "|" + charset;
+        this.assinatura = tamanho + "|" + margem + '|' + assinaturaCodificacao + '|' + formato;
+    }
+
+    private PerfilRenderizacao(PerfilRenderizacao base, int tamanho, String formato) {
+        validar(tamanho, formato);
+        this.nome = base.nome;
+        this.tamanho = tamanho;
+        this.margem = base.margem;
+        this.correcao = base.correcao;
+        this.charset = base.charset;
+        this.formato = formato;
+        this.hints = base.hints;
+        this.hintsNativos = base.hintsNativos;
+        this.assinaturaCodificacao = base.assinaturaCodificacao;
+        this.assinatura = tamanho + "|" + margem + '|' + assinaturaCodificacao + '|' + formato;
+    }
+
+    /**
+     * Valida o tamanho e o formato de uma imagem.
+     *
+     * @param tamanho A largura e altura da imagem.
+     * @param formato O formato da imagem.
+     * @throws IllegalArgumentException Se o tamanho ou o formato forem inválidos.
+     */
+    public static void validar(int tamanho, String formato) {
+        if (tamanho < TAMANHO_MINIMO || tamanho > TAMANHO_MAXIMO) {
+            throw new IllegalArgumentException("O tamanho da imagem deve estar entre " + TAMANHO_MINIMO + " e " + TAMANHO_MAXIMO);
+        }
+        if (!FORMATOS.contains(formato)) {
+            throw new IllegalArgumentException("Formato de imagem não suportado: " + formato);
+        }
+    }
+
+    /**
+     * Deriva um perfil com outro tamanho e formato, mantendo os hints deste perfil.
+     *
+     * @param tamanho A largura e altura da imagem.
+     * @param formato O formato da imagem.
+     * @return Este perfil, se nada mudar, ou o perfil derivado.
+     */
+    public PerfilRenderizacao comDimensoes(int tamanho, String formato) {
+        if (tamanho == this.tamanho && formato.equals(this.formato)) {
+            return this;
+        }
+        return new PerfilRenderizacao(this, tamanho, formato);
+    }
+
+    /**
+     * Codifica o conteúdo em uma matriz com os hints do perfil. Com largura e altura 0, a matriz tem um elemento
+     * por módulo, incluindo a margem.
+     *
+     * @param conteudo O conteúdo do QR Code.
+     * @param largura A largura da matriz.
+     * @param altura A altura da matriz.
+     * @return A matriz do QR Code.
+     * @throws WriterException Se o conteúdo não couber em um QR Code.
+     */
+    public BitMatrix codificar(String conteudo, int largura, int altura) throws WriterException {
+        return CODIFICADOR.encode(conteudo, BarcodeFormat.QR_CODE, largura, altura, hints.get(nivelCorrecao(conteudo)));
+    }
+
+    /**
+     * Codifica o conteúdo na matriz nativa, com um elemento por módulo e sem margem, para ser renderizada com
+     * {@link #getMargem()} módulos de zona de silêncio.
+     *
+     * @param conteudo O conteúdo do QR Code.
+     * @return A matriz nativa do QR Code.
+     * @throws WriterException Se o conteúdo não couber em um QR Code.
+     */
+    public BitMatrix codificarNativa(String conteudo) throws WriterException {
+        return CODIFICADOR.encode(conteudo, BarcodeFormat.QR_CODE, 0, 0, hintsNativos.get(nivelCorrecao(conteudo)));
+    }
+
+    /**
+     * Nível de correção usado para o conteúdo: o fixo do perfil ou o maior que cabe na menor versão.
+     *
+     * @param conteudo O conteúdo do QR Code.
+     * @return O nível de correção.
+     */
+    public ErrorCorrectionLevel nivelCorrecao(String conteudo) {
+        return correcao != null ? correcao : CapacidadeQrCode.nivelCorrecao(conteudo, charset);
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public int getMargem() {
+        return margem;
+    }
+
+    public String getFormato() {
+        return formato;
+    }
+
+    /**
+     * Identifica a configuração completa do perfil, para compor chaves de cache e ETags.
+     *
+     * @return A assinatura do perfil.
+     */
+    public String getAssinatura() {
+        return assinatura;
+    }
+
+    /**
+     * Identifica os hints do perfil: perfis com a mesma assinatura de codificação geram a mesma matriz
+     * nativa para um conteúdo, em qualquer margem, tamanho e formato.
+     *
+     * @return A assinatura de codificação do perfil.
+     */
+    public String getAssinaturaCodificacao() {
+        return assinaturaCodificacao;
+    }
+
+    private static Map<ErrorCorrectionLevel, Map<EncodeHintType, Object>> criarHints(int margem, ErrorCorrectionLevel correcao, Charset charset) {
+        Map<ErrorCorrectionLevel, Map<EncodeHintType, Object>> hints = new EnumMap<>(ErrorCorrectionLevel.class);
+        for (ErrorCorrectionLevel nivel : correcao == null ? ErrorCorrectionLevel.values() : new ErrorCorrectionLevel[]{correcao}) {
+            Map<EncodeHintType, Object> hintsNivel = new EnumMap<>(EncodeHintType.class);
+            hintsNivel.put(EncodeHintType.ERROR_CORRECTION, nivel);
+            hintsNivel.put(EncodeHintType.MARGIN, margem);
+            if (charset != null) {
+                hintsNivel.put(EncodeHintType.CHARACTER_SET, charset.name());
+            }
+            hints.put(nivel, Collections.unmodifiableMap(hintsNivel));
+        }
+        return Collections.unmodifiableMap(hints);
+    }
+}
@@ -0,0 +1,110 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Perfis de renderização configurados em qrcode.perfis, criados uma única vez na inicialização.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+public class PerfisRenderizacao {
+
+    /**
+     * Perfil das imagens geradas no cadastro e gravadas no armazenamento.
+     */
+    public static final String PERFIL_CADASTRO = "cadastro";
+
+    private final Map<String, PerfilRenderizacao> perfis;
+    private final List<PerfilRenderizacao> variantes;
+    private final List<PerfilRenderizacao> armazenados;
+
+    public PerfisRenderizacao(QrCodeProperties propriedades) {
+        Map<String, PerfilRenderizacao> criados = new LinkedHashMap<>();
+        criados.put(PERFIL_CADASTRO, new PerfilRenderizacao(PERFIL_CADASTRO,
+                propriedades.getPerfis().getOrDefault(PERFIL_CADASTRO, new QrCodeProperties.Perfil())));
+        propriedades.getPerfis().forEach((nome, perfil) -> criados.putIfAbsent(nome, new PerfilRenderizacao(nome, perfil)));
+        if (!PerfilRenderizacao.FORMATO_PNG.equals(criados.get(PERFIL_CADASTRO).getFormato())) {
+            throw new IllegalStateException("O perfil " + PERFIL_CADASTRO + " deve gerar png, o formato das imagens armazenadas");
+        }
+        this.perfis = Collections.unmodifiableMap(criados);
+        this.variantes = propriedades.getRenderizacao().getVariantes().stream()
+                .distinct()
+                .filter(nome -> !PERFIL_CADASTRO.equals(nome))
+                .map(this::variante)
+                .toList();
+        List<PerfilRenderizacao> todosArmazenados = new ArrayList<>(variantes.size() + 1);
+        todosArmazenados.add(cadastro());
+        todosArmazenados.addAll(variantes);
+        this.armazenados = Collections.unmodifiableList(todosArmazenados);
+    }
+
+    /**
+     * Obtém um perfil pelo nome.
+     *
+     * @param nome O nome do perfil.
+     * @return O perfil.
+     * @throws IllegalArgumentException Se o perfil não existir.
+     */
+    public PerfilRenderizacao obter(String nome) {
+        PerfilRenderizacao perfil = perfis.get(nome);
+        if (perfil == null) {
+            throw new IllegalArgumentException("Perfil de renderização não encontrado: " + nome);
+        }
+        return perfil;
+    }
+
+    /**
+     * Perfil das imagens geradas no cadastro.
+     *
+     * @return O perfil de cadastro.
+     */
+    public PerfilRenderizacao cadastro() {
+        return perfis.get(PERFIL_CADASTRO);
+    }
+
+    /**
+     * Perfis gerados junto com a imagem do cadastro, além do próprio perfil de cadastro.
+     *
+     * @return As variantes configuradas.
+     */
+    public List<PerfilRenderizacao> variantes() {
+        return variantes;
+    }
+
+    /**
+     * Perfis com imagem gravada no armazenamento: o de cadastro e as variantes.
+     *
+     * @return Os perfis armazenados.
+     */
+    public List<PerfilRenderizacao> armazenados() {
+        return armazenados;
+    }
+
+    /**
+     * Todos os perfis, começando pelo de cadastro.
+     *
+     * @return Os perfis configurados.
+     */
+    public Collection<PerfilRenderizacao> todos() {
+        return perfis.values();
+    }
+
+    private PerfilRenderizacao variante(String nome) {
+        PerfilRenderizacao perfil = perfis.get(nome);
+        if (perfil == null) {
+            throw new IllegalStateException("Variante sem perfil de renderização configurado: " + nome);
+        }
+        if (!PerfilRenderizacao.FORMATO_PNG.equals(perfil.getFormato()) && !PerfilRenderizacao.FORMATO_SVG.equals(perfil.getFormato())) {
+            throw new IllegalStateException("A variante " + nome + " deve gerar png ou svg, derivados da matriz nativa");
+        }
+        return perfil;
+    }
+}
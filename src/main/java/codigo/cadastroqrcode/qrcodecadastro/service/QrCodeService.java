@@ -1,22 +1,55 @@
 package codigo.cadastroqrcode.qrcodecadastro.service;
 
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.CadastroQrCodeRespostaDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroCampoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroRegistroDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.FiltroQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.PaginaQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeResumoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoLoteDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoRegistroDTO;
 import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.exception.ConflitoIdempotenciaException;
 import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
-import com.google.zxing.MultiFormatWriter;
+import codigo.cadastroqrcode.qrcodecadastro.storage.QrImageStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.zxing.WriterException;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import com.google.zxing.BarcodeFormat;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Classe de serviço para cadastrar e gerar QR Code.
@@ -26,56 +59,524 @@ import java.util.Date;
 @Slf4j
 public class QrCodeService {
 
-    private static final String DESTINO_ARQUIVO = "C:\\Users\\dsain\\Documents";
-    private static final String DATA_FORMATADA = "yyyyMMddhhmmss";
-    private static final String CHARSET = "UTF-8";
-    private static final int QR_CODE_HEIGHT = 400;
-    private static final int QR_CODE_WIDTH = 400;
+    private static final int TAMANHO_MAXIMO_CHAVE_IDEMPOTENCIA = 128;
+    private static final String ENDPOINT_IMEDIATO = "imediato";
+    private static final String ENDPOINT_VENCIMENTO = "vencimento";
+    private static final String SEPARADOR_HASH_REQUISICAO = "\u001F";
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+    private static final String SUFIXO_ETAG = ".etag";
 
     private final QrCodeRepository qrCodeRepository;
+    private final QrCodeProperties propriedades;
+    private final FilaRenderizacao filaRenderizacao;
+    private final CacheImagemQrCode cacheImagem;
+    private final QrImageStore qrImageStore;
+    private final MetricasQrCode metricas;
+    private final JanelaIdempotencia janelaIdempotencia;
+    private final LimitadorJdbc limitadorJdbc;
+    private final CodificadorPayload codificadorPayload;
+    private final PerfisRenderizacao perfis;
+    private final GravacaoAgrupada gravacaoAgrupada;
+    private final ExecutorService executorLote;
+    private final TransactionTemplate transacaoLote;
+    private final Cache<String, ImagemRenderizada> cacheRenderizacao;
 
-    public QrCodeService(QrCodeRepository qrCodeRepository) {
+    public QrCodeService(QrCodeRepository qrCodeRepository, QrCodeProperties propriedades, FilaRenderizacao filaRenderizacao,
+                         CacheImagemQrCode cacheImagem, QrImageStore qrImageStore, MetricasQrCode metricas,
+                         JanelaIdempotencia janelaIdempotencia, LimitadorJdbc limitadorJdbc,
+                         CodificadorPayload codificadorPayload, PerfisRenderizacao perfis, GravacaoAgrupada gravacaoAgrupada,
+                         PlatformTransactionManager transactionManager) {
         this.qrCodeRepository = qrCodeRepository;
+        this.propriedades = propriedades;
+        this.filaRenderizacao = filaRenderizacao;
+        this.cacheImagem = cacheImagem;
+        this.qrImageStore = qrImageStore;
+        this.metricas = metricas;
+        this.janelaIdempotencia = janelaIdempotencia;
+        this.limitadorJdbc = limitadorJdbc;
+        this.codificadorPayload = codificadorPayload;
+        this.perfis = perfis;
+        this.gravacaoAgrupada = gravacaoAgrupada;
+        this.executorLote = criarExecutorLote(propriedades.getLote());
+        this.transacaoLote = new TransactionTemplate(transactionManager);
+        this.cacheRenderizacao = criarCacheRenderizacao(propriedades.getCacheRenderizacao());
+        metricas.monitorarCache("qrcode.renderizacao", cacheRenderizacao);
     }
 
     /**
-     * Gera os dados do QR Code e salva no repositório.
+     * Encerra as threads de geração de imagens do lote.
+     */
+    @PreDestroy
+    public void encerrar() {
+        executorLote.shutdown();
+    }
+
+    /**
+     * Gera os dados do QR Code e salva no repositório com um ID novo da sequência. A imagem é gerada de forma assíncrona.
      *
-     * @param id O ID do QR Code.
+     * @param id O ID informado pelo cliente, obrigatório mas não gravado: o ID salvo vem da sequência.
      * @param valor O valor do QR Code.
      * @param descricao A descrição do QR Code.
      * @param status O status do QR Code.
      * @param dataAtualizacao A data de atualização do QR Code.
      * @param dataExpiracao A data de expiração do QR Code.
+     * @return O ID do QR Code salvo e o ID da tarefa de renderização da imagem, ou os erros dos campos inválidos.
      */
-    public void gerarDadosQrCode(Long id, String valor, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao) {
-        validarDadosQrCode(id, valor, dataAtualizacao, dataExpiracao);
-        QrCode qrCode = criarQrCode(id, valor, descricao, status, dataAtualizacao, dataExpiracao, null);
-        salvarQrCode(qrCode);
+    public ResultadoCadastro gerarDadosQrCode(Long id, String valor, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao) {
+        return gerarDadosQrCode(id, valor, descricao, status, dataAtualizacao, dataExpiracao, null);
     }
 
     /**
-     * Gera os dados do QR Code com data de vencimento e salva no repositório.
+     * Gera os dados do QR Code de forma idempotente. Uma chave já usada devolve o resultado do cadastro original,
+     * sem validar, gravar ou gerar a imagem novamente.
      *
-     * @param id O ID do QR Code.
+     * @param id O ID informado pelo cliente, obrigatório mas não gravado: o ID salvo vem da sequência.
+     * @param valor O valor do QR Code.
+     * @param descricao A descrição do QR Code.
+     * @param status O status do QR Code.
+     * @param dataAtualizacao A data de atualização do QR Code.
+     * @param dataExpiracao A data de expiração do QR Code.
+     * @param chaveIdempotencia A chave de idempotência informada pelo cliente, ou null.
+     * @return O ID do QR Code salvo e o ID da tarefa de renderização da imagem, ou os erros dos campos inválidos.
+     */
+    public ResultadoCadastro gerarDadosQrCode(Long id, String valor, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao,
+                                              String chaveIdempotencia) {
+        String hashRequisicao = chaveIdempotencia == null ? null
+                : calcularHashRequisicao(ENDPOINT_IMEDIATO, id, valor, descricao, status, dataAtualizacao, dataExpiracao, null);
+        CadastroQrCodeRespostaDTO repetido = buscarRepeticao(chaveIdempotencia, hashRequisicao);
+        if (repetido != null) {
+            return ResultadoCadastro.cadastrado(repetido);
+        }
+        long centavos = ValidadorQrCode.lerCentavos(valor);
+        List<ErroCampoDTO> erros = metricas.medir(MetricasQrCode.ETAPA_VALIDACAO,
+                () -> ValidadorQrCode.validar(id, centavos, dataAtualizacao, dataExpiracao, null, false));
+        if (!erros.isEmpty()) {
+            return ResultadoCadastro.invalido(erros);
+        }
+        QrCode qrCode = criarQrCode(valor, centavos, descricao, status, dataAtualizacao, dataExpiracao, null);
+        qrCode.setChaveIdempotencia(chaveIdempotencia);
+        qrCode.setHashRequisicao(hashRequisicao);
+        return ResultadoCadastro.cadastrado(salvarQrCode(qrCode));
+    }
+
+    /**
+     * Gera os dados do QR Code com data de vencimento e salva no repositório com um ID novo da sequência. A imagem é gerada de forma assíncrona.
+     *
+     * @param id O ID informado pelo cliente, obrigatório mas não gravado: o ID salvo vem da sequência.
      * @param valor O valor do QR Code.
      * @param descricao A descrição do QR Code.
      * @param status O status do QR Code.
      * @param dataAtualizacao A data de atualização do QR Code.
      * @param dataExpiracao A data de expiração do QR Code.
      * @param dataVencimento A data de vencimento do QR Code.
+     * @return O ID do QR Code salvo e o ID da tarefa de renderização da imagem, ou os erros dos campos inválidos.
      */
-    public void gerarDadosQrCodeVencimento(Long id, String valor, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao, LocalDate dataVencimento) {
-        validarDadosQrCode(id, valor, dataAtualizacao, dataExpiracao);
-        validarDataVencimento(dataVencimento);
-        QrCode qrCode = criarQrCode(id, valor, descricao, status, dataAtualizacao, dataExpiracao, dataVencimento);
-        salvarQrCode(qrCode);
+    public ResultadoCadastro gerarDadosQrCodeVencimento(Long id, String valor, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao, LocalDate dataVencimento) {
+        return gerarDadosQrCodeVencimento(id, valor, descricao, status, dataAtualizacao, dataExpiracao, dataVencimento, null);
+    }
+
+    /**
+     * Gera os dados do QR Code com data de vencimento de forma idempotente. Uma chave já usada devolve o resultado
+     * do cadastro original, sem validar, gravar ou gerar a imagem novamente.
+     *
+     * @param id O ID informado pelo cliente, obrigatório mas não gravado: o ID salvo vem da sequência.
+     * @param valor O valor do QR Code.
+     * @param descricao A descrição do QR Code.
+     * @param status O status do QR Code.
+     * @param dataAtualizacao A data de atualização do QR Code.
+     * @param dataExpiracao A data de expiração do QR Code.
+     * @param dataVencimento A data de vencimento do QR Code.
+     * @param chaveIdempotencia A chave de idempotência informada pelo cliente, ou null.
+     * @return O ID do QR Code salvo e o ID da tarefa de renderização da imagem, ou os erros dos campos inválidos.
+     */
+    public ResultadoCadastro gerarDadosQrCodeVencimento(Long id, String valor, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao,
+                                                        LocalDate dataVencimento, String chaveIdempotencia) {
+        String hashRequisicao = chaveIdempotencia == null ? null
+                : calcularHashRequisicao(ENDPOINT_VENCIMENTO, id, valor, descricao, status, dataAtualizacao, dataExpiracao, dataVencimento);
+        CadastroQrCodeRespostaDTO repetido = buscarRepeticao(chaveIdempotencia, hashRequisicao);
+        if (repetido != null) {
+            return ResultadoCadastro.cadastrado(repetido);
+        }
+        long centavos = ValidadorQrCode.lerCentavos(valor);
+        List<ErroCampoDTO> erros = metricas.medir(MetricasQrCode.ETAPA_VALIDACAO,
+                () -> ValidadorQrCode.validar(id, centavos, dataAtualizacao, dataExpiracao, dataVencimento, true));
+        if (!erros.isEmpty()) {
+            return ResultadoCadastro.invalido(erros);
+        }
+        QrCode qrCode = criarQrCode(valor, centavos, descricao, status, dataAtualizacao, dataExpiracao, dataVencimento);
+        qrCode.setChaveIdempotencia(chaveIdempotencia);
+        qrCode.setHashRequisicao(hashRequisicao);
+        return ResultadoCadastro.cadastrado(salvarQrCode(qrCode));
+    }
+
+    /**
+     * Calcula o hash de uma requisição de cadastro com chave de idempotência: o endpoint e os campos do corpo,
+     * como foram recebidos.
+     *
+     * @param endpoint O endpoint de cadastro.
+     * @return O SHA-256 da requisição em hexadecimal.
+     */
+    private static String calcularHashRequisicao(String endpoint, Long id, String valor, String descricao, String status,
+                                                 LocalDate dataAtualizacao, LocalDate dataExpiracao, LocalDate dataVencimento) {
+        return calcularHash(String.join(SEPARADOR_HASH_REQUISICAO, endpoint, String.valueOf(id), valor, descricao, status,
+                String.valueOf(dataAtualizacao), String.valueOf(dataExpiracao), String.valueOf(dataVencimento)));
+    }
+
+    /**
+     * Busca o resultado de um cadastro anterior com a mesma chave de idempotência, primeiro na janela em memória
+     * e depois no índice único do banco.
+     *
+     * @param chaveIdempotencia A chave de idempotência, ou null.
+     * @param hashRequisicao O hash da requisição atual.
+     * @return O resultado original, ou null se a chave não foi usada.
+     * @throws ConflitoIdempotenciaException Se a chave foi usada com outro corpo ou em outro endpoint.
+     */
+    private CadastroQrCodeRespostaDTO buscarRepeticao(String chaveIdempotencia, String hashRequisicao) {
+        if (chaveIdempotencia == null) {
+            return null;
+        }
+        if (StringUtils.isBlank(chaveIdempotencia) || chaveIdempotencia.length() > TAMANHO_MAXIMO_CHAVE_IDEMPOTENCIA) {
+            throw new IllegalArgumentException("A chave de idempotência deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE_IDEMPOTENCIA + " caracteres");
+        }
+        CadastroQrCodeRespostaDTO resposta = janelaIdempotencia.obter(chaveIdempotencia, hashRequisicao);
+        if (resposta != null) {
+            return resposta;
+        }
+        return limitadorJdbc.executar(() -> qrCodeRepository.findByChaveIdempotencia(chaveIdempotencia))
+                .map(existente -> registrarRepeticao(chaveIdempotencia, hashRequisicao, existente))
+                .orElse(null);
+    }
+
+    /**
+     * Monta o resultado de um cadastro já gravado com a chave de idempotência e o coloca na janela em memória.
+     * A tarefa de renderização original não é conhecida, então o resultado traz apenas o ID. O resultado é devolvido
+     * diretamente, e não relido da janela, que pode descartá-lo logo depois de registrado (ou nem guardá-lo, com
+     * capacidade zero).
+     *
+     * @param chaveIdempotencia A chave de idempotência.
+     * @param hashRequisicao O hash da requisição atual.
+     * @param existente O QR Code gravado com a chave.
+     * @return O resultado do cadastro original.
+     * @throws ConflitoIdempotenciaException Se o cadastro gravado veio de outra requisição.
+     */
+    private CadastroQrCodeRespostaDTO registrarRepeticao(String chaveIdempotencia, String hashRequisicao, QrCode existente) {
+        JanelaIdempotencia.conferir(existente.getHashRequisicao(), hashRequisicao);
+        CadastroQrCodeRespostaDTO resposta = new CadastroQrCodeRespostaDTO(null, existente.getId(), null);
+        janelaIdempotencia.registrar(chaveIdempotencia, existente.getHashRequisicao(), resposta);
+        return resposta;
+    }
+
+    /**
+     * Gera os dados de um lote de QR Codes, salvando em blocos no repositório e gerando as imagens em paralelo.
+     * Todos os registros são validados antes de qualquer inserção; se algum for inválido, nada é cadastrado
+     * e os erros são devolvidos por registro. Os blocos são gravados em uma única transação, então uma falha do
+     * banco no meio do lote também não deixa cadastros parciais; as imagens só são geradas depois da confirmação.
+     *
+     * @param qrCodesDTO Os dados dos QR Codes a serem cadastrados.
+     * @return O resultado do lote, com os erros de cada registro inválido.
+     */
+    public ResultadoLoteDTO gerarDadosQrCodeLote(List<QrCodeDTO> qrCodesDTO) {
+        ResultadoLoteDTO resultado = new ResultadoLoteDTO();
+        resultado.setTotalRegistros(qrCodesDTO.size());
+
+        List<QrCode> qrCodes = metricas.medir(MetricasQrCode.ETAPA_VALIDACAO, () -> validarLote(qrCodesDTO, resultado.getErros()));
+        if (!resultado.getErros().isEmpty()) {
+            return resultado;
+        }
+
+        List<QrCode> salvos = metricas.medir(MetricasQrCode.ETAPA_INSERCAO,
+                () -> limitadorJdbc.executar(() -> transacaoLote.execute(status -> inserirLote(qrCodes))));
+        resultado.setTotalCadastrados(salvos.size());
+        List<Future<Boolean>> renderizacoes = new ArrayList<>(salvos.size());
+        for (QrCode salvo : salvos) {
+            renderizacoes.add(executorLote.submit(() -> salvarQrCodeComoImagem(salvo)));
+        }
+
+        resultado.setFalhasRenderizacao((int) renderizacoes.stream().filter(renderizacao -> !aguardarRenderizacao(renderizacao)).count());
+        return resultado;
     }
 
     /**
-     * Cria um objeto QrCode com os dados fornecidos.
+     * Insere os QR Codes do lote em blocos, enviando cada bloco ao banco antes do próximo, dentro da transação do lote.
+     *
+     * @param qrCodes Os QR Codes validados do lote.
+     * @return Os QR Codes salvos, com os IDs gerados.
+     */
+    private List<QrCode> inserirLote(List<QrCode> qrCodes) {
+        int tamanhoBloco = Math.max(1, propriedades.getLote().getTamanhoBloco());
+        List<QrCode> salvos = new ArrayList<>(qrCodes.size());
+        for (int inicio = 0; inicio < qrCodes.size(); inicio += tamanhoBloco) {
+            salvos.addAll(qrCodeRepository.saveAll(qrCodes.subList(inicio, Math.min(inicio + tamanhoBloco, qrCodes.size()))));
+            qrCodeRepository.flush();
+        }
+        return salvos;
+    }
+
+    /**
+     * Cadastra um registro de um fluxo de cadastro e gera sua imagem na própria thread, sem passar pela fila
+     * de renderização. Registros inválidos não são gravados e devolvem o erro no resultado.
+     *
+     * @param indice A posição do registro no fluxo.
+     * @param dto Os dados do QR Code a ser cadastrado.
+     * @return O resultado do registro, com o ID gravado e se a imagem foi gerada, ou com o erro.
+     */
+    public ResultadoRegistroDTO cadastrarRegistroComImagem(long indice, QrCodeDTO dto) {
+        if (dto == null) {
+            return new ResultadoRegistroDTO(indice, null, null, false, "Registro vazio");
+        }
+        long centavos = ValidadorQrCode.lerCentavos(dto.getValor());
+        List<ErroCampoDTO> errosCampo = metricas.medir(MetricasQrCode.ETAPA_VALIDACAO, () -> ValidadorQrCode.validar(dto.getId(), centavos,
+                dto.getDataAtualizacao(), dto.getDataExpiracao(), dto.getDataVencimento(), false));
+        if (!errosCampo.isEmpty()) {
+            return new ResultadoRegistroDTO(indice, dto.getId(), null, false, ValidadorQrCode.mensagem(errosCampo));
+        }
+        QrCode qrCode = criarQrCode(dto.getValor(), centavos, dto.getDescricao(), dto.getStatus(),
+                dto.getDataAtualizacao(), dto.getDataExpiracao(), dto.getDataVencimento());
+        QrCode salvo = inserir(qrCode);
+        boolean imagemGerada = salvarQrCodeComoImagem(salvo);
+        return new ResultadoRegistroDTO(indice, dto.getId(), salvo.getId(), imagemGerada, null);
+    }
+
+    /**
+     * Valida todos os registros do lote e cria os objetos QrCode dos registros válidos.
+     * O ID informado é usado apenas para identificar o registro nos erros; o ID persistido é gerado pela sequência.
+     *
+     * @param qrCodesDTO Os dados dos QR Codes do lote.
+     * @param erros A lista onde os erros de cada registro são adicionados.
+     * @return Os objetos QrCode dos registros válidos.
+     */
+    private List<QrCode> validarLote(List<QrCodeDTO> qrCodesDTO, List<ErroRegistroDTO> erros) {
+        List<QrCode> qrCodes = new ArrayList<>(qrCodesDTO.size());
+        for (int indice = 0; indice < qrCodesDTO.size(); indice++) {
+            QrCodeDTO dto = qrCodesDTO.get(indice);
+            if (dto == null) {
+                erros.add(new ErroRegistroDTO(indice, null, "Registro vazio"));
+                continue;
+            }
+            long centavos = ValidadorQrCode.lerCentavos(dto.getValor());
+            List<ErroCampoDTO> errosCampo = ValidadorQrCode.validar(dto.getId(), centavos, dto.getDataAtualizacao(), dto.getDataExpiracao(),
+                    dto.getDataVencimento(), false);
+            if (errosCampo.isEmpty()) {
+                qrCodes.add(criarQrCode(dto.getValor(), centavos, dto.getDescricao(), dto.getStatus(),
+                        dto.getDataAtualizacao(), dto.getDataExpiracao(), dto.getDataVencimento()));
+            } else {
+                erros.add(new ErroRegistroDTO(indice, dto.getId(), ValidadorQrCode.mensagem(errosCampo)));
+            }
+        }
+        return qrCodes;
+    }
+
+    /**
+     * Aguarda a geração de uma imagem do lote.
+     *
+     * @param renderizacao A geração da imagem submetida ao executor.
+     * @return true se a imagem foi gerada com sucesso.
+     */
+    private boolean aguardarRenderizacao(Future<Boolean> renderizacao) {
+        try {
+            return renderizacao.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.error("Erro ao gerar imagem do lote", e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * Prepara a imagem de um QR Code cadastrado no perfil de cadastro, com o tamanho e o formato informados.
+     *
+     * @param id O ID do QR Code.
+     * @param tamanho A largura e altura da imagem.
+     * @param formato O formato da imagem.
+     * @return A imagem a ser gerada, com seu ETag.
+     */
+    public ImagemQrCode prepararImagem(Long id, int tamanho, String formato) {
+        return prepararImagem(id, null, tamanho, formato);
+    }
+
+    /**
+     * Prepara a imagem de um QR Code cadastrado, calculando o ETag a partir do conteúdo codificado e do perfil
+     * de renderização, sem gerar a imagem. Tamanho e formato não informados vêm do perfil; sem tamanho e formato
+     * próprios, os perfis armazenados são servidos pela imagem gravada no cadastro.
      *
      * @param id O ID do QR Code.
+     * @param nomePerfil O nome do perfil de renderização, ou null para o perfil de cadastro.
+     * @param tamanho A largura e altura da imagem, ou null.
+     * @param formato O formato da imagem, ou null.
+     * @return A imagem a ser gerada, com seu ETag.
+     */
+    public ImagemQrCode prepararImagem(Long id, String nomePerfil, Integer tamanho, String formato) {
+        PerfilRenderizacao base = nomePerfil == null ? perfis.cadastro() : perfis.obter(nomePerfil);
+        PerfilRenderizacao perfil = base.comDimensoes(tamanho != null ? tamanho : base.getTamanho(), formato != null ? formato : base.getFormato());
+        QrCode qrCode = limitadorJdbc.executar(() -> qrCodeRepository.findById(id))
+                .orElseThrow(() -> new EntityNotFoundException("QrCode não encontrado com o id " + id));
+        String payload = formatarPayload(qrCode);
+        String tipoConteudo = PerfilRenderizacao.FORMATO_SVG.equals(perfil.getFormato()) ? "image/svg+xml" : "image/" + perfil.getFormato();
+        String chaveArmazenada = perfil == base && perfis.armazenados().contains(base) ? chaveImagem(id, base) : null;
+        return new ImagemQrCode(etagImagem(payload, perfil), payload, perfil, tipoConteudo, chaveArmazenada);
+    }
+
+    /**
+     * Obtém a imagem do QR Code, reaproveitando o cache quando o mesmo conteúdo, tamanho e formato já foram
+     * servidos. Perfis armazenados são lidos do armazenamento quando a imagem gravada corresponde ao conteúdo atual;
+     * os demais, imagens ainda não gravadas ou gravadas com outro conteúdo, são gerados em memória.
+     *
+     * @param imagem A imagem preparada.
+     * @return Os bytes da imagem.
+     * @throws WriterException Se ocorrer um erro ao gerar a imagem.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public byte[] gerarImagem(ImagemQrCode imagem) throws WriterException, IOException {
+        byte[] conteudo = cacheImagem.obter(imagem.getEtag());
+        if (conteudo == null) {
+            conteudo = lerArmazenada(imagem);
+            if (conteudo == null) {
+                ByteArrayOutputStream saida = new ByteArrayOutputStream();
+                escreverImagem(imagem.getPayload(), imagem.getPerfil(), saida);
+                conteudo = saida.toByteArray();
+            }
+            cacheImagem.armazenar(imagem.getEtag(), conteudo);
+        }
+        return conteudo;
+    }
+
+    /**
+     * Lê a imagem gravada no cadastro se o ETag gravado junto com ela for o da imagem preparada. Uma imagem gravada
+     * antes da mudança de status ou de qrcode.payload.formato traz outro conteúdo e não é servida.
+     *
+     * @param imagem A imagem preparada.
+     * @return Os bytes da imagem gravada, ou null se não há imagem gravada com o conteúdo atual.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    private byte[] lerArmazenada(ImagemQrCode imagem) throws IOException {
+        String chave = imagem.getChaveArmazenada();
+        if (chave == null) {
+            return null;
+        }
+        Optional<byte[]> etag = qrImageStore.ler(chaveEtag(chave));
+        if (etag.isEmpty() || !imagem.getEtag().equals(new String(etag.get(), StandardCharsets.UTF_8))) {
+            return null;
+        }
+        return qrImageStore.ler(chave).orElse(null);
+    }
+
+    /**
+     * Consulta os QR Codes cadastrados por status e intervalos de expiração e vencimento, em páginas ordenadas por ID.
+     * A próxima página é pedida com o proximoAposId da página atual, sem OFFSET, então o custo de cada página
+     * não cresce com a posição na listagem.
+     *
+     * @param filtro Os filtros da consulta, o ID do último registro da página anterior e o limite da página.
+     * @return A página de resumos e o cursor da próxima página, nulo na última.
+     */
+    public PaginaQrCodeDTO consultarQrCodes(FiltroQrCodeDTO filtro) {
+        if (filtro.getLimite() < 1 || filtro.getLimite() > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("O limite da página deve estar entre 1 e " + LIMITE_MAXIMO_PAGINA);
+        }
+        validarIntervalo(filtro.getDataExpiracaoDe(), filtro.getDataExpiracaoAte(), "expiração");
+        validarIntervalo(filtro.getDataVencimentoDe(), filtro.getDataVencimentoAte(), "vencimento");
+
+        List<QrCodeResumoDTO> itens = limitadorJdbc.executar(() -> qrCodeRepository.buscarResumos(filtro, filtro.getLimite() + 1));
+        Long proximoAposId = null;
+        if (itens.size() > filtro.getLimite()) {
+            itens = itens.subList(0, filtro.getLimite());
+            proximoAposId = itens.get(itens.size() - 1).getId();
+        }
+        return new PaginaQrCodeDTO(itens, proximoAposId);
+    }
+
+    /**
+     * Valida um intervalo de datas da consulta.
+     *
+     * @param inicio A data inicial, opcional.
+     * @param fim A data final, opcional.
+     * @param nome O nome do intervalo usado na mensagem de erro.
+     */
+    private void validarIntervalo(LocalDate inicio, LocalDate fim, String nome) {
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("O início do intervalo de " + nome + " deve ser anterior ou igual ao fim");
+        }
+    }
+
+    /**
+     * Calcula o ETag da imagem de um conteúdo em um perfil de renderização.
+     *
+     * @param payload O conteúdo codificado no QR Code.
+     * @param perfil O perfil de renderização.
+     * @return O ETag entre aspas.
+     */
+    private static String etagImagem(String payload, PerfilRenderizacao perfil) {
+        return calcularEtag(payload + '|' + perfil.getAssinatura());
+    }
+
+    /**
+     * Calcula um ETag forte a partir do SHA-256 do conteúdo.
+     *
+     * @param conteudo O conteúdo da imagem.
+     * @return O ETag entre aspas.
+     */
+    private static String calcularEtag(String conteudo) {
+        return '"' + calcularHash(conteudo) + '"';
+    }
+
+    /**
+     * Calcula o SHA-256 do conteúdo em hexadecimal.
+     *
+     * @param conteudo O conteúdo.
+     * @return O hash em hexadecimal.
+     */
+    private static String calcularHash(String conteudo) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Cria o executor limitado usado para gerar as imagens do lote.
+     * Quando a fila está cheia, a própria thread da requisição gera a imagem, limitando o ritmo das inserções.
+     *
+     * @param lote As configurações do lote.
+     * @return O executor de geração de imagens.
+     */
+    private static ExecutorService criarExecutorLote(QrCodeProperties.Lote lote) {
+        int threads = Math.max(1, lote.getThreadsRenderizacao());
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, lote.getCapacidadeFila())),
+                new CustomizableThreadFactory("qrcode-lote-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Cria o cache de renderização, limitado pelo total de bytes das imagens e com remoção W-TinyLFU do Caffeine.
+     *
+     * @param cache As configurações do cache de renderização.
+     * @return O cache de renderização.
+     */
+    private static Cache<String, ImagemRenderizada> criarCacheRenderizacao(QrCodeProperties.CacheRenderizacao cache) {
+        return Caffeine.newBuilder()
+                .maximumWeight(Math.max(0, cache.getCapacidadeBytes()))
+                .weigher((String chave, ImagemRenderizada imagem) -> imagem.conteudo().length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Descarta do cache de renderização as imagens gravadas com as chaves informadas, para que uma nova
+     * renderização do mesmo conteúdo volte a gravá-las no armazenamento.
+     *
+     * @param chaves As chaves das imagens removidas do armazenamento.
+     */
+    public void descartarRenderizacoes(Set<String> chaves) {
+        cacheRenderizacao.asMap().values().removeIf(imagem -> chaves.contains(imagem.chave()));
+    }
+
+    /**
+     * Cria um objeto QrCode com os dados fornecidos. O ID informado pelo cliente é apenas validado e nunca gravado:
+     * o ID persistido vem da sequência, já que salvar uma entidade com ID faria um merge sobre o cadastro existente.
+     *
      * @param valor O valor do QR Code.
      * @param descricao A descrição do QR Code.
      * @param status O status do QR Code.
@@ -84,10 +585,11 @@ public class QrCodeService {
      * @param dataVencimento A data de vencimento do QR Code.
      * @return O objeto QrCode criado.
      */
-    private QrCode criarQrCode(Long id, String valor, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao, LocalDate dataVencimento) {
+    private QrCode criarQrCode(String valor, long centavos, String descricao, String status, LocalDate dataAtualizacao, LocalDate dataExpiracao,
+                               LocalDate dataVencimento) {
         QrCode qrCode = new QrCode();
-        qrCode.setId(id);
         qrCode.setValor(valor);
+        qrCode.setValorCentavos(centavos);
         qrCode.setDescricao(descricao);
         qrCode.setStatus(obterStatus(status));
         qrCode.setDataAtualizacao(dataAtualizacao);
@@ -107,132 +609,302 @@ public class QrCodeService {
     }
 
     /**
-     * Salva o QR Code no repositório e gera a imagem do QR Code.
+     * Salva o QR Code no repositório e enfileira a geração da imagem do QR Code.
+     * A vaga na fila é reservada antes da inserção, para que uma fila cheia recuse o cadastro sem gravá-lo.
+     * Se outro cadastro com a mesma chave de idempotência foi gravado antes, o índice único recusa a inserção
+     * e o resultado do cadastro original é devolvido.
      *
      * @param qrCode O objeto QrCode a ser salvo.
+     * @return O ID do QR Code salvo e o ID da tarefa de renderização da imagem.
      */
-    private void salvarQrCode(QrCode qrCode) {
-        qrCodeRepository.save(qrCode);
-        String json = formatarQrCodeJson(qrCode);
-        salvarQrCodeComoImagem(json);
+    private CadastroQrCodeRespostaDTO salvarQrCode(QrCode qrCode) {
+        filaRenderizacao.reservarVaga();
+        QrCode salvo;
+        try {
+            salvo = inserir(qrCode);
+        } catch (DataIntegrityViolationException e) {
+            filaRenderizacao.liberarVaga();
+            CadastroQrCodeRespostaDTO repetido = qrCode.getChaveIdempotencia() == null ? null
+                    : buscarRepeticao(qrCode.getChaveIdempotencia(), qrCode.getHashRequisicao());
+            if (repetido == null) {
+                throw e;
+            }
+            return repetido;
+        } catch (RuntimeException e) {
+            filaRenderizacao.liberarVaga();
+            throw e;
+        }
+        String idTarefa = filaRenderizacao.enfileirar(salvo.getId(), () -> salvarQrCodeComoImagem(salvo));
+        CadastroQrCodeRespostaDTO resposta = new CadastroQrCodeRespostaDTO(null, salvo.getId(), idTarefa);
+        if (salvo.getChaveIdempotencia() != null) {
+            janelaIdempotencia.registrar(salvo.getChaveIdempotencia(), salvo.getHashRequisicao(), resposta);
+        }
+        return resposta;
     }
 
     /**
-     * Formata os dados do QR Code em formato JSON.
+     * Grava um cadastro individual, pela gravação agrupada quando ativa ou na sua própria transação.
+     *
+     * @param qrCode O QR Code a ser gravado.
+     * @return O QR Code gravado.
+     */
+    private QrCode inserir(QrCode qrCode) {
+        if (gravacaoAgrupada.isAtiva()) {
+            return metricas.medir(MetricasQrCode.ETAPA_INSERCAO, () -> gravacaoAgrupada.gravar(qrCode));
+        }
+        return metricas.medir(MetricasQrCode.ETAPA_INSERCAO, () -> limitadorJdbc.executar(() -> qrCodeRepository.save(qrCode)));
+    }
+
+    /**
+     * Monta o conteúdo do QR Code no formato configurado em qrcode.payload.formato.
      *
      * @param qrCode O objeto QrCode a ser formatado.
-     * @return Os dados do QR Code em formato JSON.
+     * @return O conteúdo do QR Code.
      */
-    private String formatarQrCodeJson(QrCode qrCode) {
-        return String.format("ID: %d\nValor: %s\nDescrição: %s\nStatus: %s\nData de Atualização: %s\nData de Expiração: %s\nData de Vencimento: %s",
-                qrCode.getId(), qrCode.getValor(), qrCode.getDescricao(), qrCode.getStatus(), qrCode.getDataAtualizacao(), qrCode.getDataExpiracao(), qrCode.getDataVencimento());
+    String formatarPayload(QrCode qrCode) {
+        return codificadorPayload.codificar(qrCode);
     }
 
     /**
-     * Salva a imagem do QR Code no diretório especificado.
+     * Salva as imagens do QR Code no armazenamento: a do perfil de cadastro e as das variantes configuradas.
+     * Falhas são registradas e contadas por causa.
      *
-     * @param data Os dados do QR Code a serem salvos como imagem.
+     * @param salvo O QR Code gravado.
+     * @return true se a imagem foi salva com sucesso.
      */
-    private void salvarQrCodeComoImagem(String data) {
+    private boolean salvarQrCodeComoImagem(QrCode salvo) {
         try {
-            String path = prepararLocalDestinoQr();
-            processarQrCode(data, path, CHARSET, QR_CODE_HEIGHT, QR_CODE_WIDTH);
-        } catch (WriterException | IOException e) {
-            log.error("Erro ao salvar QR Code como imagem", e);
+            processarImagens(salvo.getId(), formatarPayload(salvo));
+            return true;
+        } catch (WriterException | IOException | RuntimeException e) {
+            log.error("Erro ao salvar QR Code {} como imagem", salvo.getId(), e);
+            metricas.registrarFalhaRenderizacao(e);
+            return false;
         }
     }
 
     /**
-     * Prepara o diretório de destino para salvar a imagem do QR Code.
+     * Grava novamente as imagens dos QR Codes cujo conteúdo mudou, como os expirados, para que as imagens
+     * armazenadas e exportadas tragam o conteúdo atual.
      *
-     * @return O caminho do diretório de destino.
+     * @param ids Os IDs dos QR Codes alterados.
+     * @return A quantidade de QR Codes com as imagens gravadas.
      */
-    private String prepararLocalDestinoQr() {
-        Date date = new Date();
-        DateFormat dateFormat = new SimpleDateFormat(DATA_FORMATADA);
-        String formattedDate = dateFormat.format(date);
-
-        File directory = new File(DESTINO_ARQUIVO);
-        if (!directory.exists()) {
-            directory.mkdirs();
+    public int regravarImagens(Collection<Long> ids) {
+        int gravadas = 0;
+        for (QrCode qrCode : limitadorJdbc.executar(() -> qrCodeRepository.findAllById(ids))) {
+            if (salvarQrCodeComoImagem(qrCode)) {
+                gravadas++;
+            }
         }
-
-        return DESTINO_ARQUIVO + "\\" + "QRCode-" + formattedDate + ".png";
+        return gravadas;
     }
 
     /**
-     * Processa os dados do QR Code e gera a imagem.
+     * Monta a chave da imagem do QR Code no armazenamento. A chave é derivada apenas do ID,
+     * para que imagens geradas ao mesmo tempo nunca colidam.
      *
-     * @param data Os dados do QR Code.
-     * @param path O caminho do arquivo de destino.
-     * @param charset O charset a ser utilizado.
-     * @param height A altura da imagem.
-     * @param width A largura da imagem.
-     * @throws WriterException Se ocorrer um erro ao gerar a imagem.
-     * @throws IOException Se ocorrer um erro de I/O.
+     * @param id O ID do QR Code.
+     * @return A chave da imagem.
      */
-    private void processarQrCode(String data, String path, String charset, int height, int width) throws WriterException, IOException {
-        BitMatrix matrix = new MultiFormatWriter().encode(new String(data.getBytes(charset), charset), BarcodeFormat.QR_CODE, width, height);
-        MatrixToImageWriter.writeToFile(matrix, path.substring(path.lastIndexOf('.') + 1), new File(path));
+    public static String chaveImagem(Long id) {
+        return "QRCode-" + id + "." + PerfilRenderizacao.FORMATO_PNG;
     }
 
     /**
-     * Valida os dados do QR Code.
+     * Monta a chave da imagem do QR Code em um perfil armazenado. O perfil de cadastro mantém a chave
+     * {@link #chaveImagem(Long)}; as variantes recebem o nome do perfil e a extensão do formato.
      *
      * @param id O ID do QR Code.
-     * @param valor O valor do QR Code.
-     * @param dataAtualizacao A data de atualização do QR Code.
-     * @param dataExpiracao A data de expiração do QR Code.
+     * @param perfil O perfil armazenado.
+     * @return A chave da imagem.
+     */
+    public static String chaveImagem(Long id, PerfilRenderizacao perfil) {
+        if (PerfisRenderizacao.PERFIL_CADASTRO.equals(perfil.getNome())) {
+            return chaveImagem(id);
+        }
+        return "QRCode-" + id + "-" + perfil.getNome() + "." + perfil.getFormato();
+    }
+
+    /**
+     * Monta a chave do ETag gravado junto com uma imagem armazenada, que identifica o conteúdo e o perfil da imagem
+     * gravada e impede que ela seja servida depois que o conteúdo do QR Code mudar.
+     *
+     * @param chaveImagem A chave da imagem.
+     * @return A chave do ETag da imagem.
      */
-    public void validarDadosQrCode(Long id, String valor, LocalDate dataAtualizacao, LocalDate dataExpiracao) {
-        validarId(id);
-        validarValor(valor);
-        validarData(dataAtualizacao, "Data de Atualização é obrigatória");
-        validarData(dataExpiracao, "Data de Expiração é obrigatória");
+    public static String chaveEtag(String chaveImagem) {
+        return chaveImagem + SUFIXO_ETAG;
     }
 
     /**
-     * Valida o ID do QR Code.
+     * Grava as imagens de todos os perfis armazenados, codificando os dados uma única vez para cada conjunto
+     * de hints: as variantes derivam da mesma matriz nativa, sem margem, por ampliação inteira e com a zona de
+     * silêncio de cada perfil.
      *
      * @param id O ID do QR Code.
+     * @param data Os dados do QR Code.
+     * @throws WriterException Se ocorrer um erro ao gerar as imagens.
+     * @throws IOException Se ocorrer um erro de I/O.
      */
-    private void validarId(Long id) {
-        if (id == null) {
-            throw new IllegalArgumentException("O ID não pode ser nulo");
+    void processarImagens(Long id, String data) throws WriterException, IOException {
+        Map<String, BitMatrix> matrizes = new HashMap<>(4);
+        for (PerfilRenderizacao perfil : perfis.armazenados()) {
+            processarQrCode(data, chaveImagem(id, perfil), perfil, matrizes);
         }
     }
 
     /**
-     * Valida o valor do QR Code.
+     * Processa os dados do QR Code e grava a imagem no armazenamento, com o ETag do conteúdo ao lado. O cache de renderização é indexado pelo
+     * conteúdo completo, que inclui o ID, pela assinatura do perfil e pelo modo de renderização: um reenvio para a
+     * mesma chave não grava nada, e outra chave com o mesmo conteúdo recebe os bytes já renderizados. Cadastros com
+     * IDs diferentes nunca compartilham a imagem, já que cada uma traz o ID do seu cadastro.
      *
-     * @param valor O valor do QR Code.
+     * @param data Os dados do QR Code.
+     * @param chave A chave da imagem no armazenamento.
+     * @param perfil O perfil de renderização.
+     * @throws WriterException Se ocorrer um erro ao gerar a imagem.
+     * @throws IOException Se ocorrer um erro de I/O.
      */
-    private void validarValor(String valor) {
-        if (StringUtils.isBlank(valor) || Double.parseDouble(valor) <= 0) {
-            throw new IllegalArgumentException("Por favor, insira um valor válido");
+    void processarQrCode(String data, String chave, PerfilRenderizacao perfil) throws WriterException, IOException {
+        processarQrCode(data, chave, perfil, new HashMap<>(2));
+    }
+
+    /**
+     * Processa os dados do QR Code com as matrizes nativas já codificadas para o mesmo conteúdo, indexadas pela
+     * assinatura de codificação do perfil. Perfis com os mesmos hints reaproveitam a matriz e só mudam a escala
+     * e o formato da imagem.
+     */
+    private void processarQrCode(String data, String chave, PerfilRenderizacao perfil, Map<String, BitMatrix> matrizes)
+            throws WriterException, IOException {
+        QrCodeProperties.Renderizacao.Modo modo = propriedades.getRenderizacao().getModo();
+        String chaveRenderizacao = calcularHash(data + '|' + perfil.getAssinatura() + '|' + modo);
+        ImagemRenderizada renderizada = cacheRenderizacao.getIfPresent(chaveRenderizacao);
+        if (renderizada != null && renderizada.chave().equals(chave)) {
+            return;
         }
+
+        byte[] conteudo;
+        if (renderizada != null) {
+            conteudo = renderizada.conteudo();
+        } else {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            escreverImagem(data, perfil, matrizes, saida);
+            conteudo = saida.toByteArray();
+        }
+        byte[] etag = etagImagem(data, perfil).getBytes(StandardCharsets.UTF_8);
+        metricas.medir(MetricasQrCode.ETAPA_GRAVACAO, () -> {
+            qrImageStore.salvar(chave, destino -> destino.write(conteudo));
+            return qrImageStore.salvar(chaveEtag(chave), destino -> destino.write(etag));
+        });
+        cacheRenderizacao.put(chaveRenderizacao, new ImagemRenderizada(chave, conteudo));
     }
 
     /**
-     * Valida a data fornecida.
+     * Escreve a imagem do QR Code na saída fornecida, no tamanho e formato do perfil. SVG e, no modo otimizado,
+     * PNG são gerados a partir da matriz nativa; os demais formatos passam pelo MatrixToImageWriter.
      *
-     * @param data A data a ser validada.
-     * @param mensagemErro A mensagem de erro a ser exibida se a data for inválida.
+     * @param data Os dados do QR Code.
+     * @param perfil O perfil de renderização.
+     * @param saida A saída da imagem.
+     * @throws WriterException Se ocorrer um erro ao gerar a imagem.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    void escreverImagem(String data, PerfilRenderizacao perfil, OutputStream saida) throws WriterException, IOException {
+        escreverImagem(data, perfil, null, saida);
+    }
+
+    private void escreverImagem(String data, PerfilRenderizacao perfil, Map<String, BitMatrix> matrizes, OutputStream saida)
+            throws WriterException, IOException {
+        boolean otimizado = propriedades.getRenderizacao().getModo() == QrCodeProperties.Renderizacao.Modo.OTIMIZADO;
+        String formato = perfil.getFormato();
+        boolean svg = PerfilRenderizacao.FORMATO_SVG.equals(formato);
+        if (svg || (otimizado && PerfilRenderizacao.FORMATO_PNG.equals(formato))) {
+            BitMatrix matriz = matrizNativa(data, perfil, matrizes);
+            int margem = perfil.getMargem();
+            int escala = RenderizadorQrCode.escalaPara(matriz, margem, perfil.getTamanho());
+            metricas.executar(MetricasQrCode.ETAPA_SERIALIZACAO, () -> {
+                if (svg) {
+                    RenderizadorQrCode.escreverSvg(matriz, margem, escala, saida);
+                } else {
+                    RenderizadorQrCode.escreverPng(matriz, margem, escala, saida);
+                }
+            });
+        } else {
+            BitMatrix matrix = codificarQrCode(data, perfil, perfil.getTamanho());
+            metricas.executar(MetricasQrCode.ETAPA_SERIALIZACAO, () -> MatrixToImageWriter.writeToStream(matrix, formato, saida));
+        }
+    }
+
+    /**
+     * Obtém a matriz nativa do QR Code, sem margem, codificando os dados apenas se ainda não houver uma matriz com
+     * a mesma assinatura de codificação do perfil.
      */
-    private void validarData(LocalDate data, String mensagemErro) {
-        if (data == null) {
-            throw new IllegalArgumentException(mensagemErro);
+    private BitMatrix matrizNativa(String data, PerfilRenderizacao perfil, Map<String, BitMatrix> matrizes) throws WriterException {
+        if (matrizes == null) {
+            return codificarNativa(data, perfil);
+        }
+        BitMatrix matriz = matrizes.get(perfil.getAssinaturaCodificacao());
+        if (matriz == null) {
+            matriz = codificarNativa(data, perfil);
+            matrizes.put(perfil.getAssinaturaCodificacao(), matriz);
         }
+        return matriz;
+    }
+
+    /**
+     * Codifica os dados do QR Code em uma matriz ampliada com os hints e a margem do perfil, medindo a etapa de
+     * codificação.
+     *
+     * @param data Os dados do QR Code.
+     * @param perfil O perfil de renderização.
+     * @param tamanho A largura e altura da matriz.
+     * @return A matriz do QR Code.
+     * @throws WriterException Se ocorrer um erro ao codificar os dados.
+     */
+    private BitMatrix codificarQrCode(String data, PerfilRenderizacao perfil, int tamanho) throws WriterException {
+        return metricas.medir(MetricasQrCode.ETAPA_CODIFICACAO, () -> perfil.codificar(data, tamanho, tamanho));
+    }
+
+    /**
+     * Codifica os dados do QR Code na matriz nativa, um elemento por módulo e sem margem, medindo a etapa de
+     * codificação.
+     *
+     * @param data Os dados do QR Code.
+     * @param perfil O perfil de renderização.
+     * @return A matriz nativa do QR Code.
+     * @throws WriterException Se ocorrer um erro ao codificar os dados.
+     */
+    private BitMatrix codificarNativa(String data, PerfilRenderizacao perfil) throws WriterException {
+        return metricas.medir(MetricasQrCode.ETAPA_CODIFICACAO, () -> perfil.codificarNativa(data));
+    }
+
+    /**
+     * Valida os dados do QR Code.
+     *
+     * @param id O ID do QR Code.
+     * @param valor O valor do QR Code.
+     * @param dataAtualizacao A data de atualização do QR Code.
+     * @param dataExpiracao A data de expiração do QR Code.
+     * @return Os erros de todos os campos inválidos, ou uma lista vazia.
+     */
+    public List<ErroCampoDTO> validarDadosQrCode(Long id, String valor, LocalDate dataAtualizacao, LocalDate dataExpiracao) {
+        return ValidadorQrCode.validar(id, ValidadorQrCode.lerCentavos(valor), dataAtualizacao, dataExpiracao, null, false);
     }
 
     /**
      * Valida a data de vencimento do QR Code.
      *
      * @param dataVencimento A data de vencimento do QR Code.
+     * @return O erro da data ausente ou no passado, ou uma lista vazia.
      */
-    public void validarDataVencimento(LocalDate dataVencimento) {
-        if (dataVencimento == null || dataVencimento.isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("A Data de Vencimento é obrigatória e deve ser maior que a data atual");
-        }
+    public List<ErroCampoDTO> validarDataVencimento(LocalDate dataVencimento) {
+        return ValidadorQrCode.validarVencimento(dataVencimento, true);
+    }
+
+    /**
+     * Imagem renderizada mantida no cache, com a chave em que foi gravada pela última vez.
+     */
+    private record ImagemRenderizada(String chave, byte[] conteudo) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoRegistroDTO;
+import codigo.cadastroqrcode.qrcodecadastro.exception.FilaRenderizacaoCheiaException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Cadastro de QR Code com retorno reativo. A gravação e a geração das imagens continuam bloqueantes e rodam
+ * em um scheduler limitado, para que as threads das requisições nunca fiquem presas ao banco ou ao ZXing.
+ * Author: Davi Oliveira Santos
+ */
+@Service
+@Slf4j
+public class QrCodeServiceReativo {
+
+    private final QrCodeService qrCodeService;
+    private final Scheduler scheduler;
+    private final int concorrencia;
+
+    public QrCodeServiceReativo(QrCodeService qrCodeService, QrCodeProperties propriedades) {
+        QrCodeProperties.Reativo reativo = propriedades.getReativo();
+        this.qrCodeService = qrCodeService;
+        this.concorrencia = Math.max(1, reativo.getThreads());
+        this.scheduler = Schedulers.newBoundedElastic(concorrencia, Math.max(1, reativo.getCapacidadeFila()), "qrcode-reativo");
+    }
+
+    /**
+     * Encerra as threads do scheduler reativo.
+     */
+    @PreDestroy
+    public void encerrar() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Cadastra um QR Code imediato. A imagem é gerada pela fila de renderização, como no cadastro bloqueante.
+     *
+     * @param qrCodeDTO Os dados do QR Code.
+     * @param chaveIdempotencia A chave de idempotência informada pelo cliente, ou null.
+     * @return O ID do QR Code salvo e o ID da tarefa de renderização da imagem, ou os erros dos campos inválidos.
+     */
+    public Mono<ResultadoCadastro> gerarDadosQrCode(QrCodeDTO qrCodeDTO, String chaveIdempotencia) {
+        return executar(() -> qrCodeService.gerarDadosQrCode(qrCodeDTO.getId(), qrCodeDTO.getValor(), qrCodeDTO.getDescricao(), qrCodeDTO.getStatus(),
+                qrCodeDTO.getDataAtualizacao(), qrCodeDTO.getDataExpiracao(), chaveIdempotencia));
+    }
+
+    /**
+     * Cadastra um QR Code imediato com data de vencimento. A imagem é gerada pela fila de renderização.
+     *
+     * @param qrCodeDTO Os dados do QR Code.
+     * @param chaveIdempotencia A chave de idempotência informada pelo cliente, ou null.
+     * @return O ID do QR Code salvo e o ID da tarefa de renderização da imagem, ou os erros dos campos inválidos.
+     */
+    public Mono<ResultadoCadastro> gerarDadosQrCodeVencimento(QrCodeDTO qrCodeDTO, String chaveIdempotencia) {
+        return executar(() -> qrCodeService.gerarDadosQrCodeVencimento(qrCodeDTO.getId(), qrCodeDTO.getValor(), qrCodeDTO.getDescricao(), qrCodeDTO.getStatus(),
+                qrCodeDTO.getDataAtualizacao(), qrCodeDTO.getDataExpiracao(), qrCodeDTO.getDataVencimento(), chaveIdempotencia));
+    }
+
+    /**
+     * Cadastra um fluxo de QR Codes, gerando a imagem de cada um antes de emitir seu resultado. No máximo
+     * "threads" registros são processados ao mesmo tempo e os resultados saem na ordem de entrada; novos
+     * registros só são pedidos ao fluxo de entrada conforme os resultados são consumidos.
+     * Diferente do lote, cada registro é gravado de forma independente e os inválidos são devolvidos com o erro.
+     *
+     * @param registros O fluxo de registros a cadastrar.
+     * @return O fluxo de resultados, um por registro.
+     */
+    public Flux<ResultadoRegistroDTO> gerarDadosQrCodeFluxo(Flux<QrCodeDTO> registros) {
+        return registros.index()
+                .flatMapSequential(registro -> executar(() -> qrCodeService.cadastrarRegistroComImagem(registro.getT1(), registro.getT2()))
+                        .onErrorResume(e -> Mono.just(falha(registro.getT1(), registro.getT2(), e))), concorrencia, 1);
+    }
+
+    private <T> Mono<T> executar(Callable<T> cadastro) {
+        return Mono.fromCallable(cadastro)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new FilaRenderizacaoCheiaException("Cadastros reativos esgotados, tente novamente em instantes"));
+    }
+
+    private static ResultadoRegistroDTO falha(long indice, QrCodeDTO dto, Throwable erro) {
+        log.error("Erro ao cadastrar o registro {} do fluxo", indice, erro);
+        return new ResultadoRegistroDTO(indice, dto.getId(), null, false, erro.getMessage());
+    }
+}
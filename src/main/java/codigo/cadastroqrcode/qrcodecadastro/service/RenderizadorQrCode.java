@@ -0,0 +1,302 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Renderiza a matriz nativa de um QR Code (um pixel por módulo) diretamente em PNG de 1 bit em tons de cinza
+ * ou em SVG, ampliando cada módulo por um fator inteiro sem criar um BufferedImage.
+ * As linhas repetidas pela ampliação usam o filtro "acima" do PNG e viram sequências de zeros.
+ * Os buffers e o Deflater ficam em um pool pequeno, de onde cada renderização os retira e para onde os devolve:
+ * um ThreadLocal não serviria às threads virtuais das requisições, que são criadas por tarefa. Os que não cabem
+ * no pool são descartados com o Deflater encerrado, liberando sua memória nativa.
+ * Author: Davi Oliveira Santos
+ */
+public final class RenderizadorQrCode {
+
+    private static final byte[] ASSINATURA_PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final byte[] TIPO_IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] TIPO_IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] TIPO_IEND = {'I', 'E', 'N', 'D'};
+    private static final int TAMANHO_IHDR = 13;
+    private static final int PROFUNDIDADE_1_BIT = 1;
+    private static final int COR_TONS_DE_CINZA = 0;
+    private static final byte FILTRO_NENHUM = 0;
+    private static final byte FILTRO_ACIMA = 2;
+
+    private static final BlockingQueue<Buffers> BUFFERS = new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    private RenderizadorQrCode() {
+    }
+
+    /**
+     * Calcula o fator de ampliação inteiro que mais se aproxima do tamanho desejado sem ultrapassá-lo.
+     *
+     * @param matriz A matriz nativa do QR Code.
+     * @param tamanho O tamanho desejado da imagem, em pixels.
+     * @return O fator de ampliação, no mínimo 1.
+     */
+    public static int escalaPara(BitMatrix matriz, int tamanho) {
+        return escalaPara(matriz, 0, tamanho);
+    }
+
+    /**
+     * Calcula o fator de ampliação inteiro da matriz com a zona de silêncio que mais se aproxima do tamanho
+     * desejado sem ultrapassá-lo.
+     *
+     * @param matriz A matriz nativa do QR Code, sem margem.
+     * @param margem A zona de silêncio, em módulos de cada lado.
+     * @param tamanho O tamanho desejado da imagem, em pixels.
+     * @return O fator de ampliação, no mínimo 1.
+     */
+    public static int escalaPara(BitMatrix matriz, int margem, int tamanho) {
+        return Math.max(1, tamanho / (Math.max(matriz.getWidth(), matriz.getHeight()) + 2 * margem));
+    }
+
+    /**
+     * Escreve a matriz como PNG de 1 bit em tons de cinza, com módulos pretos sobre fundo branco.
+     *
+     * @param matriz A matriz nativa do QR Code.
+     * @param escala O fator de ampliação de cada módulo.
+     * @param saida A saída do PNG.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void escreverPng(BitMatrix matriz, int escala, OutputStream saida) throws IOException {
+        escreverPng(matriz, 0, escala, saida);
+    }
+
+    /**
+     * Escreve a matriz como PNG de 1 bit em tons de cinza, com módulos pretos sobre fundo branco e a zona de
+     * silêncio em branco ao redor.
+     *
+     * @param matriz A matriz nativa do QR Code, sem margem.
+     * @param margem A zona de silêncio, em módulos de cada lado.
+     * @param escala O fator de ampliação de cada módulo.
+     * @param saida A saída do PNG.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void escreverPng(BitMatrix matriz, int margem, int escala, OutputStream saida) throws IOException {
+        Buffers buffers = retirarBuffers();
+        try {
+            escreverPng(matriz, margem, escala, saida, buffers);
+        } finally {
+            devolverBuffers(buffers);
+        }
+    }
+
+    private static void escreverPng(BitMatrix matriz, int margem, int escala, OutputStream saida, Buffers buffers) throws IOException {
+        int margemPixels = margem * escala;
+        int largura = matriz.getWidth() * escala + 2 * margemPixels;
+        int altura = matriz.getHeight() * escala + 2 * margemPixels;
+        int bytesLinha = 1 + ((largura + 7) >>> 3);
+        byte[] linha = buffers.linha(bytesLinha);
+        byte[] repeticao = buffers.repeticao(bytesLinha);
+
+        saida.write(ASSINATURA_PNG);
+        byte[] cabecalho = buffers.cabecalho;
+        escreverInt(cabecalho, 0, largura);
+        escreverInt(cabecalho, 4, altura);
+        cabecalho[8] = PROFUNDIDADE_1_BIT;
+        cabecalho[9] = COR_TONS_DE_CINZA;
+        cabecalho[10] = 0;
+        cabecalho[11] = 0;
+        cabecalho[12] = 0;
+        escreverChunk(saida, TIPO_IHDR, cabecalho, TAMANHO_IHDR, buffers);
+
+        Deflater deflater = buffers.deflater;
+        deflater.reset();
+        escreverMargem(deflater, linha, repeticao, largura, bytesLinha, margemPixels, saida, buffers);
+        for (int y = 0; y < matriz.getHeight(); y++) {
+            preencherLinha(matriz, y, escala, margemPixels, largura, linha, bytesLinha);
+            comprimir(deflater, linha, bytesLinha, saida, buffers);
+            for (int copia = 1; copia < escala; copia++) {
+                comprimir(deflater, repeticao, bytesLinha, saida, buffers);
+            }
+        }
+        escreverMargem(deflater, linha, repeticao, largura, bytesLinha, margemPixels, saida, buffers);
+        deflater.finish();
+        while (!deflater.finished()) {
+            esvaziar(deflater, saida, buffers);
+        }
+        escreverChunk(saida, TIPO_IEND, buffers.cabecalho, 0, buffers);
+    }
+
+    /**
+     * Escreve a matriz como SVG, com um único path formado pelas sequências horizontais de módulos pretos.
+     *
+     * @param matriz A matriz nativa do QR Code.
+     * @param escala O fator de ampliação de cada módulo, usado como largura e altura do SVG.
+     * @param saida A saída do SVG.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void escreverSvg(BitMatrix matriz, int escala, OutputStream saida) throws IOException {
+        escreverSvg(matriz, 0, escala, saida);
+    }
+
+    /**
+     * Escreve a matriz como SVG, com um único path formado pelas sequências horizontais de módulos pretos,
+     * deslocado pela zona de silêncio.
+     *
+     * @param matriz A matriz nativa do QR Code, sem margem.
+     * @param margem A zona de silêncio, em módulos de cada lado.
+     * @param escala O fator de ampliação de cada módulo, usado como largura e altura do SVG.
+     * @param saida A saída do SVG.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public static void escreverSvg(BitMatrix matriz, int margem, int escala, OutputStream saida) throws IOException {
+        int largura = matriz.getWidth();
+        int altura = matriz.getHeight();
+        int larguraTotal = largura + 2 * margem;
+        int alturaTotal = altura + 2 * margem;
+        Writer svg = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.US_ASCII));
+        svg.write("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 " + larguraTotal + ' ' + alturaTotal
+                + "\" width=\"" + larguraTotal * escala + "\" height=\"" + alturaTotal * escala + "\" shape-rendering=\"crispEdges\">");
+        svg.write("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+        for (int y = 0; y < altura; y++) {
+            int x = 0;
+            while (x < largura) {
+                if (!matriz.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int inicio = x;
+                while (x < largura && matriz.get(x, y)) {
+                    x++;
+                }
+                svg.write("M" + (inicio + margem) + ',' + (y + margem) + 'h' + (x - inicio) + "v1h-" + (x - inicio) + 'z');
+            }
+        }
+        svg.write("\"/></svg>");
+        svg.flush();
+    }
+
+    private static Buffers retirarBuffers() {
+        Buffers buffers = BUFFERS.poll();
+        return buffers == null ? new Buffers() : buffers;
+    }
+
+    private static void devolverBuffers(Buffers buffers) {
+        if (!BUFFERS.offer(buffers)) {
+            buffers.deflater.end();
+        }
+    }
+
+    /**
+     * Preenche uma linha do PNG a partir de uma linha da matriz, com a zona de silêncio branca nas pontas:
+     * bit 1 é branco e bit 0 é preto.
+     */
+    private static void preencherLinha(BitMatrix matriz, int y, int escala, int margemPixels, int largura, byte[] linha, int bytesLinha) {
+        Arrays.fill(linha, 0, bytesLinha, (byte) 0);
+        linha[0] = FILTRO_NENHUM;
+        branco(linha, 0, margemPixels);
+        int pixel = margemPixels;
+        for (int x = 0; x < matriz.getWidth(); x++, pixel += escala) {
+            if (!matriz.get(x, y)) {
+                branco(linha, pixel, pixel + escala);
+            }
+        }
+        branco(linha, pixel, largura);
+    }
+
+    /**
+     * Escreve as linhas brancas da zona de silêncio: uma linha completa seguida de repetições.
+     */
+    private static void escreverMargem(Deflater deflater, byte[] linha, byte[] repeticao, int largura, int bytesLinha, int margemPixels,
+                                       OutputStream saida, Buffers buffers) throws IOException {
+        if (margemPixels == 0) {
+            return;
+        }
+        Arrays.fill(linha, 0, bytesLinha, (byte) 0);
+        linha[0] = FILTRO_NENHUM;
+        branco(linha, 0, largura);
+        comprimir(deflater, linha, bytesLinha, saida, buffers);
+        for (int copia = 1; copia < margemPixels; copia++) {
+            comprimir(deflater, repeticao, bytesLinha, saida, buffers);
+        }
+    }
+
+    private static void branco(byte[] linha, int inicio, int fim) {
+        for (int pixel = inicio; pixel < fim; pixel++) {
+            linha[1 + (pixel >>> 3)] |= (byte) (0x80 >>> (pixel & 7));
+        }
+    }
+
+    private static void comprimir(Deflater deflater, byte[] linha, int bytesLinha, OutputStream saida, Buffers buffers) throws IOException {
+        deflater.setInput(linha, 0, bytesLinha);
+        while (!deflater.needsInput()) {
+            esvaziar(deflater, saida, buffers);
+        }
+    }
+
+    private static void esvaziar(Deflater deflater, OutputStream saida, Buffers buffers) throws IOException {
+        int tamanho = deflater.deflate(buffers.comprimido);
+        if (tamanho > 0) {
+            escreverChunk(saida, TIPO_IDAT, buffers.comprimido, tamanho, buffers);
+        }
+    }
+
+    private static void escreverChunk(OutputStream saida, byte[] tipo, byte[] dados, int tamanho, Buffers buffers) throws IOException {
+        byte[] inteiro = buffers.inteiro;
+        escreverInt(inteiro, 0, tamanho);
+        saida.write(inteiro, 0, 4);
+        saida.write(tipo);
+        saida.write(dados, 0, tamanho);
+
+        CRC32 crc = buffers.crc;
+        crc.reset();
+        crc.update(tipo);
+        crc.update(dados, 0, tamanho);
+        escreverInt(inteiro, 0, (int) crc.getValue());
+        saida.write(inteiro, 0, 4);
+    }
+
+    private static void escreverInt(byte[] destino, int posicao, int valor) {
+        destino[posicao] = (byte) (valor >>> 24);
+        destino[posicao + 1] = (byte) (valor >>> 16);
+        destino[posicao + 2] = (byte) (valor >>> 8);
+        destino[posicao + 3] = (byte) valor;
+    }
+
+    /**
+     * Buffers de uma renderização, usados por uma única thread entre a retirada e a devolução ao pool.
+     */
+    private static final class Buffers {
+        private final Deflater deflater = new Deflater();
+        private final CRC32 crc = new CRC32();
+        private final byte[] cabecalho = new byte[TAMANHO_IHDR];
+        private final byte[] inteiro = new byte[4];
+        private final byte[] comprimido = new byte[8192];
+        private byte[] linha = new byte[64];
+        private byte[] repeticao = new byte[64];
+
+        private byte[] linha(int tamanho) {
+            if (linha.length < tamanho) {
+                linha = new byte[tamanho];
+            }
+            return linha;
+        }
+
+        /**
+         * Linha que repete a anterior: filtro "acima" com todas as diferenças zeradas.
+         */
+        private byte[] repeticao(int tamanho) {
+            if (repeticao.length < tamanho) {
+                repeticao = new byte[tamanho];
+            }
+            Arrays.fill(repeticao, 0, tamanho, (byte) 0);
+            repeticao[0] = FILTRO_ACIMA;
+            return repeticao;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.CadastroQrCodeRespostaDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroCampoDTO;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado do cadastro de um QR Code: a resposta do cadastro gravado ou os erros de todos os campos inválidos.
+ * Os erros são devolvidos em vez de lançados, já que um cadastro inválido é um resultado esperado da API.
+ */
+@Value
+public class ResultadoCadastro {
+    CadastroQrCodeRespostaDTO resposta;
+    List<ErroCampoDTO> erros;
+
+    public static ResultadoCadastro cadastrado(CadastroQrCodeRespostaDTO resposta) {
+        return new ResultadoCadastro(resposta, Collections.emptyList());
+    }
+
+    public static ResultadoCadastro invalido(List<ErroCampoDTO> erros) {
+        return new ResultadoCadastro(null, Collections.unmodifiableList(erros));
+    }
+
+    public boolean isValido() {
+        return erros.isEmpty();
+    }
+}
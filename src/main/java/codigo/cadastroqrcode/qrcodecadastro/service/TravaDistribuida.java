@@ -0,0 +1,164 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.repository.TravaExecucaoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trava com prazo gravada no banco, para que uma tarefa agendada rode em um único nó por vez.
+ * A linha da trava é criada por um INSERT simples, que falha no nó que perder a corrida sem alterar a linha criada
+ * pelo outro, e a trava é adquirida por um UPDATE condicional: só um nó consegue alterar a linha enquanto ela
+ * estiver vencida. Enquanto a trava estiver adquirida, o prazo é renovado a cada terço da duração, então uma
+ * execução mais longa que o prazo continua exclusiva; um nó que caia no meio da execução para de renovar e libera
+ * a trava quando o prazo termina.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@Slf4j
+public class TravaDistribuida {
+
+    private final TravaExecucaoRepository travaExecucaoRepository;
+    private final LimitadorJdbc limitadorJdbc;
+    private final TransactionTemplate transacao;
+    private final String dono;
+    private final ScheduledExecutorService renovador;
+    private final Map<String, Renovacao> renovacoes = new ConcurrentHashMap<>();
+
+    public TravaDistribuida(TravaExecucaoRepository travaExecucaoRepository, LimitadorJdbc limitadorJdbc,
+                            PlatformTransactionManager transactionManager) {
+        this.travaExecucaoRepository = travaExecucaoRepository;
+        this.limitadorJdbc = limitadorJdbc;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.dono = nomeHost() + "-" + UUID.randomUUID();
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("trava-renovacao-");
+        threads.setDaemon(true);
+        this.renovador = Executors.newSingleThreadScheduledExecutor(threads);
+    }
+
+    /**
+     * Tenta adquirir a trava pelo prazo informado. Se adquirida, o prazo é renovado até {@link #liberar(String)}.
+     *
+     * @param nome O nome da trava.
+     * @param duracao O prazo da trava, renovado a cada terço.
+     * @return true se a trava foi adquirida por este nó.
+     */
+    public boolean adquirir(String nome, Duration duracao) {
+        criarSeAusente(nome);
+        Instant agora = Instant.now();
+        Integer alteradas = limitadorJdbc.executar(
+                () -> transacao.execute(status -> travaExecucaoRepository.adquirir(nome, dono, agora, agora.plus(duracao))));
+        if (alteradas == null || alteradas != 1) {
+            return false;
+        }
+        long intervalo = Math.max(1, duracao.toMillis() / 3);
+        Renovacao renovacao = new Renovacao(nome, duracao);
+        renovacao.agendamento = renovador.scheduleAtFixedRate(renovacao, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        Renovacao anterior = renovacoes.put(nome, renovacao);
+        if (anterior != null) {
+            anterior.agendamento.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Indica se a trava adquirida por este nó continua sendo renovada. Uma renovação recusada significa que o prazo
+     * terminou e outro nó pode ter adquirido a trava, então a tarefa deve parar no próximo ponto seguro.
+     *
+     * @param nome O nome da trava.
+     * @return true se a trava continua com este nó.
+     */
+    public boolean isMantida(String nome) {
+        Renovacao renovacao = renovacoes.get(nome);
+        return renovacao != null && !renovacao.perdida;
+    }
+
+    /**
+     * Libera uma trava adquirida por este nó e encerra sua renovação.
+     *
+     * @param nome O nome da trava.
+     */
+    public void liberar(String nome) {
+        Renovacao renovacao = renovacoes.remove(nome);
+        if (renovacao != null) {
+            renovacao.agendamento.cancel(false);
+        }
+        limitadorJdbc.executar(() -> transacao.execute(status -> travaExecucaoRepository.liberar(nome, dono, Instant.now())));
+    }
+
+    /**
+     * Encerra as renovações; as travas ainda adquiridas vencem no fim do prazo.
+     */
+    @PreDestroy
+    public void encerrar() {
+        renovador.shutdownNow();
+    }
+
+    private void criarSeAusente(String nome) {
+        if (limitadorJdbc.executar(() -> travaExecucaoRepository.existsById(nome))) {
+            return;
+        }
+        try {
+            limitadorJdbc.executar(() -> transacao.execute(status -> travaExecucaoRepository.criar(nome, Instant.EPOCH)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Trava {} criada por outro nó", nome);
+        }
+    }
+
+    /**
+     * Renovação periódica do prazo de uma trava adquirida. Se o prazo já terminou quando a renovação chega ao banco,
+     * a trava é dada como perdida e a renovação para.
+     */
+    private final class Renovacao implements Runnable {
+
+        private final String nome;
+        private final Duration duracao;
+        private volatile ScheduledFuture<?> agendamento;
+        private volatile boolean perdida;
+
+        private Renovacao(String nome, Duration duracao) {
+            this.nome = nome;
+            this.duracao = duracao;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Instant agora = Instant.now();
+                Integer alteradas = limitadorJdbc.executar(
+                        () -> transacao.execute(status -> travaExecucaoRepository.renovar(nome, dono, agora, agora.plus(duracao))));
+                if (alteradas == null || alteradas != 1) {
+                    log.warn("Trava {} perdida: o prazo terminou antes da renovação", nome);
+                    perdida = true;
+                    agendamento.cancel(false);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Erro ao renovar a trava {}", nome, e);
+            }
+        }
+    }
+
+    private static String nomeHost() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "desconhecido";
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroCampoDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validação dos campos de um cadastro de QR Code sem exceções: todos os campos são conferidos e os erros voltam
+ * juntos, um por campo. O valor é lido uma única vez para centavos por um leitor de dígitos que não aloca e não
+ * lança exceção; um cadastro válido passa pela validação sem nenhuma alocação.
+ * Author: Davi Oliveira Santos
+ */
+public final class ValidadorQrCode {
+
+    public static final String CAMPO_ID = "id";
+    public static final String CAMPO_VALOR = "valor";
+    public static final String CAMPO_DATA_ATUALIZACAO = "dataAtualizacao";
+    public static final String CAMPO_DATA_EXPIRACAO = "dataExpiracao";
+    public static final String CAMPO_DATA_VENCIMENTO = "dataVencimento";
+
+    /**
+     * Maior valor aceito, 9.999.999.999,99: o campo 54 do BR Code comporta no máximo 13 caracteres.
+     */
+    public static final long CENTAVOS_MAXIMO = 999_999_999_999L;
+
+    static final long VALOR_INVALIDO = -1;
+    static final long VALOR_CASAS_DECIMAIS = -2;
+    static final long VALOR_EXCEDIDO = -3;
+
+    private static final String MENSAGEM_VENCIMENTO = "A Data de Vencimento é obrigatória e deve ser maior que a data atual";
+    private static final int DIGITOS_INTEIROS_MAXIMO = 10;
+    private static final int CASAS_DECIMAIS = 2;
+
+    private ValidadorQrCode() {
+    }
+
+    /**
+     * Lê o valor monetário em centavos. Aceita dígitos com ponto decimal opcional e até duas casas decimais
+     * significativas, com espaços nas pontas; não aceita sinal, expoente, separador de milhar nem NaN/Infinity.
+     *
+     * @param valor O valor informado.
+     * @return O valor em centavos (zero ou positivo), ou um código negativo de erro.
+     */
+    public static long lerCentavos(String valor) {
+        if (valor == null) {
+            return VALOR_INVALIDO;
+        }
+        int inicio = 0;
+        int fim = valor.length();
+        while (inicio < fim && valor.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && valor.charAt(fim - 1) <= ' ') {
+            fim--;
+        }
+        long inteiro = 0;
+        int digitosInteiros = 0;
+        int i = inicio;
+        for (; i < fim; i++) {
+            char c = valor.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (inteiro == 0 && c == '0') {
+                digitosInteiros = Math.max(digitosInteiros, 1);
+                continue;
+            }
+            if (++digitosInteiros > DIGITOS_INTEIROS_MAXIMO) {
+                return VALOR_EXCEDIDO;
+            }
+            inteiro = inteiro * 10 + (c - '0');
+        }
+        long fracao = 0;
+        int digitosFracao = 0;
+        if (i < fim && valor.charAt(i) == '.') {
+            for (i++; i < fim; i++) {
+                char c = valor.charAt(i);
+                if (c < '0' || c > '9') {
+                    return VALOR_INVALIDO;
+                }
+                if (digitosFracao < CASAS_DECIMAIS) {
+                    fracao = fracao * 10 + (c - '0');
+                } else if (c != '0') {
+                    return VALOR_CASAS_DECIMAIS;
+                }
+                digitosFracao++;
+            }
+        }
+        if (i < fim || digitosInteiros + digitosFracao == 0) {
+            return VALOR_INVALIDO;
+        }
+        for (int casa = Math.min(digitosFracao, CASAS_DECIMAIS); casa < CASAS_DECIMAIS; casa++) {
+            fracao *= 10;
+        }
+        long centavos = inteiro * 100 + fracao;
+        return centavos > CENTAVOS_MAXIMO ? VALOR_EXCEDIDO : centavos;
+    }
+
+    /**
+     * Valida os campos de um cadastro. A data de vencimento é conferida quando informada ou quando obrigatória.
+     *
+     * @param id O ID do QR Code.
+     * @param centavos O valor já lido por {@link #lerCentavos(String)}.
+     * @param dataAtualizacao A data de atualização.
+     * @param dataExpiracao A data de expiração.
+     * @param dataVencimento A data de vencimento, ou null.
+     * @param vencimentoObrigatorio Se a data de vencimento é obrigatória.
+     * @return Os erros de campo, ou uma lista vazia compartilhada se o cadastro for válido.
+     */
+    public static List<ErroCampoDTO> validar(Long id, long centavos, LocalDate dataAtualizacao, LocalDate dataExpiracao,
+                                             LocalDate dataVencimento, boolean vencimentoObrigatorio) {
+        List<ErroCampoDTO> erros = List.of();
+        if (id == null) {
+            erros = adicionar(erros, CAMPO_ID, "O ID não pode ser nulo");
+        }
+        if (centavos <= 0) {
+            erros = adicionar(erros, CAMPO_VALOR, mensagemValor(centavos));
+        }
+        if (dataAtualizacao == null) {
+            erros = adicionar(erros, CAMPO_DATA_ATUALIZACAO, "Data de Atualização é obrigatória");
+        }
+        if (dataExpiracao == null) {
+            erros = adicionar(erros, CAMPO_DATA_EXPIRACAO, "Data de Expiração é obrigatória");
+        }
+        if (vencimentoInvalido(dataVencimento, vencimentoObrigatorio)) {
+            erros = adicionar(erros, CAMPO_DATA_VENCIMENTO, MENSAGEM_VENCIMENTO);
+        }
+        return erros;
+    }
+
+    /**
+     * Valida somente a data de vencimento.
+     *
+     * @param dataVencimento A data de vencimento, ou null.
+     * @param obrigatorio Se a data de vencimento é obrigatória.
+     * @return O erro do campo, ou uma lista vazia compartilhada se a data for válida.
+     */
+    public static List<ErroCampoDTO> validarVencimento(LocalDate dataVencimento, boolean obrigatorio) {
+        return vencimentoInvalido(dataVencimento, obrigatorio) ? adicionar(List.of(), CAMPO_DATA_VENCIMENTO, MENSAGEM_VENCIMENTO) : List.of();
+    }
+
+    /**
+     * Formata centavos como o valor decimal com duas casas usado nos payloads, por exemplo 1599.90.
+     *
+     * @param centavos O valor em centavos.
+     * @return O valor com duas casas decimais.
+     */
+    public static String formatarCentavos(long centavos) {
+        long fracao = centavos % 100;
+        return (centavos / 100) + (fracao < 10 ? ".0" : ".") + fracao;
+    }
+
+    /**
+     * Junta as mensagens dos erros de campo em um único texto, usado nos resultados de lote.
+     *
+     * @param erros Os erros de campo.
+     * @return As mensagens separadas por "; ".
+     */
+    public static String mensagem(List<ErroCampoDTO> erros) {
+        StringBuilder mensagem = new StringBuilder();
+        for (ErroCampoDTO erro : erros) {
+            if (mensagem.length() > 0) {
+                mensagem.append("; ");
+            }
+            mensagem.append(erro.getMensagem());
+        }
+        return mensagem.toString();
+    }
+
+    private static boolean vencimentoInvalido(LocalDate dataVencimento, boolean obrigatorio) {
+        if (dataVencimento == null) {
+            return obrigatorio;
+        }
+        return dataVencimento.isBefore(LocalDate.now());
+    }
+
+    private static String mensagemValor(long centavos) {
+        if (centavos == VALOR_CASAS_DECIMAIS) {
+            return "O valor deve ter no máximo 2 casas decimais";
+        }
+        if (centavos == VALOR_EXCEDIDO) {
+            return "O valor deve ser no máximo 9999999999.99";
+        }
+        return "Por favor, insira um valor válido";
+    }
+
+    private static List<ErroCampoDTO> adicionar(List<ErroCampoDTO> erros, String campo, String mensagem) {
+        List<ErroCampoDTO> lista = erros.isEmpty() ? new ArrayList<>(4) : erros;
+        lista.add(new ErroCampoDTO(campo, mensagem));
+        return lista;
+    }
+}
@@ -0,0 +1,175 @@
+package codigo.cadastroqrcode.qrcodecadastro.service;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoVerificacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.SituacaoVerificacao;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Verifica se um QR Code lido ainda representa uma cobrança válida: o ID é extraído do conteúdo, em qualquer formato
+ * de payload, e conferido contra o status e a data de expiração gravados. Antes de um conteúdo ser reportado como
+ * válido, o cadastro é codificado de novo no formato lido e comparado com ele, para que um QR Code alterado que
+ * mantém um ID existente não seja aceito. A situação de cada ID fica em um cache de
+ * leitura com TTL curto na frente do findById, e buscas simultâneas pelo mesmo ID fazem uma única consulta ao banco.
+ * A expiração por data é calculada a cada verificação, então o cache não atrasa um QR Code que vence; somente
+ * mudanças de status gravadas levam até o TTL para aparecer.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+public class VerificacaoQrCode {
+
+    private static final Map<DecodeHintType, Object> HINTS_IMAGEM_GERADA = Map.of(DecodeHintType.PURE_BARCODE, Boolean.TRUE);
+    private static final Map<DecodeHintType, Object> HINTS_FOTO = Map.of(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+
+    private final QrCodeRepository qrCodeRepository;
+    private final LimitadorJdbc limitadorJdbc;
+    private final CodificadorPayload codificadorPayload;
+    private final Cache<Long, Optional<Situacao>> situacoes;
+
+    public VerificacaoQrCode(QrCodeRepository qrCodeRepository, LimitadorJdbc limitadorJdbc, CodificadorPayload codificadorPayload,
+                             MetricasQrCode metricas, QrCodeProperties propriedades) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.limitadorJdbc = limitadorJdbc;
+        this.codificadorPayload = codificadorPayload;
+        QrCodeProperties.Verificacao verificacao = propriedades.getVerificacao();
+        this.situacoes = Caffeine.newBuilder()
+                .expireAfterWrite(verificacao.getTtl())
+                .maximumSize(Math.max(0, verificacao.getCapacidade()))
+                .recordStats()
+                .build();
+        metricas.monitorarCache("qrcode.verificacao", situacoes);
+    }
+
+    /**
+     * Verifica o conteúdo lido de um QR Code. Um cadastro que seria válido só é reportado como tal se o conteúdo
+     * lido for igual ao cadastro codificado no mesmo formato.
+     *
+     * @param conteudo O texto lido do QR Code.
+     * @return A situação do QR Code.
+     * @throws IllegalArgumentException Se o conteúdo não trouxer um ID reconhecível.
+     */
+    public ResultadoVerificacaoDTO verificar(String conteudo) {
+        return verificar(CodificadorPayload.extrairId(conteudo), conteudo);
+    }
+
+    /**
+     * Lê o QR Code de uma imagem e verifica o seu conteúdo. Imagens geradas pela API são lidas pelo caminho rápido
+     * de código puro; fotos passam pela busca completa do ZXing.
+     *
+     * @param imagem Os bytes da imagem (png, jpeg, gif ou bmp).
+     * @return A situação do QR Code.
+     * @throws IllegalArgumentException Se a imagem for inválida ou não contiver um QR Code reconhecível.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    public ResultadoVerificacaoDTO verificarImagem(InputStream imagem) throws IOException {
+        return verificar(lerImagem(imagem));
+    }
+
+    /**
+     * Verifica a situação de um QR Code cadastrado pelo ID, sem conferir conteúdo lido.
+     *
+     * @param id O ID do QR Code.
+     * @return A situação do QR Code.
+     */
+    public ResultadoVerificacaoDTO verificar(long id) {
+        return verificar(id, null);
+    }
+
+    private ResultadoVerificacaoDTO verificar(long id, String conteudo) {
+        Optional<Situacao> situacao = situacoes.get(id, this::buscar);
+        if (situacao.isEmpty()) {
+            return new ResultadoVerificacaoDTO(id, false, SituacaoVerificacao.NAO_ENCONTRADO, null, null, null, null);
+        }
+        Situacao encontrada = situacao.get();
+        SituacaoVerificacao resultado;
+        if (!ExpiracaoQrCode.STATUS_ABERTO.equals(encontrada.status())) {
+            resultado = SituacaoVerificacao.STATUS_INVALIDO;
+        } else if (encontrada.dataExpiracao() != null && encontrada.dataExpiracao().isBefore(LocalDate.now())) {
+            resultado = SituacaoVerificacao.EXPIRADO;
+        } else if (conteudo != null && !confere(encontrada.registro(id), conteudo)) {
+            resultado = SituacaoVerificacao.CONTEUDO_DIVERGENTE;
+        } else {
+            resultado = SituacaoVerificacao.VALIDO;
+        }
+        return new ResultadoVerificacaoDTO(id, resultado == SituacaoVerificacao.VALIDO, resultado, encontrada.status(),
+                encontrada.valor(), encontrada.dataExpiracao(), encontrada.dataVencimento());
+    }
+
+    /**
+     * Decodifica o texto do QR Code contido na imagem.
+     */
+    static String lerImagem(InputStream entrada) throws IOException {
+        BufferedImage imagem = ImageIO.read(entrada);
+        if (imagem == null) {
+            throw new IllegalArgumentException("Imagem inválida ou em formato não suportado");
+        }
+        LuminanceSource fonte = new BufferedImageLuminanceSource(imagem);
+        QRCodeReader leitor = new QRCodeReader();
+        try {
+            return leitor.decode(new BinaryBitmap(new HybridBinarizer(fonte)), HINTS_IMAGEM_GERADA).getText();
+        } catch (ReaderException e) {
+            try {
+                return leitor.decode(new BinaryBitmap(new HybridBinarizer(fonte)), HINTS_FOTO).getText();
+            } catch (ReaderException naoEncontrado) {
+                throw new IllegalArgumentException("Nenhum QR Code legível encontrado na imagem");
+            }
+        }
+    }
+
+    /**
+     * Compara o conteúdo lido com o cadastro codificado no formato do conteúdo. O status só muda de OPEN pela
+     * expiração, que já invalida o QR Code antes da comparação, então um cadastro aberto codifica exatamente o
+     * conteúdo gravado na imagem.
+     */
+    private boolean confere(QrCode registro, String conteudo) {
+        return codificadorPayload.codificar(registro, CodificadorPayload.formato(conteudo)).equals(conteudo);
+    }
+
+    private Optional<Situacao> buscar(Long id) {
+        return limitadorJdbc.executar(() -> qrCodeRepository.findById(id)).map(Situacao::new);
+    }
+
+    /**
+     * Campos do QR Code necessários para a verificação e para codificar o conteúdo de novo, guardados no cache
+     * sem a entidade.
+     */
+    private record Situacao(String status, String valor, Long valorCentavos, String descricao, LocalDate dataAtualizacao,
+                            LocalDate dataExpiracao, LocalDate dataVencimento) {
+        private Situacao(QrCode qrCode) {
+            this(qrCode.getStatus(), qrCode.getValor(), qrCode.getValorCentavos(), qrCode.getDescricao(), qrCode.getDataAtualizacao(),
+                    qrCode.getDataExpiracao(), qrCode.getDataVencimento());
+        }
+
+        private QrCode registro(long id) {
+            QrCode qrCode = new QrCode();
+            qrCode.setId(id);
+            qrCode.setValor(valor);
+            qrCode.setValorCentavos(valorCentavos);
+            qrCode.setDescricao(descricao);
+            qrCode.setStatus(status);
+            qrCode.setDataAtualizacao(dataAtualizacao);
+            qrCode.setDataExpiracao(dataExpiracao);
+            qrCode.setDataVencimento(dataVencimento);
+            return qrCode;
+        }
+    }
+}
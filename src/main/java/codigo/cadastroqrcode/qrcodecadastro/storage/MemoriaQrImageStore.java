@@ -0,0 +1,44 @@
+package codigo.cadastroqrcode.qrcodecadastro.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Armazenamento das imagens de QR Code em memória, usado em testes e benchmarks.
+ * Ativado com qrcode.armazenamento.tipo=memoria.
+ */
+@Component
+@ConditionalOnProperty(prefix = "qrcode.armazenamento", name = "tipo", havingValue = "memoria")
+public class MemoriaQrImageStore implements QrImageStore {
+
+    private final Map<String, byte[]> imagens = new ConcurrentHashMap<>();
+
+    @Override
+    public String salvar(String chave, EscritorImagem escritor) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        escritor.escrever(saida);
+        imagens.put(chave, saida.toByteArray());
+        return "memoria:" + chave;
+    }
+
+    @Override
+    public Optional<byte[]> ler(String chave) {
+        return Optional.ofNullable(imagens.get(chave));
+    }
+
+    @Override
+    public boolean remover(String chave) {
+        return imagens.remove(chave) != null;
+    }
+
+    @Override
+    public long bytesArmazenados() {
+        return imagens.values().stream().mapToLong(imagem -> imagem.length).sum();
+    }
+}
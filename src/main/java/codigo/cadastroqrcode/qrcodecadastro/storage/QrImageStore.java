@@ -0,0 +1,56 @@
+package codigo.cadastroqrcode.qrcodecadastro.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Armazenamento das imagens de QR Code geradas, identificadas por uma chave única.
+ * Author: Davi Oliveira Santos
+ */
+public interface QrImageStore {
+
+    /**
+     * Grava uma imagem, substituindo a existente com a mesma chave. A imagem só fica visível
+     * para leitura depois de completamente escrita.
+     *
+     * @param chave A chave da imagem.
+     * @param escritor Escreve os bytes da imagem na saída fornecida.
+     * @return A localização da imagem gravada.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    String salvar(String chave, EscritorImagem escritor) throws IOException;
+
+    /**
+     * Lê uma imagem gravada.
+     *
+     * @param chave A chave da imagem.
+     * @return Os bytes da imagem, se existir.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    Optional<byte[]> ler(String chave) throws IOException;
+
+    /**
+     * Remove uma imagem gravada.
+     *
+     * @param chave A chave da imagem.
+     * @return true se a imagem existia.
+     * @throws IOException Se ocorrer um erro de I/O.
+     */
+    boolean remover(String chave) throws IOException;
+
+    /**
+     * Total de bytes das imagens gravadas, usado como métrica de ocupação do armazenamento.
+     *
+     * @return O total de bytes armazenados, ou -1 enquanto ainda não é conhecido.
+     */
+    long bytesArmazenados();
+
+    /**
+     * Escreve os bytes de uma imagem.
+     */
+    @FunctionalInterface
+    interface EscritorImagem {
+        void escrever(OutputStream saida) throws IOException;
+    }
+}
@@ -0,0 +1,186 @@
+package codigo.cadastroqrcode.qrcodecadastro.storage;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento das imagens de QR Code no sistema de arquivos local.
+ * As imagens são distribuídas em dois níveis de subdiretórios derivados do hash da chave, para que
+ * nenhum diretório acumule milhões de arquivos, e são gravadas em um arquivo temporário renomeado
+ * atomicamente para o destino. O total de bytes das imagens já existentes é somado em segundo plano depois da
+ * inicialização, para não atrasar a prontidão da aplicação com milhões de arquivos; até lá o total é desconhecido.
+ * As gravações e remoções são contadas desde o início, então o total fica correto assim que a soma termina, exceto
+ * por imagens gravadas no mesmo diretório durante a soma, que podem ser contadas duas vezes.
+ * Author: Davi Oliveira Santos
+ */
+@Component
+@ConditionalOnProperty(prefix = "qrcode.armazenamento", name = "tipo", havingValue = "sistema-arquivos", matchIfMissing = true)
+@Slf4j
+public class SistemaArquivosQrImageStore implements QrImageStore {
+
+    private final Path diretorioBase;
+    private final Set<Path> diretoriosCriados = ConcurrentHashMap.newKeySet();
+    private final AtomicLong bytesAlterados = new AtomicLong();
+    private volatile long bytesIniciais = -1;
+
+    public SistemaArquivosQrImageStore(QrCodeProperties propriedades) {
+        this.diretorioBase = Paths.get(propriedades.getArmazenamento().getDiretorio()).toAbsolutePath().normalize();
+        Thread soma = new Thread(this::somarIniciais, "qrcode-armazenamento-soma");
+        soma.setDaemon(true);
+        soma.start();
+        log.info("Imagens de QR Code armazenadas em {}", diretorioBase);
+    }
+
+    @Override
+    public String salvar(String chave, EscritorImagem escritor) throws IOException {
+        Path destino = resolver(chave);
+        Path diretorio = destino.getParent();
+        if (diretoriosCriados.add(diretorio)) {
+            Files.createDirectories(diretorio);
+        }
+
+        Path temporario = Files.createTempFile(diretorio, ".", ".tmp");
+        try {
+            try (OutputStream saida = Files.newOutputStream(temporario)) {
+                escritor.escrever(saida);
+            }
+            long tamanho = Files.size(temporario);
+            long anterior = tamanhoSeExistir(destino);
+            mover(temporario, destino);
+            bytesAlterados.addAndGet(tamanho - anterior);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        return destino.toString();
+    }
+
+    @Override
+    public Optional<byte[]> ler(String chave) throws IOException {
+        try {
+            return Optional.of(Files.readAllBytes(resolver(chave)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean remover(String chave) throws IOException {
+        Path caminho = resolver(chave);
+        long tamanho = tamanhoSeExistir(caminho);
+        boolean removida = Files.deleteIfExists(caminho);
+        if (removida) {
+            bytesAlterados.addAndGet(-tamanho);
+        }
+        return removida;
+    }
+
+    @Override
+    public long bytesArmazenados() {
+        long iniciais = bytesIniciais;
+        return iniciais < 0 ? -1 : iniciais + bytesAlterados.get();
+    }
+
+    /**
+     * Indica se a soma das imagens existentes na inicialização já terminou.
+     *
+     * @return true se o total de bytes já é conhecido.
+     */
+    public boolean isTotalConhecido() {
+        return bytesIniciais >= 0;
+    }
+
+    private void somarIniciais() {
+        long inicio = System.nanoTime();
+        bytesIniciais = somarImagens(diretorioBase);
+        log.info("Imagens existentes em {}: {} bytes, somados em {} ms", diretorioBase, bytesIniciais,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Resolve o caminho da imagem no formato base/xx/yy/chave, com xx e yy derivados do hash da chave.
+     *
+     * @param chave A chave da imagem.
+     * @return O caminho da imagem.
+     */
+    Path resolver(String chave) {
+        if (chave.isEmpty() || chave.contains("/") || chave.contains("\\") || chave.startsWith(".")) {
+            throw new IllegalArgumentException("Chave de imagem inválida: " + chave);
+        }
+        int hash = espalhar(chave.hashCode());
+        return diretorioBase
+                .resolve(String.format("%02x", (hash >>> 24) & 0xff))
+                .resolve(String.format("%02x", (hash >>> 16) & 0xff))
+                .resolve(chave);
+    }
+
+    /**
+     * Espalha os bits do hash da chave, já que chaves sequenciais têm hashCode próximos.
+     *
+     * @param hash O hashCode da chave.
+     * @return O hash com os bits espalhados.
+     */
+    private static int espalhar(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static long tamanhoSeExistir(Path caminho) throws IOException {
+        try {
+            return Files.size(caminho);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Soma o tamanho das imagens já gravadas, ignorando arquivos temporários.
+     *
+     * @param diretorio O diretório base das imagens.
+     * @return O total de bytes das imagens.
+     */
+    private static long somarImagens(Path diretorio) {
+        if (!Files.isDirectory(diretorio)) {
+            return 0;
+        }
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            return arquivos.filter(Files::isRegularFile)
+                    .filter(arquivo -> !arquivo.getFileName().toString().startsWith("."))
+                    .mapToLong(arquivo -> arquivo.toFile().length())
+                    .sum();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Não foi possível calcular o tamanho das imagens em {}", diretorio, e);
+            return 0;
+        }
+    }
+
+    private static void mover(Path origem, Path destino) throws IOException {
+        try {
+            Files.move(origem, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package db.migration;
+
+import codigo.cadastroqrcode.qrcodecadastro.service.ValidadorQrCode;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adiciona o valor em centavos, lido uma única vez na validação do cadastro e usado pelos payloads binário e BR Code.
+ * Os cadastros anteriores são preenchidos em Java, com o mesmo leitor da validação, para que a migração não dependa
+ * de funções de expressão regular de um banco específico; valores fora do formato ficam nulos e são lidos do texto.
+ * Author: Davi Oliveira Santos
+ */
+public class V2__valor_centavos extends BaseJavaMigration {
+
+    private static final int TAMANHO_BLOCO = 500;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection conexao = context.getConnection();
+        try (Statement alteracao = conexao.createStatement()) {
+            alteracao.execute("alter table qrcode add column valor_centavos bigint");
+        }
+
+        try (Statement consulta = conexao.createStatement();
+             ResultSet cadastros = consulta.executeQuery("select id, valor from qrcode");
+             PreparedStatement atualizacao = conexao.prepareStatement("update qrcode set valor_centavos = ? where id = ?")) {
+            int pendentes = 0;
+            while (cadastros.next()) {
+                long centavos = ValidadorQrCode.lerCentavos(cadastros.getString(2));
+                if (centavos < 0) {
+                    continue;
+                }
+                atualizacao.setLong(1, centavos);
+                atualizacao.setLong(2, cadastros.getLong(1));
+                atualizacao.addBatch();
+                if (++pendentes == TAMANHO_BLOCO) {
+                    atualizacao.executeBatch();
+                    pendentes = 0;
+                }
+            }
+            if (pendentes > 0) {
+                atualizacao.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- Esquema inicial do cadastro de QR Code, equivalente ao mapeamento das entidades QrCode e TravaExecucao.
+
+create sequence qrcode_seq start with 1 increment by 50;
+
+create table qrcode (
+    id bigint not null,
+    valor varchar(255) not null,
+    descricao varchar(255),
+    status varchar(255),
+    data_atualizacao date not null,
+    data_expiracao date not null,
+    -- Opcional: o cadastro imediato não informa vencimento.
+    data_vencimento date,
+    chave_idempotencia varchar(128),
+    constraint pk_qrcode primary key (id),
+    constraint uk_qrcode_chave_idempotencia unique (chave_idempotencia)
+);
+
+-- Expiração agendada: status = 'OPEN' and data_expiracao < :data order by id.
+create index idx_qrcode_status_expiracao on qrcode (status, data_expiracao, id);
+
+-- Consulta por intervalo de vencimento, paginada por ID.
+create index idx_qrcode_vencimento on qrcode (data_vencimento, id);
+
+create table trava_execucao (
+    nome varchar(64) not null,
+    bloqueada_ate timestamp(6) with time zone,
+    dono varchar(128),
+    constraint pk_trava_execucao primary key (nome)
+);
@@ -0,0 +1,3 @@
+-- Hash do corpo da requisição gravado com a chave de idempotência; cadastros anteriores ficam nulos e não são conferidos.
+
+alter table qrcode add column hash_requisicao varchar(64);
@@ -0,0 +1,41 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.service.CacheImagemQrCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheImagemQrCodeTest {
+
+    @Test
+    void testRemoveMenosUsadaAoExcederCapacidade() {
+        CacheImagemQrCode cache = criarCache(100);
+
+        cache.armazenar("a", new byte[40]);
+        cache.armazenar("b", new byte[40]);
+        assertNotNull(cache.obter("a"), "Imagem 'a' deve estar no cache");
+        cache.armazenar("c", new byte[40]);
+
+        assertNotNull(cache.obter("a"), "Imagem usada recentemente deve permanecer");
+        assertNull(cache.obter("b"), "Imagem menos usada deve ser removida");
+        assertNotNull(cache.obter("c"), "Imagem nova deve estar no cache");
+        assertEquals(80, cache.bytesArmazenados(), "Total de bytes deve considerar apenas as imagens em cache");
+    }
+
+    @Test
+    void testIgnoraImagemMaiorQueCapacidade() {
+        CacheImagemQrCode cache = criarCache(100);
+
+        cache.armazenar("a", new byte[101]);
+
+        assertNull(cache.obter("a"), "Imagem maior que a capacidade não deve ser armazenada");
+        assertEquals(0, cache.bytesArmazenados(), "Cache deve continuar vazio");
+    }
+
+    private CacheImagemQrCode criarCache(long capacidadeBytes) {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getCacheImagem().setCapacidadeBytes(capacidadeBytes);
+        return new CacheImagemQrCode(propriedades);
+    }
+}
@@ -0,0 +1,533 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.service.CodificadorPayload;
+import codigo.cadastroqrcode.qrcodecadastro.service.FilaRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeService;
+import codigo.cadastroqrcode.qrcodecadastro.storage.QrImageStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de carga dos endpoints REST: sobe a aplicação com H2 em memória e imagens em sistema de arquivos, dispara
+ * uma mistura configurável de requisições simultâneas e compara percentis de latência, vazão e taxa de erros com a
+ * linha de base em src/test/resources/carga. Fica fora do build padrão e roda com mvn -Pcarga test.
+ * <p>
+ * As requisições saem em uma taxa fixa, abaixo da saturação da fila de renderização, e a latência é medida a partir
+ * do instante agendado de cada uma, para que um atraso do servidor não reduza a carga medida. Uma execução com mais
+ * de carga.rejeicoes-maxima de respostas 503 está saturada e falha, inclusive ao gerar a linha de base.
+ * <p>
+ * Propriedades de sistema: carga.requisicoes, carga.concorrencia, carga.taxa (requisições por segundo),
+ * carga.aquecimento, carga.mistura (operacao=peso separados por vírgula), carga.tolerancia, carga.rejeicoes-maxima
+ * e carga.atualizar-linha-base.
+ */
+@Slf4j
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CargaEndpointsTest {
+
+    private static final String LINHA_BASE = "carga/linha-base.properties";
+    private static final Path ARQUIVO_LINHA_BASE = Path.of("src", "test", "resources", LINHA_BASE);
+    private static final Path ARQUIVO_RESULTADO = Path.of("target", "carga", "resultado.properties");
+    private static final long LATENCIA_MAXIMA_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int AMOSTRA_IMAGENS = 50;
+    private static final double FOLGA_ERROS = 0.001;
+    private static final double FOLGA_REJEICOES = 0.005;
+    private static final double FOLGA_LATENCIA_MS = 5;
+    private static final int AMOSTRAS_ALEM_DO_PERCENTIL = 10;
+    private static final long SEMENTE_MISTURA = 42;
+    private static final Map<DecodeHintType, Object> IMAGEM_GERADA = Map.of(DecodeHintType.PURE_BARCODE, Boolean.TRUE);
+
+    @TempDir
+    static Path diretorioImagens;
+
+    @DynamicPropertySource
+    static void configurar(DynamicPropertyRegistry registro) {
+        registro.add("qrcode.armazenamento.tipo", () -> "sistema-arquivos");
+        registro.add("qrcode.armazenamento.diretorio", () -> diretorioImagens.toString());
+        registro.add("qrcode.expiracao.cron", () -> "-");
+    }
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private QrCodeRepository qrCodeRepository;
+
+    @Autowired
+    private QrImageStore qrImageStore;
+
+    @Autowired
+    private FilaRenderizacao filaRenderizacao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private final AtomicLong proximoId = new AtomicLong(1);
+
+    private final Set<Long> cadastrados = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Endpoints exercitados pela carga.
+     */
+    enum Operacao {
+        CADASTRO_IMEDIATO("cadastroQrCode"),
+        CADASTRO_VENCIMENTO("cadastroQrCodeVencimento"),
+        VERIFICACAO("verificacao"),
+        CONSULTA("qrcodes");
+
+        private final String nome;
+
+        Operacao(String nome) {
+            this.nome = nome;
+        }
+
+        static Operacao porNome(String nome) {
+            for (Operacao operacao : values()) {
+                if (operacao.nome.equals(nome)) {
+                    return operacao;
+                }
+            }
+            throw new IllegalArgumentException("Operação de carga desconhecida: " + nome);
+        }
+    }
+
+    @Test
+    void testCargaDentroDaLinhaBase() throws Exception {
+        int requisicoes = Integer.getInteger("carga.requisicoes", 3000);
+        int concorrencia = Integer.getInteger("carga.concorrencia", 8);
+        double taxa = Double.parseDouble(System.getProperty("carga.taxa", "25"));
+        int aquecimento = Integer.getInteger("carga.aquecimento", 200);
+        double tolerancia = Double.parseDouble(System.getProperty("carga.tolerancia", "0.15"));
+        double rejeicoesMaxima = Double.parseDouble(System.getProperty("carga.rejeicoes-maxima", "0.01"));
+        Map<Operacao, Integer> mistura = lerMistura(System.getProperty("carga.mistura",
+                "cadastroQrCode=40,cadastroQrCodeVencimento=30,verificacao=20,qrcodes=10"));
+
+        executar(mistura, aquecimento, concorrencia, taxa);
+        Resultado resultado = executar(mistura, requisicoes, concorrencia, taxa);
+
+        Properties medido = resultado.comoPropriedades();
+        log.info("{}", resultado.relatorio(concorrencia, taxa));
+        gravar(medido, ARQUIVO_RESULTADO, "Resultado da última execução da carga");
+
+        conferirImagens();
+
+        double rejeicoes = Double.parseDouble(medido.getProperty("total.taxa.rejeicoes"));
+        assertTrue(rejeicoes <= rejeicoesMaxima, String.format(Locale.ROOT,
+                "Carga saturada: %.2f%% de rejeições, acima de %.2f%%; reduza carga.taxa ou carga.concorrencia",
+                rejeicoes * 100, rejeicoesMaxima * 100));
+        if (Boolean.getBoolean("carga.atualizar-linha-base")) {
+            gravar(medido, ARQUIVO_LINHA_BASE, "Linha de base da carga: concorrencia=" + concorrencia + ", taxa=" + taxa
+                    + ", requisicoes=" + requisicoes + ". Gerada com -Dcarga.atualizar-linha-base=true; regere ao trocar de máquina.");
+            return;
+        }
+        List<String> regressoes = comparar(medido, lerLinhaBase(), tolerancia);
+        assertTrue(regressoes.isEmpty(), "Regressões em relação à linha de base:\n" + String.join("\n", regressoes));
+    }
+
+    /**
+     * Dispara as requisições em concorrencia threads, uma a cada 1/taxa segundos, percorrendo a mistura embaralhada
+     * com semente fixa, para que cada execução tenha a mesma quantidade de requisições de cada operação. A pressão no pool de conexões e a profundidade da fila de renderização são amostradas
+     * durante toda a execução.
+     */
+    private Resultado executar(Map<Operacao, Integer> mistura, int requisicoes, int concorrencia, double taxa) throws Exception {
+        Resultado resultado = new Resultado(mistura.keySet());
+        List<Operacao> sequencia = mistura.entrySet().stream()
+                .flatMap(entrada -> Collections.nCopies(entrada.getValue(), entrada.getKey()).stream())
+                .collect(Collectors.toCollection(ArrayList::new));
+        Collections.shuffle(sequencia, new Random(SEMENTE_MISTURA));
+        Operacao[] sorteio = sequencia.toArray(Operacao[]::new);
+        AtomicInteger restantes = new AtomicInteger(requisicoes);
+        long intervaloNanos = (long) (1e9 / taxa);
+        ScheduledExecutorService amostragem = Executors.newSingleThreadScheduledExecutor();
+        amostragem.scheduleAtFixedRate(() -> resultado.amostrar(valorGauge("hikaricp.connections.pending"),
+                valorGauge("hikaricp.connections.active"), filaRenderizacao.profundidade()), 0, 20, TimeUnit.MILLISECONDS);
+        ExecutorService usuarios = Executors.newFixedThreadPool(concorrencia);
+        long inicio = System.nanoTime();
+        AtomicLong agenda = new AtomicLong(inicio);
+        try {
+            List<Future<?>> execucoes = new ArrayList<>();
+            for (int i = 0; i < concorrencia; i++) {
+                execucoes.add(usuarios.submit(() -> {
+                    int restante;
+                    while ((restante = restantes.getAndDecrement()) > 0) {
+                        long agendada = agenda.getAndAdd(intervaloNanos);
+                        long espera = agendada - System.nanoTime();
+                        if (espera > 0) {
+                            TimeUnit.NANOSECONDS.sleep(espera);
+                        }
+                        Operacao operacao = sorteio[restante % sorteio.length];
+                        requisitar(operacao, resultado.medicoes.get(operacao), agendada);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> execucao : execucoes) {
+                execucao.get();
+            }
+        } finally {
+            resultado.duracaoNanos = System.nanoTime() - inicio;
+            usuarios.shutdown();
+            amostragem.shutdownNow();
+        }
+        return resultado;
+    }
+
+    /**
+     * Envia uma requisição e registra a latência desde o instante agendado, não desde o envio.
+     */
+    private void requisitar(Operacao operacao, Medicao medicao, long agendada) {
+        HttpRequest requisicao = montarRequisicao(operacao);
+        int status;
+        String corpo;
+        try {
+            HttpResponse<String> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            status = resposta.statusCode();
+            corpo = resposta.body();
+        } catch (IOException e) {
+            status = -1;
+            corpo = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        medicao.registrar(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - agendada), status);
+        if (status / 100 == 2 && (operacao == Operacao.CADASTRO_IMEDIATO || operacao == Operacao.CADASTRO_VENCIMENTO)) {
+            try {
+                cadastrados.add(objectMapper.readTree(corpo).get("id").asLong());
+            } catch (IOException e) {
+                throw new IllegalStateException("Resposta de cadastro inválida: " + corpo, e);
+            }
+        }
+    }
+
+    private HttpRequest montarRequisicao(Operacao operacao) {
+        LocalDate hoje = LocalDate.now();
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        return switch (operacao) {
+            case CADASTRO_IMEDIATO, CADASTRO_VENCIMENTO -> {
+                Map<String, Object> corpo = new TreeMap<>(Map.of(
+                        "id", proximoId.getAndIncrement(),
+                        "valor", ThreadLocalRandom.current().nextInt(1, 100000) + ".00",
+                        "descricao", "Carga " + operacao.nome,
+                        "status", "OPEN",
+                        "dataAtualizacao", hoje.toString(),
+                        "dataExpiracao", hoje.plusDays(30).toString()));
+                if (operacao == Operacao.CADASTRO_VENCIMENTO) {
+                    corpo.put("dataVencimento", hoje.plusDays(10).toString());
+                }
+                yield requisicao.uri(endereco("/" + operacao.nome)).POST(HttpRequest.BodyPublishers.ofString(json(corpo))).build();
+            }
+            case VERIFICACAO -> {
+                long id = cadastrados.stream().findAny().orElse(1L);
+                yield requisicao.uri(endereco("/verificacao"))
+                        .POST(HttpRequest.BodyPublishers.ofString(json(Map.of("conteudo", "ID: " + id)))).build();
+            }
+            case CONSULTA -> requisicao.uri(endereco("/qrcodes?status=OPEN&limite=20")).GET().build();
+        };
+    }
+
+    /**
+     * Aguarda a fila de renderização esvaziar e confere que cada cadastro confirmado tem a sua própria imagem:
+     * uma amostra das imagens é decodificada e precisa trazer o ID do cadastro, o que denuncia nomes de arquivo
+     * colididos entre requisições simultâneas.
+     */
+    private void conferirImagens() throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (filaRenderizacao.profundidade() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, filaRenderizacao.profundidade(), "Fila de renderização não esvaziou após a carga");
+        assertEquals(cadastrados.size(), qrCodeRepository.findAllById(cadastrados).size(), "Todo cadastro confirmado deve estar gravado");
+
+        List<Long> ids = new ArrayList<>(cadastrados);
+        List<Long> semImagem = new ArrayList<>();
+        for (Long id : ids) {
+            if (qrImageStore.ler(QrCodeService.chaveImagem(id)).isEmpty()) {
+                semImagem.add(id);
+            }
+        }
+        assertTrue(semImagem.isEmpty(), "Cadastros sem imagem gravada: " + semImagem);
+        QRCodeReader leitor = new QRCodeReader();
+        for (int i = 0; i < Math.min(AMOSTRA_IMAGENS, ids.size()); i++) {
+            Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            byte[] png = qrImageStore.ler(QrCodeService.chaveImagem(id)).orElseThrow();
+            BinaryBitmap imagem = new BinaryBitmap(new HybridBinarizer(
+                    new BufferedImageLuminanceSource(ImageIO.read(new ByteArrayInputStream(png)))));
+            assertEquals(id, CodificadorPayload.extrairId(leitor.decode(imagem, IMAGEM_GERADA).getText()), "Imagem do QR Code " + id + " traz outro ID");
+        }
+    }
+
+    /**
+     * Regressões: percentis acima de linha de base * (1 + tolerancia) e da linha de base mais 5 ms, já que variações
+     * de poucos milissegundos são ruído do escalonador, vazão abaixo de linha de base * (1 - tolerancia),
+     * taxa de erros acima da linha de base mais 0,1% e taxa de rejeições acima da linha de base mais 0,5%.
+     * Chaves ausentes na linha de base ou na medição não são comparadas; percentis só são medidos com ao menos
+     * dez amostras além deles, porque abaixo disso o percentil é o máximo de poucas requisições.
+     */
+    static List<String> comparar(Properties medido, Properties linhaBase, double tolerancia) {
+        List<String> regressoes = new ArrayList<>();
+        for (String chave : new TreeMap<>(linhaBase).keySet().stream().map(Object::toString).toList()) {
+            String valorMedido = medido.getProperty(chave);
+            if (valorMedido == null) {
+                continue;
+            }
+            double base = Double.parseDouble(linhaBase.getProperty(chave));
+            double valor = Double.parseDouble(valorMedido);
+            boolean regrediu;
+            if (chave.endsWith(".ms")) {
+                regrediu = valor > base * (1 + tolerancia) && valor > base + FOLGA_LATENCIA_MS;
+            } else if (chave.endsWith(".rps")) {
+                regrediu = valor < base * (1 - tolerancia);
+            } else if (chave.endsWith(".erros")) {
+                regrediu = valor > base + FOLGA_ERROS;
+            } else if (chave.endsWith(".rejeicoes")) {
+                regrediu = valor > base + FOLGA_REJEICOES;
+            } else {
+                continue;
+            }
+            if (regrediu) {
+                regressoes.add(String.format("%s: medido %s, linha de base %s", chave, valorMedido, linhaBase.getProperty(chave)));
+            }
+        }
+        return regressoes;
+    }
+
+    private static Map<Operacao, Integer> lerMistura(String mistura) {
+        Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+        for (String item : mistura.split(",")) {
+            String[] partes = item.trim().split("=");
+            int peso = Integer.parseInt(partes[1].trim());
+            if (peso > 0) {
+                pesos.put(Operacao.porNome(partes[0].trim()), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("Mistura de carga sem operações: " + mistura);
+        }
+        return pesos;
+    }
+
+    private static Properties lerLinhaBase() throws IOException {
+        Properties linhaBase = new Properties();
+        try (InputStream entrada = CargaEndpointsTest.class.getClassLoader().getResourceAsStream(LINHA_BASE)) {
+            assertNotNull(entrada, "Linha de base ausente; gere com -Dcarga.atualizar-linha-base=true");
+            linhaBase.load(entrada);
+        }
+        return linhaBase;
+    }
+
+    private static void gravar(Properties propriedades, Path arquivo, String comentario) throws IOException {
+        Files.createDirectories(arquivo.getParent());
+        Properties ordenadas = new Properties() {
+            @Override
+            public Set<Map.Entry<Object, Object>> entrySet() {
+                return Collections.unmodifiableSet(new LinkedHashSet<>(new TreeMap<>(propriedades).entrySet()));
+            }
+        };
+        try (Writer saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            ordenadas.store(saida, comentario);
+        }
+    }
+
+    private double valorGauge(String nome) {
+        Gauge gauge = meterRegistry.find(nome).gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    private URI endereco(String caminho) {
+        return URI.create("http://localhost:" + porta + caminho);
+    }
+
+    private String json(Object corpo) {
+        try {
+            return objectMapper.writeValueAsString(corpo);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Latências e respostas de uma operação.
+     */
+    static final class Medicao {
+        private final Histogram latencias = new ConcurrentHistogram(LATENCIA_MAXIMA_MICROS, 3);
+        private final Map<Integer, LongAdder> status = new ConcurrentHashMap<>();
+        private final LongAdder erros = new LongAdder();
+        private final LongAdder rejeicoes = new LongAdder();
+
+        /**
+         * 503 é a recusa prevista quando a fila de renderização ou o pool de conexões está cheio e conta como
+         * rejeição; qualquer outra resposta fora de 2xx, ou falha de conexão, conta como erro.
+         */
+        void registrar(long micros, int codigo) {
+            latencias.recordValue(Math.min(micros, LATENCIA_MAXIMA_MICROS));
+            status.computeIfAbsent(codigo, chave -> new LongAdder()).increment();
+            if (codigo == 503) {
+                rejeicoes.increment();
+            } else if (codigo / 100 != 2) {
+                erros.increment();
+            }
+        }
+
+        long total() {
+            return latencias.getTotalCount();
+        }
+
+        double taxaErros() {
+            return total() == 0 ? 0 : (double) erros.sum() / total();
+        }
+
+        double taxaRejeicoes() {
+            return total() == 0 ? 0 : (double) rejeicoes.sum() / total();
+        }
+
+        double percentilMillis(double percentil) {
+            return latencias.getValueAtPercentile(percentil) / 1000.0;
+        }
+    }
+
+    /**
+     * Medições de uma execução da carga.
+     */
+    static final class Resultado {
+        private final Map<Operacao, Medicao> medicoes = new EnumMap<>(Operacao.class);
+        private volatile double esperaPoolMaxima;
+        private volatile double conexoesAtivasMaximas;
+        private volatile int filaRenderizacaoMaxima;
+        private long duracaoNanos;
+
+        Resultado(Set<Operacao> operacoes) {
+            operacoes.forEach(operacao -> medicoes.put(operacao, new Medicao()));
+        }
+
+        void amostrar(double pendentes, double ativas, int filaRenderizacao) {
+            esperaPoolMaxima = Math.max(esperaPoolMaxima, pendentes);
+            conexoesAtivasMaximas = Math.max(conexoesAtivasMaximas, ativas);
+            filaRenderizacaoMaxima = Math.max(filaRenderizacaoMaxima, filaRenderizacao);
+        }
+
+        double vazao(long requisicoes) {
+            return requisicoes / (duracaoNanos / 1e9);
+        }
+
+        Properties comoPropriedades() {
+            Properties propriedades = new Properties();
+            long total = 0;
+            long erros = 0;
+            long rejeicoes = 0;
+            Histogram latencias = new Histogram(LATENCIA_MAXIMA_MICROS, 3);
+            for (Map.Entry<Operacao, Medicao> entrada : medicoes.entrySet()) {
+                String prefixo = entrada.getKey().nome + ".";
+                Medicao medicao = entrada.getValue();
+                total += medicao.total();
+                erros += medicao.erros.sum();
+                rejeicoes += medicao.rejeicoes.sum();
+                latencias.add(medicao.latencias);
+                registrarPercentis(propriedades, prefixo, medicao.latencias);
+                propriedades.setProperty(prefixo + "taxa.erros", formatar(medicao.taxaErros()));
+                propriedades.setProperty(prefixo + "taxa.rejeicoes", formatar(medicao.taxaRejeicoes()));
+                propriedades.setProperty(prefixo + "vazao.rps", formatar(vazao(medicao.total())));
+            }
+            registrarPercentis(propriedades, "total.", latencias);
+            propriedades.setProperty("total.vazao.rps", formatar(vazao(total)));
+            propriedades.setProperty("total.taxa.erros", formatar(total == 0 ? 0 : (double) erros / total));
+            propriedades.setProperty("total.taxa.rejeicoes", formatar(total == 0 ? 0 : (double) rejeicoes / total));
+            propriedades.setProperty("pool.espera.maxima", formatar(esperaPoolMaxima));
+            propriedades.setProperty("pool.ativas.maximas", formatar(conexoesAtivasMaximas));
+            propriedades.setProperty("fila.renderizacao.maxima", formatar(filaRenderizacaoMaxima));
+            return propriedades;
+        }
+
+        private static void registrarPercentis(Properties propriedades, String prefixo, Histogram latencias) {
+            for (Map.Entry<String, Double> percentil : Map.of("p50", 50.0, "p99", 99.0, "p999", 99.9).entrySet()) {
+                if (latencias.getTotalCount() * (100 - percentil.getValue()) / 100 >= AMOSTRAS_ALEM_DO_PERCENTIL) {
+                    propriedades.setProperty(prefixo + percentil.getKey() + ".ms",
+                            formatar(latencias.getValueAtPercentile(percentil.getValue()) / 1000.0));
+                }
+            }
+        }
+
+        String relatorio(int concorrencia, double taxa) {
+            StringBuilder texto = new StringBuilder(String.format("%nCarga com %d usuários a %.1f req/s em %.1f s%n", concorrencia, taxa, duracaoNanos / 1e9));
+            texto.append(String.format("%-26s %8s %9s %9s %9s %9s %9s %8s %9s  %s%n",
+                    "operação", "total", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "erros", "rejeições", "status"));
+            medicoes.forEach((operacao, medicao) -> texto.append(String.format("%-26s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f%% %8.2f%%  %s%n",
+                    operacao.nome, medicao.total(), vazao(medicao.total()), medicao.percentilMillis(50), medicao.percentilMillis(90),
+                    medicao.percentilMillis(99), medicao.latencias.getMaxValue() / 1000.0, medicao.taxaErros() * 100,
+                    medicao.taxaRejeicoes() * 100, new TreeMap<>(medicao.status))));
+            texto.append(String.format("Pool JDBC: até %.0f conexões ativas, até %.0f threads esperando conexão%n",
+                    conexoesAtivasMaximas, esperaPoolMaxima));
+            texto.append(String.format("Fila de renderização: até %d imagens pendentes%n", filaRenderizacaoMaxima));
+            return texto.toString();
+        }
+
+        private static String formatar(double valor) {
+            return String.format(Locale.ROOT, "%.4f", valor);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.Base45;
+import codigo.cadastroqrcode.qrcodecadastro.service.CapacidadeQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.CodificadorPayload;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Mode;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodificadorPayloadTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 10, 17);
+
+    @Test
+    void testBase45VetoresDaRfc() {
+        assertEquals("BB8", Base45.codificar("AB".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("%69 VD92EX0", Base45.codificar("Hello!!".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("UJCLQE7W581", Base45.codificar("base-45".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("ietf!", new String(Base45.decodificar("QED8WEX0"), StandardCharsets.US_ASCII));
+        assertThrows(IllegalArgumentException.class, () -> Base45.decodificar("GGW"), "Sequência acima de 0xFFFF deve ser recusada");
+    }
+
+    @Test
+    void testBase45UsaModoAlfanumericoEVersaoMenor() throws WriterException {
+        CodificadorPayload codificador = new CodificadorPayload(new QrCodeProperties());
+        QrCode qrCode = criarQrCode();
+
+        String texto = codificador.codificar(qrCode, QrCodeProperties.Payload.Formato.TEXTO);
+        String json = codificador.codificar(qrCode, QrCodeProperties.Payload.Formato.JSON);
+        String base45 = codificador.codificar(qrCode, QrCodeProperties.Payload.Formato.BASE45);
+
+        assertTrue(base45.startsWith(CodificadorPayload.PREFIXO_BASE45), "Conteúdo BASE45 deve ter o prefixo do layout");
+        assertEquals(Mode.ALPHANUMERIC, Encoder.chooseMode(base45), "Conteúdo BASE45 deve usar o modo alfanumérico");
+        int versaoTexto = CapacidadeQrCode.versaoMinima(texto, ErrorCorrectionLevel.L);
+        int versaoJson = CapacidadeQrCode.versaoMinima(json, ErrorCorrectionLevel.L);
+        int versaoBase45 = CapacidadeQrCode.versaoMinima(base45, ErrorCorrectionLevel.L);
+        assertTrue(versaoJson < versaoTexto, "JSON compacto deve caber em versão menor que o texto");
+        assertTrue(versaoBase45 < versaoJson, "BASE45 deve caber em versão menor que o JSON");
+        assertEquals(versaoBase45, Encoder.encode(base45, ErrorCorrectionLevel.L).getVersion().getVersionNumber());
+    }
+
+    @Test
+    void testJsonCompactoSemCamposNulos() {
+        QrCode qrCode = criarQrCode();
+        qrCode.setDataVencimento(null);
+
+        String json = new CodificadorPayload(new QrCodeProperties()).codificar(qrCode, QrCodeProperties.Payload.Formato.JSON);
+
+        assertEquals("{\"id\":42,\"v\":\"10.50\",\"d\":\"Mensalidade \\\"outubro\\\"\",\"s\":\"OPEN\",\"a\":\"2026-10-17\",\"e\":\"2026-11-16\"}", json);
+    }
+
+    @Test
+    void testBrCodeComCrcValido() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getPayload().setChavePix("123e4567-e12b-12d1-a456-426655440000");
+        propriedades.getPayload().setCidadeRecebedor("São Paulo");
+
+        String brCode = new CodificadorPayload(propriedades).codificar(criarQrCode(), QrCodeProperties.Payload.Formato.BR_CODE);
+
+        assertTrue(brCode.startsWith("000201010212"), "BR Code deve começar pelo indicador de formato e iniciação");
+        assertTrue(brCode.contains("0014br.gov.bcb.pix0136123e4567-e12b-12d1-a456-426655440000"), "BR Code deve conter a chave PIX");
+        assertTrue(brCode.contains("540510.505802BR"), "BR Code deve conter o valor e o país");
+        assertTrue(brCode.contains("6009SAO PAULO"), "Cidade deve estar sem acentos e em maiúsculas");
+        assertTrue(brCode.contains("62060502426304"), "ID deve ser o identificador da transação");
+        String semCrc = brCode.substring(0, brCode.length() - 4);
+        assertEquals(String.format("%04X", crc16(semCrc)), brCode.substring(brCode.length() - 4), "CRC deve conferir");
+    }
+
+    @Test
+    void testBrCodeExigeChavePix() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getPayload().setFormato(QrCodeProperties.Payload.Formato.BR_CODE);
+
+        assertThrows(IllegalStateException.class, () -> new CodificadorPayload(propriedades));
+    }
+
+    @Test
+    void testExtraindoIdDeTodosOsFormatos() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getPayload().setChavePix("123e4567-e12b-12d1-a456-426655440000");
+        CodificadorPayload codificador = new CodificadorPayload(propriedades);
+        QrCode qrCode = criarQrCode();
+
+        for (QrCodeProperties.Payload.Formato formato : QrCodeProperties.Payload.Formato.values()) {
+            assertEquals(42L, CodificadorPayload.extrairId(codificador.codificar(qrCode, formato)), "ID deve ser lido do formato " + formato);
+        }
+        String brCode = codificador.codificar(qrCode, QrCodeProperties.Payload.Formato.BR_CODE);
+        String crcAlterado = brCode.substring(0, brCode.length() - 1) + (brCode.endsWith("0") ? "1" : "0");
+        assertThrows(IllegalArgumentException.class, () -> CodificadorPayload.extrairId(crcAlterado), "BR Code com CRC inválido deve ser recusado");
+        assertThrows(IllegalArgumentException.class, () -> CodificadorPayload.extrairId("https://exemplo.com"));
+        assertThrows(IllegalArgumentException.class, () -> CodificadorPayload.extrairId("{\"v\":\"10.00\"}"), "JSON sem ID deve ser recusado");
+    }
+
+    @Test
+    void testNivelCorrecaoMaisAltoNaMenorVersao() throws WriterException {
+        for (String conteudo : List.of("1", "12345678901234567890", "QC1:ABC DEF", "ID: 1\nValor: 10.00", "x".repeat(300), "Descrição ç".repeat(20))) {
+            ErrorCorrectionLevel nivel = CapacidadeQrCode.nivelCorrecao(conteudo);
+            int versaoMinima = Encoder.encode(conteudo, ErrorCorrectionLevel.L).getVersion().getVersionNumber();
+
+            assertEquals(versaoMinima, CapacidadeQrCode.versaoMinima(conteudo, ErrorCorrectionLevel.L), "Versão calculada deve ser a do ZXing: " + conteudo);
+            assertEquals(versaoMinima, Encoder.encode(conteudo, nivel).getVersion().getVersionNumber(), "Nível escolhido não deve aumentar a versão: " + conteudo);
+            if (nivel != ErrorCorrectionLevel.H) {
+                ErrorCorrectionLevel acima = ErrorCorrectionLevel.forBits(proximoNivel(nivel));
+                assertTrue(Encoder.encode(conteudo, acima).getVersion().getVersionNumber() > versaoMinima, "Nível acima deve exigir versão maior: " + conteudo);
+            }
+        }
+    }
+
+    private static int proximoNivel(ErrorCorrectionLevel nivel) {
+        switch (nivel) {
+            case L:
+                return ErrorCorrectionLevel.M.getBits();
+            case M:
+                return ErrorCorrectionLevel.Q.getBits();
+            default:
+                return ErrorCorrectionLevel.H.getBits();
+        }
+    }
+
+    private static int crc16(String conteudo) {
+        int crc = 0xFFFF;
+        for (byte b : conteudo.getBytes(StandardCharsets.US_ASCII)) {
+            crc ^= (b & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+
+    private static QrCode criarQrCode() {
+        QrCode qrCode = new QrCode();
+        qrCode.setId(42L);
+        qrCode.setValor("10.50");
+        qrCode.setDescricao("Mensalidade \"outubro\"");
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(HOJE);
+        qrCode.setDataExpiracao(HOJE.plusDays(30));
+        qrCode.setDataVencimento(HOJE.plusDays(10));
+        return qrCode;
+    }
+}
@@ -0,0 +1,39 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfiguracaoProducaoTest {
+
+    private final ApplicationContextRunner contexto = new ApplicationContextRunner()
+            .withInitializer(new ConfigDataApplicationContextInitializer())
+            .withUserConfiguration(Propriedades.class);
+
+    @Test
+    void testProducaoComBancoExterno() {
+        contexto.withPropertyValues("spring.profiles.active=producao", "QRCODE_DATASOURCE_URL=jdbc:postgresql://banco:5432/qrcode")
+                .run(aplicacao -> {
+                    DataSourceProperties dataSource = aplicacao.getBean(DataSourceProperties.class);
+                    assertEquals("jdbc:postgresql://banco:5432/qrcode", dataSource.determineUrl());
+                    assertEquals("org.postgresql.Driver", dataSource.determineDriverClassName(), "Driver deve vir da URL informada");
+                    assertNull(aplicacao.getBean(JpaProperties.class).getDatabasePlatform(), "Dialeto deve ser detectado pelo banco conectado");
+                });
+    }
+
+    @Test
+    void testPadraoContinuaNoH2() {
+        contexto.run(aplicacao -> assertEquals("org.h2.Driver", aplicacao.getBean(DataSourceProperties.class).determineDriverClassName()));
+    }
+
+    @Configuration
+    @EnableConfigurationProperties({DataSourceProperties.class, JpaProperties.class})
+    static class Propriedades {
+    }
+}
@@ -0,0 +1,163 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.entity.TravaExecucao;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.repository.TravaExecucaoRepository;
+import codigo.cadastroqrcode.qrcodecadastro.service.ExpiracaoQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.LimitadorJdbc;
+import codigo.cadastroqrcode.qrcodecadastro.service.PerfisRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeService;
+import codigo.cadastroqrcode.qrcodecadastro.service.TravaDistribuida;
+import codigo.cadastroqrcode.qrcodecadastro.storage.MemoriaQrImageStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+public class ExpiracaoQrCodeTest {
+
+    @Autowired
+    private QrCodeRepository qrCodeRepository;
+
+    @Autowired
+    private TravaExecucaoRepository travaExecucaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LimitadorJdbc limitadorJdbc = new LimitadorJdbc(new QrCodeProperties());
+
+    @Test
+    void testExpirandoEmBlocos() throws IOException {
+        LocalDate hoje = LocalDate.now();
+        List<QrCode> qrCodes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            qrCodes.add(criarQrCode(ExpiracaoQrCode.STATUS_ABERTO, hoje.minusDays(1)));
+        }
+        qrCodes.add(criarQrCode(ExpiracaoQrCode.STATUS_ABERTO, hoje));
+        qrCodes.add(criarQrCode("CLOSED", hoje.minusDays(1)));
+        qrCodes = qrCodeRepository.saveAll(qrCodes);
+
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getExpiracao().setTamanhoBloco(2);
+        propriedades.getExpiracao().setRemoverImagens(true);
+        propriedades.getPerfis().put("miniatura", new QrCodeProperties.Perfil());
+        propriedades.getRenderizacao().setVariantes(List.of("miniatura"));
+        PerfisRenderizacao perfis = new PerfisRenderizacao(propriedades);
+        MemoriaQrImageStore qrImageStore = new MemoriaQrImageStore();
+        String chaveExpirada = QrCodeService.chaveImagem(qrCodes.get(0).getId());
+        String chaveVariante = QrCodeService.chaveImagem(qrCodes.get(0).getId(), perfis.obter("miniatura"));
+        qrImageStore.salvar(chaveExpirada, saida -> saida.write(1));
+        qrImageStore.salvar(chaveVariante, saida -> saida.write(1));
+        qrImageStore.salvar(QrCodeService.chaveEtag(chaveExpirada), saida -> saida.write(1));
+        QrCodeService qrCodeService = mock(QrCodeService.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExpiracaoQrCode expiracao = new ExpiracaoQrCode(qrCodeRepository, qrCodeService, qrImageStore, perfis,
+                new TravaDistribuida(travaExecucaoRepository, limitadorJdbc, transactionManager), limitadorJdbc, propriedades, transactionManager, meterRegistry);
+
+        assertEquals(5, expiracao.expirar(), "Somente os 5 QR Codes abertos e vencidos devem expirar");
+
+        List<QrCode> atualizados = qrCodeRepository.findAllById(qrCodes.stream().map(QrCode::getId).toList());
+        assertEquals(5, atualizados.stream().filter(qrCode -> ExpiracaoQrCode.STATUS_EXPIRADO.equals(qrCode.getStatus())).count(),
+                "QR Codes vencidos devem estar EXPIRED");
+        assertEquals(5.0, meterRegistry.get("qrcode.expiracao.expirados").counter().count(), "Progresso deve ser contado");
+        assertTrue(qrImageStore.ler(chaveExpirada).isEmpty(), "Imagem do QR Code expirado deve ser removida");
+        assertTrue(qrImageStore.ler(chaveVariante).isEmpty(), "Variante do QR Code expirado deve ser removida");
+        assertTrue(qrImageStore.ler(QrCodeService.chaveEtag(chaveExpirada)).isEmpty(), "ETag da imagem removida deve ser removido");
+        verify(qrCodeService, never()).regravarImagens(anyCollection());
+        verify(qrCodeService, times(3)).descartarRenderizacoes(anySet());
+        assertEquals(0, expiracao.expirar(), "Segunda execução não deve encontrar QR Codes");
+    }
+
+    @Test
+    void testImagensRegravadasQuandoMantidas() {
+        LocalDate hoje = LocalDate.now();
+        QrCode vencido = qrCodeRepository.save(criarQrCode(ExpiracaoQrCode.STATUS_ABERTO, hoje.minusDays(1)));
+        QrCodeProperties propriedades = new QrCodeProperties();
+        QrCodeService qrCodeService = mock(QrCodeService.class);
+        when(qrCodeService.regravarImagens(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExpiracaoQrCode expiracao = new ExpiracaoQrCode(qrCodeRepository, qrCodeService, new MemoriaQrImageStore(), new PerfisRenderizacao(propriedades),
+                new TravaDistribuida(travaExecucaoRepository, limitadorJdbc, transactionManager), limitadorJdbc, propriedades, transactionManager, meterRegistry);
+
+        assertEquals(1, expiracao.expirar());
+
+        verify(qrCodeService).regravarImagens(List.of(vencido.getId()));
+        verify(qrCodeService, never()).descartarRenderizacoes(anySet());
+        assertEquals(1.0, meterRegistry.get("qrcode.expiracao.imagens.regravadas").counter().count(),
+                "Imagens mantidas devem ser gravadas novamente com o status EXPIRED");
+    }
+
+    @Test
+    void testTravaEmUmUnicoNo() {
+        TravaDistribuida primeiroNo = new TravaDistribuida(travaExecucaoRepository, limitadorJdbc, transactionManager);
+        TravaDistribuida segundoNo = new TravaDistribuida(travaExecucaoRepository, limitadorJdbc, transactionManager);
+
+        assertTrue(primeiroNo.adquirir("teste", Duration.ofMinutes(1)), "Primeiro nó deve adquirir a trava");
+        assertFalse(segundoNo.adquirir("teste", Duration.ofMinutes(1)), "Segundo nó não deve adquirir a trava ocupada");
+        primeiroNo.liberar("teste");
+        assertTrue(segundoNo.adquirir("teste", Duration.ofMinutes(1)), "Trava liberada deve poder ser adquirida");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testTravaRenovadaDuranteAExecucao() throws InterruptedException {
+        TravaDistribuida primeiroNo = new TravaDistribuida(travaExecucaoRepository, limitadorJdbc, transactionManager);
+        TravaDistribuida segundoNo = new TravaDistribuida(travaExecucaoRepository, limitadorJdbc, transactionManager);
+        try {
+            assertTrue(primeiroNo.adquirir("teste-renovacao", Duration.ofMillis(300)), "Primeiro nó deve adquirir a trava");
+            Thread.sleep(900);
+
+            assertTrue(primeiroNo.isMantida("teste-renovacao"), "Trava deve continuar com o primeiro nó");
+            assertFalse(segundoNo.adquirir("teste-renovacao", Duration.ofMillis(300)), "Trava renovada não deve ser adquirida depois do prazo inicial");
+            primeiroNo.liberar("teste-renovacao");
+            assertFalse(primeiroNo.isMantida("teste-renovacao"), "Trava liberada não deve ser mais mantida");
+            assertTrue(segundoNo.adquirir("teste-renovacao", Duration.ofMillis(300)), "Trava liberada deve poder ser adquirida");
+        } finally {
+            segundoNo.liberar("teste-renovacao");
+            primeiroNo.encerrar();
+            segundoNo.encerrar();
+            travaExecucaoRepository.deleteById("teste-renovacao");
+        }
+    }
+
+    @Test
+    void testCriacaoDaTravaNaoSobrescreveOutroNo() {
+        TravaDistribuida primeiroNo = new TravaDistribuida(travaExecucaoRepository, limitadorJdbc, transactionManager);
+        assertTrue(primeiroNo.adquirir("teste-criacao", Duration.ofMinutes(1)), "Primeiro nó deve adquirir a trava");
+
+        assertThrows(DataIntegrityViolationException.class, () -> travaExecucaoRepository.criar("teste-criacao", Instant.EPOCH),
+                "Criação da trava deve ser um INSERT que falha se a linha já existir");
+        TravaExecucao trava = travaExecucaoRepository.findById("teste-criacao").orElseThrow();
+        assertNotNull(trava.getDono(), "Dono da trava não deve ser sobrescrito");
+        assertTrue(trava.getBloqueadaAte().isAfter(Instant.now()), "Prazo da trava não deve ser sobrescrito");
+        primeiroNo.encerrar();
+    }
+
+    private QrCode criarQrCode(String status, LocalDate dataExpiracao) {
+        QrCode qrCode = new QrCode();
+        qrCode.setValor("100.00");
+        qrCode.setStatus(status);
+        qrCode.setDataAtualizacao(dataExpiracao.minusDays(10));
+        qrCode.setDataExpiracao(dataExpiracao);
+        return qrCode;
+    }
+}
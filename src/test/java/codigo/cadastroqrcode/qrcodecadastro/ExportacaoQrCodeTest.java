@@ -0,0 +1,123 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.service.ExportacaoQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.LimitadorJdbc;
+import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeService;
+import codigo.cadastroqrcode.qrcodecadastro.storage.MemoriaQrImageStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ExportacaoQrCodeTest {
+
+    @Autowired
+    private QrCodeRepository qrCodeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MemoriaQrImageStore qrImageStore = new MemoriaQrImageStore();
+
+    private ExportacaoQrCode exportacao;
+
+    private List<QrCode> qrCodes;
+
+    @BeforeEach
+    void cadastrarQrCodes() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getExportacao().setTamanhoBusca(2);
+        exportacao = new ExportacaoQrCode(qrCodeRepository, qrImageStore, propriedades, new LimitadorJdbc(propriedades), transactionManager);
+        qrCodeRepository.deleteAll();
+        List<QrCode> novos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            novos.add(criarQrCode(i == 0 ? "Mensalidade \"março\", turma A" : "Mensalidade " + i));
+        }
+        qrCodes = qrCodeRepository.saveAll(novos);
+    }
+
+    @Test
+    void testExportandoCsv() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        assertEquals(5, exportacao.exportar(ExportacaoQrCode.Formato.CSV, saida));
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(6, linhas.length, "Cabeçalho e uma linha por QR Code");
+        assertEquals("id,valor,descricao,status,dataAtualizacao,dataExpiracao,dataVencimento", linhas[0]);
+        assertTrue(linhas[1].startsWith(qrCodes.get(0).getId() + ",100.00,\"Mensalidade \"\"março\"\", turma A\",OPEN,"),
+                "Descrição com vírgula e aspas deve ser escapada: " + linhas[1]);
+    }
+
+    @Test
+    void testExportandoNdjson() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        exportacao.exportar(ExportacaoQrCode.Formato.NDJSON, saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, linhas.length, "Um objeto JSON por linha");
+        JsonNode primeiro = new ObjectMapper().readTree(linhas[0]);
+        assertEquals(qrCodes.get(0).getId(), primeiro.get("id").asLong());
+        assertEquals("Mensalidade \"março\", turma A", primeiro.get("descricao").asText());
+        assertEquals(qrCodes.get(0).getDataVencimento().toString(), primeiro.get("dataVencimento").asText());
+    }
+
+    @Test
+    void testExportandoZipComImagens() throws IOException {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G'};
+        for (QrCode qrCode : qrCodes.subList(0, 3)) {
+            qrImageStore.salvar(QrCodeService.chaveImagem(qrCode.getId()), saida -> saida.write(png));
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        assertEquals(5, exportacao.exportarComImagens(ExportacaoQrCode.Formato.CSV, saida));
+
+        List<String> entradas = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(saida.toByteArray()))) {
+            for (ZipEntry entrada = zip.getNextEntry(); entrada != null; entrada = zip.getNextEntry()) {
+                entradas.add(entrada.getName());
+                byte[] conteudo = zip.readAllBytes();
+                if (entrada.getName().startsWith("imagens/")) {
+                    assertArrayEquals(png, conteudo, "Imagem deve ser copiada do armazenamento");
+                } else {
+                    assertEquals(6, new String(conteudo, StandardCharsets.UTF_8).split("\r\n").length);
+                }
+            }
+        }
+        assertEquals("qrcodes.csv", entradas.get(0));
+        assertEquals(4, entradas.size(), "Somente os QR Codes com imagem armazenada devem ter imagem no ZIP");
+        assertEquals("imagens/" + QrCodeService.chaveImagem(qrCodes.get(0).getId()), entradas.get(1));
+    }
+
+    private QrCode criarQrCode(String descricao) {
+        LocalDate hoje = LocalDate.now();
+        QrCode qrCode = new QrCode();
+        qrCode.setValor("100.00");
+        qrCode.setDescricao(descricao);
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(hoje);
+        qrCode.setDataExpiracao(hoje.plusDays(30));
+        qrCode.setDataVencimento(hoje.plusDays(10));
+        return qrCode;
+    }
+}
@@ -0,0 +1,80 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.StatusRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.dto.TarefaRenderizacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.exception.FilaRenderizacaoCheiaException;
+import codigo.cadastroqrcode.qrcodecadastro.service.FilaRenderizacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FilaRenderizacaoTest {
+
+    private FilaRenderizacao filaRenderizacao;
+
+    @AfterEach
+    void encerrar() throws InterruptedException {
+        filaRenderizacao.encerrar();
+    }
+
+    @Test
+    void testFilaCheiaRecusaNovaVaga() throws InterruptedException {
+        filaRenderizacao = criarFila(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        filaRenderizacao.reservarVaga();
+        String idTarefa = filaRenderizacao.enfileirar(1L, () -> aguardar(liberar));
+
+        assertEquals(1, filaRenderizacao.profundidade(), "Fila deve ter uma vaga ocupada");
+        assertThrows(FilaRenderizacaoCheiaException.class, () -> filaRenderizacao.reservarVaga(), "Deve lançar FilaRenderizacaoCheiaException");
+
+        liberar.countDown();
+        TarefaRenderizacaoDTO tarefa = aguardarConclusao(idTarefa);
+        assertEquals(StatusRenderizacao.CONCLUIDA, tarefa.getStatus(), "Tarefa deve estar concluída");
+        assertNotNull(tarefa.getConcluidaEm(), "Data de conclusão deve ser preenchida");
+        assertDoesNotThrow(() -> filaRenderizacao.reservarVaga());
+    }
+
+    @Test
+    void testFalhaRenderizacao() throws InterruptedException {
+        filaRenderizacao = criarFila(1);
+
+        filaRenderizacao.reservarVaga();
+        String idTarefa = filaRenderizacao.enfileirar(1L, () -> false);
+
+        assertEquals(StatusRenderizacao.FALHA, aguardarConclusao(idTarefa).getStatus(), "Tarefa deve estar com falha");
+        assertEquals(0, filaRenderizacao.profundidade(), "Vaga deve ser liberada após a falha");
+    }
+
+    private FilaRenderizacao criarFila(int capacidade) {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getRenderizacao().setThreads(1);
+        propriedades.getRenderizacao().setCapacidadeFila(capacidade);
+        return new FilaRenderizacao(propriedades);
+    }
+
+    private TarefaRenderizacaoDTO aguardarConclusao(String idTarefa) throws InterruptedException {
+        for (int tentativa = 0; tentativa < 100; tentativa++) {
+            TarefaRenderizacaoDTO tarefa = filaRenderizacao.consultar(idTarefa).orElseThrow();
+            if (tarefa.getStatus() == StatusRenderizacao.CONCLUIDA || tarefa.getStatus() == StatusRenderizacao.FALHA) {
+                return tarefa;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        return fail("Tarefa não concluída");
+    }
+
+    private static boolean aguardar(CountDownLatch liberar) {
+        try {
+            return liberar.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
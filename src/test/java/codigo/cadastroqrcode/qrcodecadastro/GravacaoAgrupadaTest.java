@@ -0,0 +1,225 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.exception.ConexoesEsgotadasException;
+import codigo.cadastroqrcode.qrcodecadastro.exception.GravacaoIndisponivelException;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.service.GravacaoAgrupada;
+import codigo.cadastroqrcode.qrcodecadastro.service.LimitadorJdbc;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class GravacaoAgrupadaTest {
+
+    @Autowired
+    private QrCodeRepository qrCodeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void limpar() {
+        qrCodeRepository.deleteAll();
+    }
+
+    @Test
+    void testCadastrosGravadosEmGrupos() throws Exception {
+        GravacaoAgrupada gravacao = criarGravacao();
+        ExecutorService requisicoes = Executors.newFixedThreadPool(16);
+        try {
+            List<CompletableFuture<QrCode>> gravados = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String chave = "grupo-" + i;
+                gravados.add(CompletableFuture.supplyAsync(() -> gravacao.gravar(criarQrCode(chave)), requisicoes));
+            }
+
+            for (CompletableFuture<QrCode> gravado : gravados) {
+                assertNotNull(gravado.join().getId(), "Cadastro confirmado deve ter ID");
+            }
+        } finally {
+            requisicoes.shutdown();
+            gravacao.encerrar();
+        }
+
+        assertEquals(64, qrCodeRepository.count(), "Todos os cadastros confirmados devem estar gravados");
+        long grupos = meterRegistry.get("qrcode.gravacao.grupo.tamanho").summary().count();
+        assertTrue(grupos < 64, "Cadastros simultâneos devem compartilhar transações, grupos: " + grupos);
+        assertEquals(64.0, meterRegistry.get("qrcode.gravacao.grupo.tamanho").summary().totalAmount());
+    }
+
+    @Test
+    void testRegistroInvalidoNaoDerrubaOGrupo() throws Exception {
+        GravacaoAgrupada gravacao = criarGravacao();
+        ExecutorService requisicoes = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<QrCode>> gravados = new ArrayList<>();
+            for (String chave : List.of("repetida", "unica-1", "repetida", "unica-2")) {
+                gravados.add(CompletableFuture.supplyAsync(() -> gravacao.gravar(criarQrCode(chave)), requisicoes));
+            }
+
+            int recusados = 0;
+            for (CompletableFuture<QrCode> gravado : gravados) {
+                try {
+                    gravado.join();
+                } catch (CompletionException e) {
+                    assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+                    recusados++;
+                }
+            }
+            assertEquals(1, recusados, "Somente a chave de idempotência repetida deve ser recusada");
+        } finally {
+            requisicoes.shutdown();
+            gravacao.encerrar();
+        }
+        assertEquals(3, qrCodeRepository.count(), "Os demais cadastros do grupo devem ser gravados");
+    }
+
+    @Test
+    void testEncerramentoGravaPendentes() throws Exception {
+        GravacaoAgrupada gravacao = criarGravacao();
+        ExecutorService requisicoes = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<QrCode>> gravados = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String chave = "encerramento-" + i;
+            gravados.add(CompletableFuture.supplyAsync(() -> gravacao.gravar(criarQrCode(chave)), requisicoes));
+        }
+        while (gravacao.pendentes() == 0 && gravados.stream().noneMatch(CompletableFuture::isDone)) {
+            Thread.onSpinWait();
+        }
+
+        gravacao.encerrar();
+        requisicoes.shutdown();
+
+        for (CompletableFuture<QrCode> gravado : gravados) {
+            try {
+                assertNotNull(gravado.join().getId(), "Cadastro aceito antes do encerramento deve ser gravado");
+            } catch (CompletionException e) {
+                assertInstanceOf(GravacaoIndisponivelException.class, e.getCause(), "Cadastro após o encerramento deve ser recusado");
+            }
+        }
+        assertEquals(gravados.stream().filter(gravado -> !gravado.isCompletedExceptionally()).count(), qrCodeRepository.count(),
+                "Nenhum cadastro confirmado pode se perder no encerramento");
+        assertThrows(GravacaoIndisponivelException.class, () -> gravacao.gravar(criarQrCode("depois")));
+    }
+
+    @Test
+    void testCadastroDesistidoNaoGravado() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<String> gravadas = new CopyOnWriteArrayList<>();
+        QrCodeRepository bloqueado = mock(QrCodeRepository.class);
+        when(bloqueado.saveAll(anyList())).thenAnswer(invocation -> {
+            liberar.await();
+            List<QrCode> grupo = invocation.getArgument(0);
+            grupo.forEach(qrCode -> gravadas.add(qrCode.getChaveIdempotencia()));
+            return grupo;
+        });
+        QrCodeProperties propriedades = criarPropriedades();
+        propriedades.getGravacao().setEsperaConfirmacao(Duration.ofMillis(200));
+        GravacaoAgrupada gravacao = new GravacaoAgrupada(bloqueado, new LimitadorJdbc(propriedades), propriedades, transactionManager, meterRegistry);
+        ExecutorService requisicoes = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<QrCode> emGravacao = CompletableFuture.supplyAsync(() -> gravacao.gravar(criarQrCode("em-gravacao")), requisicoes);
+            verify(bloqueado, timeout(1000)).saveAll(anyList());
+
+            assertThrows(GravacaoIndisponivelException.class, () -> gravacao.gravar(criarQrCode("desistido")));
+            assertEquals(0, gravacao.pendentes(), "Cadastro desistido deve sair do buffer");
+            Thread.sleep(200);
+            assertFalse(emGravacao.isDone(), "Cadastro com o grupo em gravação deve aguardar o commit");
+
+            liberar.countDown();
+            assertEquals("em-gravacao", emGravacao.get(5, TimeUnit.SECONDS).getChaveIdempotencia());
+        } finally {
+            liberar.countDown();
+            requisicoes.shutdown();
+            gravacao.encerrar();
+        }
+        assertEquals(List.of("em-gravacao"), gravadas, "Cadastro recusado não pode ser gravado depois");
+    }
+
+    @Test
+    void testGrupoRecusadoPeloLimitadorNaoGravado() throws Exception {
+        QrCodeProperties propriedades = criarPropriedades();
+        propriedades.getExecucao().setThreadsVirtuais(true);
+        propriedades.getExecucao().setPermissoesJdbc(1);
+        propriedades.getExecucao().setEsperaJdbc(Duration.ofMillis(50));
+        LimitadorJdbc limitadorJdbc = new LimitadorJdbc(propriedades);
+        QrCodeRepository repositorio = mock(QrCodeRepository.class);
+        GravacaoAgrupada gravacao = new GravacaoAgrupada(repositorio, limitadorJdbc, propriedades, transactionManager, meterRegistry);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService outraOperacao = Executors.newSingleThreadExecutor();
+        try {
+            outraOperacao.submit(() -> limitadorJdbc.executar(() -> {
+                ocupado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(ocupado.await(5, TimeUnit.SECONDS), "Outra operação deve ocupar a única permissão");
+
+            assertThrows(ConexoesEsgotadasException.class, () -> gravacao.gravar(criarQrCode("sem-conexao")));
+            verify(repositorio, never()).saveAll(anyList());
+            verify(repositorio, never()).saveAndFlush(any());
+        } finally {
+            liberar.countDown();
+            outraOperacao.shutdown();
+            gravacao.encerrar();
+        }
+    }
+
+    private GravacaoAgrupada criarGravacao() {
+        return new GravacaoAgrupada(qrCodeRepository, new LimitadorJdbc(new QrCodeProperties()), criarPropriedades(), transactionManager, meterRegistry);
+    }
+
+    private QrCodeProperties criarPropriedades() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getGravacao().setAgrupada(true);
+        propriedades.getGravacao().setTamanhoGrupo(16);
+        propriedades.getGravacao().setEsperaGrupo(Duration.ofMillis(20));
+        return propriedades;
+    }
+
+    private QrCode criarQrCode(String chaveIdempotencia) {
+        LocalDate hoje = LocalDate.now();
+        QrCode qrCode = new QrCode();
+        qrCode.setValor("100.00");
+        qrCode.setDescricao("Gravação agrupada");
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(hoje);
+        qrCode.setDataExpiracao(hoje.plusDays(30));
+        qrCode.setDataVencimento(hoje.plusDays(10));
+        qrCode.setChaveIdempotencia(chaveIdempotencia);
+        return qrCode;
+    }
+}
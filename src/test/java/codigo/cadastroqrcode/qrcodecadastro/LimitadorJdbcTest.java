@@ -0,0 +1,52 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.exception.ConexoesEsgotadasException;
+import codigo.cadastroqrcode.qrcodecadastro.service.LimitadorJdbc;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitadorJdbcTest {
+
+    @Test
+    void testRecusandoAcimaDoLimite() throws Exception {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getExecucao().setThreadsVirtuais(true);
+        propriedades.getExecucao().setPermissoesJdbc(1);
+        propriedades.getExecucao().setEsperaJdbc(Duration.ofMillis(50));
+        LimitadorJdbc limitador = new LimitadorJdbc(propriedades);
+
+        CountDownLatch ocupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Integer> operacaoLonga = CompletableFuture.supplyAsync(() -> limitador.executar(() -> {
+            ocupado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        }));
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS), "Operação longa deve ocupar a única permissão");
+
+        assertThrows(ConexoesEsgotadasException.class, () -> limitador.executar(() -> 2), "Operação acima do limite deve ser recusada");
+        liberar.countDown();
+        assertEquals(1, operacaoLonga.get(5, TimeUnit.SECONDS), "Operação longa deve concluir");
+        assertEquals(3, limitador.executar(() -> 3), "Permissão liberada deve ser reaproveitada");
+    }
+
+    @Test
+    void testSemLimiteComThreadsDePlataforma() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getExecucao().setPermissoesJdbc(0);
+        LimitadorJdbc limitador = new LimitadorJdbc(propriedades);
+
+        assertEquals(1, limitador.executar(() -> 1), "Com threads de plataforma o limitador não deve atuar");
+    }
+}
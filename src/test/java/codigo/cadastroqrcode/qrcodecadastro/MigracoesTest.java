@@ -0,0 +1,57 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"})
+public class MigracoesTest {
+
+    @Autowired
+    private QrCodeRepository qrCodeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testEsquemaDasMigracoesValidoParaAsEntidades() {
+        LocalDate hoje = LocalDate.now();
+        QrCode qrCode = new QrCode();
+        qrCode.setValor("100.00");
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(hoje);
+        qrCode.setDataExpiracao(hoje.plusDays(30));
+
+        assertNotNull(qrCodeRepository.saveAndFlush(qrCode).getId(), "Cadastro imediato, sem vencimento, deve ser gravado com ID da sequência");
+
+        List<String> indices = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name = 'QRCODE'", String.class);
+        assertTrue(indices.containsAll(List.of("IDX_QRCODE_STATUS_EXPIRACAO", "IDX_QRCODE_VENCIMENTO")), "Índices da consulta: " + indices);
+    }
+
+    @Test
+    void testValorEmCentavosPreenchidoNosCadastrosAnteriores() {
+        DriverManagerDataSource banco = new DriverManagerDataSource("jdbc:h2:mem:migracao-centavos;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(banco).target("1").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(banco);
+        for (Object[] registro : new Object[][]{{1, "100.00"}, {2, "1599.9"}, {3, "1e3"}, {4, " 7.5 "}}) {
+            jdbc.update("insert into qrcode (id, valor, status, data_atualizacao, data_expiracao) values (?, ?, 'OPEN', current_date, current_date)",
+                    registro);
+        }
+
+        Flyway.configure().dataSource(banco).load().migrate();
+
+        assertEquals(List.of(10000L, 159990L, 750L), jdbc.queryForList("select valor_centavos from qrcode where id in (1, 2, 4) order by id", Long.class));
+        assertNull(jdbc.queryForObject("select valor_centavos from qrcode where id = 3", Long.class), "Valor fora do formato decimal fica nulo");
+    }
+}
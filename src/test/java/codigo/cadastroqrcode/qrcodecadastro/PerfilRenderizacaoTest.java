@@ -0,0 +1,104 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.service.CapacidadeQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.PerfilRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.service.PerfisRenderizacao;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerfilRenderizacaoTest {
+
+    @Test
+    void testMargemDoPerfilNaMatriz() throws WriterException {
+        PerfilRenderizacao semMargem = new PerfilRenderizacao("sem-margem", perfil(0, null, null));
+        PerfilRenderizacao padrao = new PerfilRenderizacao("padrao", new QrCodeProperties.Perfil());
+
+        BitMatrix matrizSemMargem = semMargem.codificar("QC1:ABC", 0, 0);
+        BitMatrix matrizPadrao = padrao.codificar("QC1:ABC", 0, 0);
+
+        assertEquals(matrizPadrao.getWidth() - 8, matrizSemMargem.getWidth(), "Margem padrão deve ter 4 módulos de cada lado");
+    }
+
+    @Test
+    void testMargemNaoAlteraACodificacao() throws WriterException {
+        PerfilRenderizacao cadastro = new PerfilRenderizacao("cadastro", perfil(4, null, null));
+        PerfilRenderizacao miniatura = new PerfilRenderizacao("miniatura", perfil(2, null, null));
+
+        assertEquals(cadastro.getAssinaturaCodificacao(), miniatura.getAssinaturaCodificacao(), "Margem não deve exigir outra codificação");
+        assertNotEquals(cadastro.getAssinatura(), miniatura.getAssinatura(), "Margem deve mudar a assinatura da imagem");
+        BitMatrix nativa = miniatura.codificarNativa("QC1:ABC");
+        assertEquals(cadastro.codificar("QC1:ABC", 0, 0).getWidth() - 8, nativa.getWidth(), "Matriz nativa não deve ter margem");
+        assertEquals(nativa, cadastro.codificarNativa("QC1:ABC"));
+    }
+
+    @Test
+    void testCorrecaoFixaEAutomatica() {
+        PerfilRenderizacao fixo = new PerfilRenderizacao("fixo", perfil(4, ErrorCorrectionLevel.H, null));
+        PerfilRenderizacao automatico = new PerfilRenderizacao("automatico", new QrCodeProperties.Perfil());
+
+        assertEquals(ErrorCorrectionLevel.H, fixo.nivelCorrecao("x".repeat(100)), "Perfil com correção fixa deve usá-la");
+        assertEquals(CapacidadeQrCode.nivelCorrecao("x".repeat(100)), automatico.nivelCorrecao("x".repeat(100)));
+    }
+
+    @Test
+    void testCapacidadeComCharsetConsideraEci() throws WriterException {
+        for (String conteudo : List.of("a", "Descrição ç", "x".repeat(150), "Pagamento €".repeat(10))) {
+            ErrorCorrectionLevel nivel = CapacidadeQrCode.nivelCorrecao(conteudo, StandardCharsets.UTF_8);
+            Map<EncodeHintType, Object> hints = Map.of(EncodeHintType.CHARACTER_SET, "UTF-8");
+            int versaoMinima = Encoder.encode(conteudo, ErrorCorrectionLevel.L, hints).getVersion().getVersionNumber();
+
+            assertEquals(versaoMinima, CapacidadeQrCode.versaoMinima(conteudo, ErrorCorrectionLevel.L, StandardCharsets.UTF_8), "Versão com ECI deve ser a do ZXing: " + conteudo);
+            assertEquals(versaoMinima, Encoder.encode(conteudo, nivel, hints).getVersion().getVersionNumber(), "Nível escolhido não deve aumentar a versão: " + conteudo);
+        }
+    }
+
+    @Test
+    void testPerfilDerivadoMantemHints() {
+        PerfilRenderizacao perfil = new PerfilRenderizacao("cadastro", new QrCodeProperties.Perfil());
+
+        assertSame(perfil, perfil.comDimensoes(400, "png"), "Sem mudanças o próprio perfil deve ser devolvido");
+        PerfilRenderizacao derivado = perfil.comDimensoes(200, "svg");
+        assertEquals(200, derivado.getTamanho());
+        assertEquals("svg", derivado.getFormato());
+        assertNotEquals(perfil.getAssinatura(), derivado.getAssinatura(), "Assinatura deve refletir tamanho e formato");
+        assertThrows(IllegalArgumentException.class, () -> perfil.comDimensoes(10, "png"), "Tamanho inválido deve ser recusado");
+        assertThrows(IllegalArgumentException.class, () -> perfil.comDimensoes(200, "webp"), "Formato inválido deve ser recusado");
+    }
+
+    @Test
+    void testPerfisConfigurados() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getPerfis().put("miniatura", perfil(2, null, null));
+
+        PerfisRenderizacao perfis = new PerfisRenderizacao(propriedades);
+
+        assertEquals(PerfisRenderizacao.PERFIL_CADASTRO, perfis.cadastro().getNome(), "Perfil de cadastro deve ser criado por padrão");
+        assertEquals(2, perfis.todos().size());
+        assertEquals("miniatura", perfis.obter("miniatura").getNome());
+        assertThrows(IllegalArgumentException.class, () -> perfis.obter("inexistente"));
+
+        QrCodeProperties.Perfil cadastroSvg = new QrCodeProperties.Perfil();
+        cadastroSvg.setFormato("svg");
+        propriedades.getPerfis().put(PerfisRenderizacao.PERFIL_CADASTRO, cadastroSvg);
+        assertThrows(IllegalStateException.class, () -> new PerfisRenderizacao(propriedades), "Perfil de cadastro deve gerar png");
+    }
+
+    private static QrCodeProperties.Perfil perfil(int margem, ErrorCorrectionLevel correcao, String charset) {
+        QrCodeProperties.Perfil perfil = new QrCodeProperties.Perfil();
+        perfil.setMargem(margem);
+        perfil.setCorrecao(correcao);
+        perfil.setCharset(charset);
+        return perfil;
+    }
+}
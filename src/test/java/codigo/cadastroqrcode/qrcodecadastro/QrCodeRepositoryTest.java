@@ -0,0 +1,73 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.FiltroQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeResumoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class QrCodeRepositoryTest {
+
+    @Autowired
+    private QrCodeRepository qrCodeRepository;
+
+    private final LocalDate hoje = LocalDate.now();
+
+    @BeforeEach
+    void cadastrarQrCodes() {
+        List<QrCode> qrCodes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            qrCodes.add(criarQrCode("OPEN", hoje));
+        }
+        qrCodes.add(criarQrCode("OPEN", hoje.plusDays(1)));
+        qrCodes.add(criarQrCode("CLOSED", hoje));
+        qrCodeRepository.saveAll(qrCodes);
+    }
+
+    @Test
+    void testPaginandoPorChave() {
+        FiltroQrCodeDTO filtro = new FiltroQrCodeDTO();
+        filtro.setStatus("OPEN");
+        filtro.setDataExpiracaoDe(hoje);
+        filtro.setDataExpiracaoAte(hoje);
+
+        List<QrCodeResumoDTO> primeira = qrCodeRepository.buscarResumos(filtro, 3);
+        filtro.setAposId(primeira.get(primeira.size() - 1).getId());
+        List<QrCodeResumoDTO> segunda = qrCodeRepository.buscarResumos(filtro, 3);
+
+        assertEquals(3, primeira.size(), "Primeira página deve ter 3 registros");
+        assertEquals(2, segunda.size(), "Segunda página deve ter os 2 registros restantes");
+        assertTrue(primeira.get(2).getId() < segunda.get(0).getId(), "Páginas devem seguir a ordem de ID");
+        assertTrue(segunda.stream().allMatch(resumo -> "OPEN".equals(resumo.getStatus()) && hoje.equals(resumo.getDataExpiracao())),
+                "Somente QR Codes abertos que expiram hoje devem ser listados");
+    }
+
+    @Test
+    void testFiltrandoPorVencimento() {
+        FiltroQrCodeDTO filtro = new FiltroQrCodeDTO();
+        filtro.setDataVencimentoDe(hoje.plusDays(6));
+
+        assertEquals(1, qrCodeRepository.buscarResumos(filtro, 10).size(), "Somente o QR Code que vence depois deve ser listado");
+    }
+
+    private QrCode criarQrCode(String status, LocalDate dataExpiracao) {
+        QrCode qrCode = new QrCode();
+        qrCode.setValor("100.00");
+        qrCode.setDescricao("Test QR Code");
+        qrCode.setStatus(status);
+        qrCode.setDataAtualizacao(hoje);
+        qrCode.setDataExpiracao(dataExpiracao);
+        qrCode.setDataVencimento(dataExpiracao.plusDays(5));
+        return qrCode;
+    }
+}
@@ -0,0 +1,110 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoRegistroDTO;
+import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeService;
+import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeServiceReativo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class QrCodeServiceReativoTest {
+
+    private QrCodeService qrCodeService;
+    private QrCodeServiceReativo qrCodeServiceReativo;
+
+    @BeforeEach
+    void setUp() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getReativo().setThreads(2);
+        qrCodeService = mock(QrCodeService.class);
+        qrCodeServiceReativo = new QrCodeServiceReativo(qrCodeService, propriedades);
+    }
+
+    @AfterEach
+    void encerrar() {
+        qrCodeServiceReativo.encerrar();
+    }
+
+    @Test
+    void testFluxoMantemOrdemELimitaConcorrencia() {
+        AtomicInteger emExecucao = new AtomicInteger();
+        AtomicInteger maximoEmExecucao = new AtomicInteger();
+        when(qrCodeService.cadastrarRegistroComImagem(anyLong(), any(QrCodeDTO.class))).thenAnswer(invocacao -> {
+            long indice = invocacao.getArgument(0);
+            maximoEmExecucao.accumulateAndGet(emExecucao.incrementAndGet(), Math::max);
+            Thread.sleep(indice % 2 == 0 ? 30 : 5);
+            emExecucao.decrementAndGet();
+            return new ResultadoRegistroDTO(indice, indice, indice + 100, true, null);
+        });
+
+        List<ResultadoRegistroDTO> resultados = qrCodeServiceReativo.gerarDadosQrCodeFluxo(registros(8))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(resultados);
+        assertEquals(8, resultados.size(), "Deve haver um resultado por registro");
+        for (int indice = 0; indice < resultados.size(); indice++) {
+            assertEquals(indice, resultados.get(indice).getIndice(), "Resultados devem sair na ordem de entrada");
+        }
+        assertTrue(maximoEmExecucao.get() <= 2, "No máximo duas gerações devem rodar ao mesmo tempo");
+    }
+
+    @Test
+    void testFluxoPedeRegistrosConformeConsumo() {
+        AtomicInteger pedidos = new AtomicInteger();
+        when(qrCodeService.cadastrarRegistroComImagem(anyLong(), any(QrCodeDTO.class))).thenAnswer(invocacao ->
+                new ResultadoRegistroDTO(invocacao.getArgument(0), null, 1L, true, null));
+
+        List<ResultadoRegistroDTO> resultados = qrCodeServiceReativo.gerarDadosQrCodeFluxo(registros(1000).doOnNext(registro -> pedidos.incrementAndGet()))
+                .take(3, true)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(resultados);
+        assertEquals(3, resultados.size(), "Deve haver três resultados");
+        assertTrue(pedidos.get() <= 5, "Apenas os registros demandados e os em processamento devem ser lidos");
+    }
+
+    @Test
+    void testFalhaDeUmRegistroNaoInterrompeFluxo() {
+        when(qrCodeService.cadastrarRegistroComImagem(anyLong(), any(QrCodeDTO.class))).thenAnswer(invocacao -> {
+            long indice = invocacao.getArgument(0);
+            if (indice == 1) {
+                throw new IllegalStateException("Banco indisponível");
+            }
+            return new ResultadoRegistroDTO(indice, indice, indice + 100, true, null);
+        });
+
+        List<ResultadoRegistroDTO> resultados = qrCodeServiceReativo.gerarDadosQrCodeFluxo(registros(3))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(resultados);
+        assertEquals(3, resultados.size(), "Deve haver um resultado por registro");
+        assertEquals("Banco indisponível", resultados.get(1).getErro(), "Falha deve ser devolvida no resultado do registro");
+        assertNull(resultados.get(1).getId(), "Registro com falha não deve ter ID");
+        assertTrue(resultados.get(2).isImagemGerada(), "Registros seguintes devem ser cadastrados");
+    }
+
+    private static Flux<QrCodeDTO> registros(int quantidade) {
+        return Flux.range(0, quantidade).map(indice -> {
+            QrCodeDTO dto = new QrCodeDTO();
+            dto.setId((long) indice);
+            dto.setValor("10.00");
+            return dto;
+        });
+    }
+}
@@ -1,33 +1,103 @@
 package codigo.cadastroqrcode.qrcodecadastro;
 
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.CadastroQrCodeRespostaDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroCampoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.FiltroQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.PaginaQrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.QrCodeResumoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoLoteDTO;
 import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.exception.ConflitoIdempotenciaException;
+import codigo.cadastroqrcode.qrcodecadastro.exception.FilaRenderizacaoCheiaException;
 import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.service.CacheImagemQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.CodificadorPayload;
+import codigo.cadastroqrcode.qrcodecadastro.service.ExpiracaoQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.FilaRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.service.GravacaoAgrupada;
+import codigo.cadastroqrcode.qrcodecadastro.service.ImagemQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.JanelaIdempotencia;
+import codigo.cadastroqrcode.qrcodecadastro.service.LimitadorJdbc;
+import codigo.cadastroqrcode.qrcodecadastro.service.MetricasQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.PerfilRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.service.PerfisRenderizacao;
 import codigo.cadastroqrcode.qrcodecadastro.service.QrCodeService;
+import codigo.cadastroqrcode.qrcodecadastro.service.ResultadoCadastro;
+import codigo.cadastroqrcode.qrcodecadastro.storage.MemoriaQrImageStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.Spy;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
-@DataJpaTest
-@Import(QrCodeService.class)
+@DataJpaTest(properties = "qrcode.armazenamento.tipo=memoria")
+@Import({QrCodeService.class, FilaRenderizacao.class, CacheImagemQrCode.class, MemoriaQrImageStore.class, MetricasQrCode.class,
+        JanelaIdempotencia.class, LimitadorJdbc.class, CodificadorPayload.class, PerfisRenderizacao.class, GravacaoAgrupada.class, QrCodeServiceTest.ConfiguracaoMetricas.class})
 @DirtiesContext
 public class QrCodeServiceTest {
 
     @Mock
     private QrCodeRepository qrCodeRepository;
 
+    @Mock
+    private FilaRenderizacao filaRenderizacao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private QrCodeProperties propriedades = new QrCodeProperties();
+
+    @Spy
+    private CacheImagemQrCode cacheImagem = new CacheImagemQrCode(new QrCodeProperties());
+
+    @Spy
+    private MemoriaQrImageStore qrImageStore = new MemoriaQrImageStore();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private MetricasQrCode metricas = new MetricasQrCode(ObservationRegistry.NOOP, meterRegistry);
+
+    @Spy
+    private JanelaIdempotencia janelaIdempotencia = new JanelaIdempotencia(new QrCodeProperties(), metricas);
+
+    @Spy
+    private LimitadorJdbc limitadorJdbc = new LimitadorJdbc(new QrCodeProperties());
+
+    @Spy
+    private CodificadorPayload codificadorPayload = new CodificadorPayload(new QrCodeProperties());
+
+    @Spy
+    private PerfisRenderizacao perfis = new PerfisRenderizacao(new QrCodeProperties());
+
+    @Spy
+    private GravacaoAgrupada gravacaoAgrupada = new GravacaoAgrupada(null, null, new QrCodeProperties(), null, meterRegistry);
+
     @InjectMocks
     private QrCodeService qrCodeService;
 
@@ -57,7 +127,7 @@ public class QrCodeServiceTest {
         qrCode = qrCodeRepository.save(qrCode);
         Long id = qrCode.getId();
 
-        assertDoesNotThrow(() -> qrCodeService.gerarDadosQrCode(id, valor, descricao, status, dataAtualizacao, dataExpiracao));
+        assertTrue(qrCodeService.gerarDadosQrCode(id, valor, descricao, status, dataAtualizacao, dataExpiracao).isValido(), "Cadastro deve ser válido");
 
         QrCode dadosQrCode = qrCodeRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("QrCode não encontrado com o id " + id));
         assertNotNull(dadosQrCode, "QrCode não deve ser nulo");
@@ -99,7 +169,8 @@ public class QrCodeServiceTest {
         qrCode = qrCodeRepository.save(qrCode);
         Long idGenerated = qrCode.getId();
 
-        assertDoesNotThrow(() -> qrCodeService.gerarDadosQrCodeVencimento(idGenerated, valor, descricao, status, dataAtualizacao, dataExpiracao, dataVencimento));
+        assertTrue(qrCodeService.gerarDadosQrCodeVencimento(idGenerated, valor, descricao, status, dataAtualizacao, dataExpiracao, dataVencimento).isValido(),
+                "Cadastro deve ser válido");
 
         QrCode dadosQrCode = qrCodeRepository.findById(idGenerated).orElseThrow(() -> new EntityNotFoundException("QrCode não encontrado com o id " + idGenerated));
         assertNotNull(dadosQrCode, "QrCode não deve ser nulo");
@@ -154,7 +225,7 @@ public class QrCodeServiceTest {
         LocalDate dataAtualizacao = LocalDate.now();
         LocalDate dataExpiracao = LocalDate.now().plusDays(10);
 
-        assertDoesNotThrow(() -> qrCodeService.validarDadosQrCode(id, valor, dataAtualizacao, dataExpiracao));
+        assertTrue(qrCodeService.validarDadosQrCode(id, valor, dataAtualizacao, dataExpiracao).isEmpty(), "Dados válidos não devem ter erros");
     }
 
     @Test
@@ -164,20 +235,418 @@ public class QrCodeServiceTest {
         LocalDate dataAtualizacao = null;
         LocalDate dataExpiracao = null;
 
-        assertThrows(IllegalArgumentException.class, () -> qrCodeService.validarDadosQrCode(id, valor, dataAtualizacao, dataExpiracao), "Deve lançar IllegalArgumentException");
+        assertEquals(List.of("id", "valor", "dataAtualizacao", "dataExpiracao"),
+                qrCodeService.validarDadosQrCode(id, valor, dataAtualizacao, dataExpiracao).stream().map(ErroCampoDTO::getCampo).toList());
+    }
+
+    @Test
+    void testValidacaoDevolveTodosOsErrosDeCampo() {
+        ResultadoCadastro resultado = qrCodeService.gerarDadosQrCodeVencimento(null, "abc", "Teste", "OPEN", LocalDate.now(), null, null);
+
+        assertFalse(resultado.isValido(), "Cadastro inválido deve devolver os erros");
+        assertNull(resultado.getResposta(), "Cadastro inválido não deve ter resposta");
+        assertEquals(List.of("id", "valor", "dataExpiracao", "dataVencimento"), resultado.getErros().stream().map(ErroCampoDTO::getCampo).toList());
+        verify(qrCodeRepository, never()).save(any(QrCode.class));
+    }
+
+    @Test
+    void testValorGravadoEmCentavos() {
+        when(qrCodeRepository.save(any(QrCode.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        qrCodeService.gerarDadosQrCode(1L, "1599.9", "Teste", "OPEN", LocalDate.now(), LocalDate.now().plusDays(10));
+
+        verify(qrCodeRepository).save(argThat(qrCode -> qrCode.getValorCentavos() == 159990L && "1599.9".equals(qrCode.getValor())));
     }
 
     @Test
     void testValidarDataVencimento() {
         LocalDate dataVencimento = LocalDate.now().plusDays(5);
 
-        assertDoesNotThrow(() -> qrCodeService.validarDataVencimento(dataVencimento));
+        assertTrue(qrCodeService.validarDataVencimento(dataVencimento).isEmpty(), "Data futura não deve ter erros");
     }
 
     @Test
     void testValidarDataVencimentoInvalid() {
         LocalDate dataVencimento = LocalDate.now().minusDays(1);
 
-        assertThrows(IllegalArgumentException.class, () -> qrCodeService.validarDataVencimento(dataVencimento), "Deve lançar IllegalArgumentException");
+        assertEquals(List.of("dataVencimento"), qrCodeService.validarDataVencimento(dataVencimento).stream().map(ErroCampoDTO::getCampo).toList());
+    }
+
+    @Test
+    void testFilaRenderizacaoCheia() {
+        doThrow(new FilaRenderizacaoCheiaException("Fila de renderização cheia")).when(filaRenderizacao).reservarVaga();
+
+        assertThrows(FilaRenderizacaoCheiaException.class, () -> qrCodeService.gerarDadosQrCode(1L, "100.00", "Test QR Code", null,
+                LocalDate.now(), LocalDate.now().plusDays(10)), "Deve lançar FilaRenderizacaoCheiaException");
+        verify(qrCodeRepository, never()).save(any(QrCode.class));
+        verify(filaRenderizacao, never()).enfileirar(anyLong(), any());
+    }
+
+    @Test
+    void testGerandoImagemQrCode() throws Exception {
+        QrCode qrCode = new QrCode();
+        qrCode.setId(1L);
+        qrCode.setValor("100.00");
+        qrCode.setStatus("OPEN");
+        qrCode.setDataAtualizacao(LocalDate.now());
+        qrCode.setDataExpiracao(LocalDate.now().plusDays(10));
+        when(qrCodeRepository.findById(1L)).thenReturn(Optional.of(qrCode));
+
+        ImagemQrCode imagem = qrCodeService.prepararImagem(1L, 200, "png");
+        byte[] conteudo = qrCodeService.gerarImagem(imagem);
+        byte[] conteudoEmCache = qrCodeService.gerarImagem(qrCodeService.prepararImagem(1L, 200, "png"));
+
+        assertTrue(imagem.getEtag().startsWith("\"") && imagem.getEtag().endsWith("\""), "ETag deve ser forte");
+        assertNotEquals(imagem.getEtag(), qrCodeService.prepararImagem(1L, 300, "png").getEtag(), "ETag deve variar com o tamanho");
+        assertSame(conteudo, conteudoEmCache, "Segunda geração deve vir do cache");
+        verify(cacheImagem, times(1)).armazenar(anyString(), any(byte[].class));
+    }
+
+    @Test
+    void testImagemQrCodeNaoEncontrado() {
+        when(qrCodeRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> qrCodeService.prepararImagem(99L, 400, "png"), "Deve lançar EntityNotFoundException");
+        assertThrows(IllegalArgumentException.class, () -> qrCodeService.prepararImagem(1L, 10, "png"), "Deve lançar IllegalArgumentException");
+        assertThrows(IllegalArgumentException.class, () -> qrCodeService.prepararImagem(1L, "inexistente", null, null), "Perfil desconhecido deve ser recusado");
+    }
+
+    @Test
+    void testGerandoDadosQrCodeLote() {
+        propriedades.getLote().setTamanhoBloco(2);
+        List<QrCodeDTO> lote = Arrays.asList(criarQrCodeDTO(10L, "100.00"), criarQrCodeDTO(11L, "50.00"), criarQrCodeDTO(12L, "1.99"));
+
+        long[] sequencia = {0};
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QrCode> bloco = invocation.getArgument(0);
+            bloco.forEach(qrCode -> qrCode.setId(++sequencia[0]));
+            return bloco;
+        });
+
+        ResultadoLoteDTO resultado = qrCodeService.gerarDadosQrCodeLote(lote);
+
+        assertTrue(resultado.getErros().isEmpty(), "Lote válido não deve ter erros");
+        assertEquals(3, resultado.getTotalRegistros(), "Total de registros deve ser 3");
+        assertEquals(3, resultado.getTotalCadastrados(), "Total de cadastrados deve ser 3");
+        verify(qrCodeRepository, times(2)).saveAll(anyList());
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+        for (long id = 1; id <= 3; id++) {
+            assertTrue(qrImageStore.ler(QrCodeService.chaveImagem(id)).isPresent(), "Imagem do QR Code " + id + " deve ser armazenada");
+        }
+    }
+
+    @Test
+    void testFalhaNoLoteDesfazTodosOsBlocos() throws IOException {
+        propriedades.getLote().setTamanhoBloco(1);
+        List<QrCodeDTO> lote = Arrays.asList(criarQrCodeDTO(10L, "100.00"), criarQrCodeDTO(11L, "50.00"));
+
+        when(qrCodeRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("Violação de restrição"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> qrCodeService.gerarDadosQrCodeLote(lote));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(qrImageStore, never()).salvar(anyString(), any());
+    }
+
+    @Test
+    void testIdInformadoNaoGravado() {
+        List<Long> idsGravados = new ArrayList<>();
+        when(qrCodeRepository.save(any(QrCode.class))).thenAnswer(invocation -> {
+            QrCode qrCode = invocation.getArgument(0);
+            idsGravados.add(qrCode.getId());
+            qrCode.setId(7L);
+            return qrCode;
+        });
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QrCode> bloco = invocation.getArgument(0);
+            bloco.forEach(qrCode -> {
+                idsGravados.add(qrCode.getId());
+                qrCode.setId(8L);
+            });
+            return bloco;
+        });
+
+        qrCodeService.gerarDadosQrCode(1L, "100.00", "Teste", "OPEN", LocalDate.now(), LocalDate.now().plusDays(10));
+        qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(2L, "50.00")));
+
+        assertEquals(Arrays.asList(null, null), idsGravados, "O ID informado pelo cliente não deve ser gravado");
+    }
+
+    @Test
+    void testGerandoDadosQrCodeLoteInvalido() {
+        List<QrCodeDTO> lote = Arrays.asList(criarQrCodeDTO(10L, "100.00"), criarQrCodeDTO(11L, "0"), null);
+
+        ResultadoLoteDTO resultado = qrCodeService.gerarDadosQrCodeLote(lote);
+
+        assertEquals(2, resultado.getErros().size(), "Devem ser reportados dois erros");
+        assertEquals(1, resultado.getErros().get(0).getIndice(), "Primeiro erro deve ser do registro 1");
+        assertEquals(11L, resultado.getErros().get(0).getId(), "Primeiro erro deve trazer o ID informado");
+        assertEquals(2, resultado.getErros().get(1).getIndice(), "Segundo erro deve ser do registro 2");
+        assertEquals(0, resultado.getTotalCadastrados(), "Nenhum registro deve ser cadastrado");
+        verify(qrCodeRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testFalhaRenderizacaoContada() throws IOException {
+        doThrow(new IOException("Disco cheio")).when(qrImageStore).salvar(anyString(), any());
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QrCode> bloco = invocation.getArgument(0);
+            bloco.forEach(qrCode -> qrCode.setId(1L));
+            return bloco;
+        });
+
+        ResultadoLoteDTO resultado = qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(10L, "100.00")));
+
+        assertEquals(1, resultado.getFalhasRenderizacao(), "Falha de gravação deve ser reportada no lote");
+        assertEquals(1.0, meterRegistry.get("qrcode.renderizacao.falhas").tag("causa", "IOException").counter().count(),
+                "Falha de gravação deve ser contada pela causa");
+    }
+
+    @Test
+    void testVariantesGeradasDaMesmaMatriz() throws Exception {
+        QrCodeProperties comVariantes = new QrCodeProperties();
+        QrCodeProperties.Perfil miniatura = new QrCodeProperties.Perfil();
+        miniatura.setTamanho(128);
+        miniatura.setMargem(2);
+        QrCodeProperties.Perfil vetor = new QrCodeProperties.Perfil();
+        vetor.setFormato(PerfilRenderizacao.FORMATO_SVG);
+        comVariantes.getPerfis().put("miniatura", miniatura);
+        comVariantes.getPerfis().put("vetor", vetor);
+        comVariantes.getRenderizacao().setVariantes(List.of("miniatura", "vetor"));
+        List<PerfilRenderizacao> armazenados = new PerfisRenderizacao(comVariantes).armazenados();
+        doReturn(armazenados).when(perfis).armazenados();
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QrCode> bloco = invocation.getArgument(0);
+            bloco.forEach(qrCode -> qrCode.setId(1L));
+            return bloco;
+        });
+
+        qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(10L, "100.00")));
+
+        assertEquals(3, armazenados.size(), "Cadastro e duas variantes devem ser armazenados");
+        for (PerfilRenderizacao perfil : armazenados) {
+            assertTrue(qrImageStore.ler(QrCodeService.chaveImagem(1L, perfil)).isPresent(), "Imagem do perfil " + perfil.getNome() + " deve ser armazenada");
+        }
+        assertEquals("QRCode-1-vetor.svg", QrCodeService.chaveImagem(1L, armazenados.get(2)));
+        verify(metricas, times(1)).medir(eq(MetricasQrCode.ETAPA_CODIFICACAO), any());
+    }
+
+    @Test
+    void testVarianteArmazenadaServida() throws Exception {
+        QrCodeProperties comVariantes = new QrCodeProperties();
+        QrCodeProperties.Perfil miniatura = new QrCodeProperties.Perfil();
+        miniatura.setTamanho(128);
+        comVariantes.getPerfis().put("miniatura", miniatura);
+        comVariantes.getRenderizacao().setVariantes(List.of("miniatura"));
+        PerfisRenderizacao comMiniatura = new PerfisRenderizacao(comVariantes);
+        doReturn(comMiniatura.armazenados()).when(perfis).armazenados();
+        doReturn(comMiniatura.obter("miniatura")).when(perfis).obter("miniatura");
+        QrCode qrCode = new QrCode();
+        qrCode.setId(1L);
+        qrCode.setValor("100.00");
+        qrCode.setStatus("OPEN");
+        when(qrCodeRepository.findById(1L)).thenReturn(Optional.of(qrCode));
+        byte[] armazenada = {1, 2, 3};
+        qrImageStore.salvar("QRCode-1-miniatura.png", destino -> destino.write(armazenada));
+
+        ImagemQrCode imagem = qrCodeService.prepararImagem(1L, "miniatura", null, null);
+        qrImageStore.salvar(QrCodeService.chaveEtag("QRCode-1-miniatura.png"), destino -> destino.write(imagem.getEtag().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("QRCode-1-miniatura.png", imagem.getChaveArmazenada());
+        assertArrayEquals(armazenada, qrCodeService.gerarImagem(imagem), "Variante armazenada deve ser servida sem renderizar");
+        assertNull(qrCodeService.prepararImagem(1L, "miniatura", 200, null).getChaveArmazenada(), "Tamanho próprio deve ser renderizado");
+        verify(metricas, never()).medir(eq(MetricasQrCode.ETAPA_CODIFICACAO), any());
+    }
+
+    @Test
+    void testImagemArmazenadaComOutroConteudoNaoServida() throws Exception {
+        List<QrCode> gravados = new ArrayList<>();
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QrCode> bloco = invocation.getArgument(0);
+            bloco.forEach(qrCode -> qrCode.setId(1L));
+            gravados.addAll(bloco);
+            return bloco;
+        });
+        qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(10L, "100.00")));
+        QrCode qrCode = gravados.get(0);
+        qrCode.setStatus(ExpiracaoQrCode.STATUS_ABERTO);
+        when(qrCodeRepository.findById(1L)).thenReturn(Optional.of(qrCode));
+        when(qrCodeRepository.findAllById(List.of(1L))).thenReturn(List.of(qrCode));
+        assertEquals(1, qrCodeService.regravarImagens(List.of(1L)), "Imagens devem ser gravadas com o status atual");
+        byte[] armazenada = qrImageStore.ler(QrCodeService.chaveImagem(1L)).orElseThrow();
+        clearInvocations(metricas);
+
+        ImagemQrCode aberto = qrCodeService.prepararImagem(1L, null, null, null);
+        assertArrayEquals(armazenada, qrCodeService.gerarImagem(aberto), "Imagem gravada com o conteúdo atual deve ser servida");
+        verify(metricas, never()).medir(eq(MetricasQrCode.ETAPA_CODIFICACAO), any());
+
+        qrCode.setStatus(ExpiracaoQrCode.STATUS_EXPIRADO);
+        ImagemQrCode expirado = qrCodeService.prepararImagem(1L, null, null, null);
+
+        assertNotEquals(aberto.getEtag(), expirado.getEtag(), "Mudança de status deve mudar o ETag");
+        assertFalse(Arrays.equals(armazenada, qrCodeService.gerarImagem(expirado)), "Imagem gravada com outro conteúdo não deve ser servida");
+        verify(metricas).medir(eq(MetricasQrCode.ETAPA_CODIFICACAO), any());
+    }
+
+    @Test
+    void testRenderizacaoDuplicadaReaproveitada() throws IOException {
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QrCode> bloco = invocation.getArgument(0);
+            bloco.forEach(qrCode -> qrCode.setId(1L));
+            return bloco;
+        });
+
+        qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(10L, "100.00")));
+        qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(10L, "100.00")));
+
+        verify(qrImageStore, times(1)).salvar(eq(QrCodeService.chaveImagem(1L)), any());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "qrcode.renderizacao").tag("result", "hit").functionCounter().count(),
+                "Reenvio do mesmo conteúdo deve ser um acerto no cache de renderização");
+    }
+
+    @Test
+    void testCadastroRepetidoComOutroIdTemImagemPropria() throws IOException {
+        AtomicLong sequencia = new AtomicLong();
+        when(qrCodeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<QrCode> bloco = invocation.getArgument(0);
+            bloco.forEach(qrCode -> qrCode.setId(sequencia.incrementAndGet()));
+            return bloco;
+        });
+
+        qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(10L, "100.00")));
+        qrCodeService.gerarDadosQrCodeLote(List.of(criarQrCodeDTO(10L, "100.00")));
+
+        verify(qrImageStore, times(1)).salvar(eq(QrCodeService.chaveImagem(1L)), any());
+        verify(qrImageStore, times(1)).salvar(eq(QrCodeService.chaveImagem(2L)), any());
+        assertFalse(Arrays.equals(qrImageStore.ler(QrCodeService.chaveImagem(1L)).orElseThrow(), qrImageStore.ler(QrCodeService.chaveImagem(2L)).orElseThrow()),
+                "Cada cadastro deve ter a imagem com o próprio ID");
+        assertEquals(0.0, meterRegistry.get("cache.gets").tag("cache", "qrcode.renderizacao").tag("result", "hit").functionCounter().count(),
+                "Cadastros com IDs diferentes não devem acertar o cache de renderização");
+    }
+
+    @Test
+    void testCadastroIdempotente() {
+        when(qrCodeRepository.save(any(QrCode.class))).thenAnswer(invocation -> {
+            QrCode savedQrCode = invocation.getArgument(0);
+            savedQrCode.setId(1L);
+            return savedQrCode;
+        });
+        when(filaRenderizacao.enfileirar(anyLong(), any())).thenReturn("tarefa-1");
+        LocalDate hoje = LocalDate.now();
+
+        CadastroQrCodeRespostaDTO original = qrCodeService.gerarDadosQrCode(1L, "100.00", "Test QR Code", null, hoje, hoje.plusDays(10), "chave-1").getResposta();
+        CadastroQrCodeRespostaDTO repetido = qrCodeService.gerarDadosQrCode(1L, "100.00", "Test QR Code", null, hoje, hoje.plusDays(10), "chave-1").getResposta();
+
+        assertEquals(original, repetido, "Repetição deve devolver o resultado original");
+        assertNotSame(original, repetido, "Resultado da janela deve ser uma cópia");
+        verify(qrCodeRepository, times(1)).save(any(QrCode.class));
+        verify(filaRenderizacao, times(1)).reservarVaga();
+        verify(qrCodeRepository, times(1)).findByChaveIdempotencia("chave-1");
+    }
+
+    @Test
+    void testCadastroIdempotenteForaDaJanela() {
+        QrCode existente = new QrCode();
+        existente.setId(7L);
+        existente.setChaveIdempotencia("chave-2");
+        when(qrCodeRepository.findByChaveIdempotencia("chave-2")).thenReturn(Optional.of(existente));
+        LocalDate hoje = LocalDate.now();
+
+        CadastroQrCodeRespostaDTO resposta = qrCodeService.gerarDadosQrCodeVencimento(1L, "100.00", "Test QR Code", null, hoje, hoje.plusDays(10),
+                hoje.plusDays(5), "chave-2").getResposta();
+
+        assertEquals(7L, resposta.getId(), "Repetição deve devolver o ID do cadastro gravado");
+        assertNull(resposta.getIdTarefaRenderizacao(), "Tarefa original não é conhecida fora da janela");
+        verify(qrCodeRepository, never()).save(any(QrCode.class));
+        verify(filaRenderizacao, never()).reservarVaga();
+    }
+
+    @Test
+    void testCadastroIdempotenteForaDaJanelaSemVaga() {
+        QrCode existente = new QrCode();
+        existente.setId(9L);
+        existente.setChaveIdempotencia("chave-5");
+        when(qrCodeRepository.findByChaveIdempotencia("chave-5")).thenReturn(Optional.of(existente));
+        doNothing().when(janelaIdempotencia).registrar(anyString(), any(), any());
+        LocalDate hoje = LocalDate.now();
+
+        CadastroQrCodeRespostaDTO resposta = qrCodeService.gerarDadosQrCode(1L, "100.00", "Test QR Code", null, hoje, hoje.plusDays(10), "chave-5").getResposta();
+
+        assertEquals(9L, resposta.getId(), "Repetição deve devolver o cadastro gravado mesmo sem vaga na janela");
+        verify(qrCodeRepository, never()).save(any(QrCode.class));
+    }
+
+    @Test
+    void testChaveIdempotenteRepetidaComOutraRequisicaoRecusada() {
+        when(qrCodeRepository.save(any(QrCode.class))).thenAnswer(invocation -> {
+            QrCode savedQrCode = invocation.getArgument(0);
+            savedQrCode.setId(1L);
+            return savedQrCode;
+        });
+        LocalDate hoje = LocalDate.now();
+        qrCodeService.gerarDadosQrCode(1L, "100.00", "Test QR Code", null, hoje, hoje.plusDays(10), "chave-3");
+
+        assertThrows(ConflitoIdempotenciaException.class,
+                () -> qrCodeService.gerarDadosQrCode(1L, "200.00", "Test QR Code", null, hoje, hoje.plusDays(10), "chave-3"),
+                "Mesma chave com outro corpo deve ser recusada");
+        assertThrows(ConflitoIdempotenciaException.class,
+                () -> qrCodeService.gerarDadosQrCodeVencimento(1L, "100.00", "Test QR Code", null, hoje, hoje.plusDays(10), null, "chave-3"),
+                "Mesma chave em outro endpoint deve ser recusada");
+
+        QrCode existente = new QrCode();
+        existente.setId(8L);
+        existente.setChaveIdempotencia("chave-4");
+        existente.setHashRequisicao("0".repeat(64));
+        when(qrCodeRepository.findByChaveIdempotencia("chave-4")).thenReturn(Optional.of(existente));
+        assertThrows(ConflitoIdempotenciaException.class,
+                () -> qrCodeService.gerarDadosQrCode(1L, "100.00", "Test QR Code", null, hoje, hoje.plusDays(10), "chave-4"),
+                "Cadastro gravado com outra requisição deve ser recusado fora da janela");
+        verify(qrCodeRepository, times(1)).save(any(QrCode.class));
+    }
+
+    @Test
+    void testConsultandoQrCodesPaginados() {
+        FiltroQrCodeDTO filtro = new FiltroQrCodeDTO();
+        filtro.setLimite(2);
+        QrCodeResumoDTO resumo = new QrCodeResumoDTO();
+        resumo.setId(5L);
+        when(qrCodeRepository.buscarResumos(filtro, 3)).thenReturn(List.of(new QrCodeResumoDTO(), resumo, new QrCodeResumoDTO()));
+
+        PaginaQrCodeDTO pagina = qrCodeService.consultarQrCodes(filtro);
+
+        assertEquals(2, pagina.getItens().size(), "Página deve respeitar o limite");
+        assertEquals(5L, pagina.getProximoAposId(), "Cursor deve ser o ID do último item da página");
+
+        filtro.setDataExpiracaoDe(LocalDate.now());
+        filtro.setDataExpiracaoAte(LocalDate.now().minusDays(1));
+        assertThrows(IllegalArgumentException.class, () -> qrCodeService.consultarQrCodes(filtro), "Intervalo invertido deve ser recusado");
+    }
+
+    private QrCodeDTO criarQrCodeDTO(Long id, String valor) {
+        QrCodeDTO qrCodeDTO = new QrCodeDTO();
+        qrCodeDTO.setId(id);
+        qrCodeDTO.setValor(valor);
+        qrCodeDTO.setDescricao("Test QR Code");
+        qrCodeDTO.setDataAtualizacao(LocalDate.now());
+        qrCodeDTO.setDataExpiracao(LocalDate.now().plusDays(10));
+        return qrCodeDTO;
+    }
+
+    @TestConfiguration
+    static class ConfiguracaoMetricas {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry() {
+            return ObservationRegistry.create();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.service.RenderizadorQrCode;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderizadorQrCodeTest {
+
+    private static final String DADOS = "ID: 1\nValor: 100.00\nDescrição: Test QR Code\nStatus: OPEN";
+
+    @Test
+    void testPngReproduzMatrizAmpliada() throws Exception {
+        BitMatrix matriz = new QRCodeWriter().encode(DADOS, BarcodeFormat.QR_CODE, 0, 0);
+        int escala = RenderizadorQrCode.escalaPara(matriz, 400);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        RenderizadorQrCode.escreverPng(matriz, escala, saida);
+        BufferedImage imagem = ImageIO.read(new ByteArrayInputStream(saida.toByteArray()));
+
+        assertEquals(matriz.getWidth() * escala, imagem.getWidth(), "Largura deve ser a matriz ampliada");
+        assertEquals(matriz.getHeight() * escala, imagem.getHeight(), "Altura deve ser a matriz ampliada");
+        assertTrue(imagem.getWidth() <= 400, "Imagem não deve ultrapassar o tamanho desejado");
+        for (int y = 0; y < imagem.getHeight(); y++) {
+            for (int x = 0; x < imagem.getWidth(); x++) {
+                boolean preto = (imagem.getRGB(x, y) & 0xffffff) == 0;
+                assertEquals(matriz.get(x / escala, y / escala), preto, "Pixel (" + x + ", " + y + ") deve seguir o módulo");
+            }
+        }
+    }
+
+    @Test
+    void testPngComMargemAplicadaNaRenderizacao() throws Exception {
+        BitMatrix matriz = new QRCodeWriter().encode(DADOS, BarcodeFormat.QR_CODE, 0, 0, Map.of(EncodeHintType.MARGIN, 0));
+        int margem = 2;
+        int escala = RenderizadorQrCode.escalaPara(matriz, margem, 400);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        RenderizadorQrCode.escreverPng(matriz, margem, escala, saida);
+        BufferedImage imagem = ImageIO.read(new ByteArrayInputStream(saida.toByteArray()));
+
+        assertEquals((matriz.getWidth() + 2 * margem) * escala, imagem.getWidth(), "Largura deve incluir a margem dos dois lados");
+        assertTrue(imagem.getWidth() <= 400, "Imagem não deve ultrapassar o tamanho desejado");
+        for (int y = 0; y < imagem.getHeight(); y++) {
+            for (int x = 0; x < imagem.getWidth(); x++) {
+                int modX = x / escala - margem;
+                int modY = y / escala - margem;
+                boolean dentro = modX >= 0 && modY >= 0 && modX < matriz.getWidth() && modY < matriz.getHeight();
+                boolean preto = (imagem.getRGB(x, y) & 0xffffff) == 0;
+                assertEquals(dentro && matriz.get(modX, modY), preto, "Pixel (" + x + ", " + y + ") deve seguir o módulo ou a margem");
+            }
+        }
+    }
+
+    @Test
+    void testPngMenorQueCaminhoLegado() throws Exception {
+        BitMatrix matriz = new QRCodeWriter().encode(DADOS, BarcodeFormat.QR_CODE, 0, 0);
+        ByteArrayOutputStream otimizado = new ByteArrayOutputStream();
+        RenderizadorQrCode.escreverPng(matriz, RenderizadorQrCode.escalaPara(matriz, 400), otimizado);
+
+        ByteArrayOutputStream legado = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(new QRCodeWriter().encode(DADOS, BarcodeFormat.QR_CODE, 400, 400), "png", legado);
+
+        assertTrue(otimizado.size() < legado.size(), "PNG de 1 bit deve ser menor que o PNG do caminho legado");
+    }
+
+    @Test
+    void testPngIgualComBuffersCompartilhadosEntreThreads() throws Exception {
+        BitMatrix matriz = new QRCodeWriter().encode(DADOS, BarcodeFormat.QR_CODE, 0, 0);
+        int escala = RenderizadorQrCode.escalaPara(matriz, 400);
+        ByteArrayOutputStream referencia = new ByteArrayOutputStream();
+        RenderizadorQrCode.escreverPng(matriz, escala, referencia);
+
+        ExecutorService threadPorTarefa = Executors.newCachedThreadPool();
+        try {
+            List<Future<byte[]>> imagens = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                imagens.add(threadPorTarefa.submit(() -> {
+                    ByteArrayOutputStream saida = new ByteArrayOutputStream();
+                    RenderizadorQrCode.escreverPng(matriz, escala, saida);
+                    return saida.toByteArray();
+                }));
+            }
+            for (Future<byte[]> imagem : imagens) {
+                assertArrayEquals(referencia.toByteArray(), imagem.get(), "Renderizações simultâneas devem gerar o mesmo PNG");
+            }
+        } finally {
+            threadPorTarefa.shutdown();
+        }
+    }
+
+    @Test
+    void testSvg() throws Exception {
+        BitMatrix matriz = new QRCodeWriter().encode(DADOS, BarcodeFormat.QR_CODE, 0, 0);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        RenderizadorQrCode.escreverSvg(matriz, 10, saida);
+        String svg = saida.toString(StandardCharsets.US_ASCII);
+
+        assertTrue(svg.startsWith("<svg "), "Saída deve ser um SVG");
+        assertTrue(svg.contains("width=\"" + matriz.getWidth() * 10 + "\""), "Largura deve considerar a escala");
+        assertTrue(svg.endsWith("</svg>"), "SVG deve ser fechado");
+    }
+}
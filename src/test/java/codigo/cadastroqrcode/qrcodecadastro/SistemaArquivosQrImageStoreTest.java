@@ -0,0 +1,83 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.storage.SistemaArquivosQrImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SistemaArquivosQrImageStoreTest {
+
+    @TempDir
+    Path diretorio;
+
+    private SistemaArquivosQrImageStore qrImageStore;
+
+    @BeforeEach
+    void criarArmazenamento() {
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getArmazenamento().setDiretorio(diretorio.toString());
+        qrImageStore = new SistemaArquivosQrImageStore(propriedades);
+    }
+
+    @Test
+    void testSalvandoImagemEmSubdiretorios() throws IOException {
+        String local = qrImageStore.salvar("QRCode-1.png", saida -> saida.write(new byte[]{1, 2, 3}));
+
+        Path caminho = Paths.get(local);
+        assertEquals(diretorio, caminho.getParent().getParent().getParent(), "Imagem deve ficar em dois níveis de subdiretórios");
+        assertArrayEquals(new byte[]{1, 2, 3}, qrImageStore.ler("QRCode-1.png").orElseThrow(), "Conteúdo lido deve ser igual ao gravado");
+        assertTrue(qrImageStore.ler("QRCode-2.png").isEmpty(), "Imagem não gravada não deve existir");
+    }
+
+    @Test
+    void testTotalDasImagensExistentesSomadoEmSegundoPlano() throws Exception {
+        qrImageStore.salvar("QRCode-1.png", saida -> saida.write(new byte[100]));
+        qrImageStore.salvar("QRCode-2.png", saida -> saida.write(new byte[50]));
+        QrCodeProperties propriedades = new QrCodeProperties();
+        propriedades.getArmazenamento().setDiretorio(diretorio.toString());
+
+        SistemaArquivosQrImageStore reaberto = new SistemaArquivosQrImageStore(propriedades);
+        reaberto.salvar("QRCode-3.png", saida -> saida.write(new byte[10]));
+        while (!reaberto.isTotalConhecido()) {
+            Thread.sleep(5);
+        }
+
+        long total = reaberto.bytesArmazenados();
+        assertTrue(total == 160 || total == 170, "Imagens existentes e gravadas depois da inicialização devem ser somadas: " + total);
+        assertTrue(reaberto.remover("QRCode-1.png"));
+        assertEquals(total - 100, reaberto.bytesArmazenados());
+    }
+
+    @Test
+    void testFalhaNaEscritaNaoDeixaArquivos() throws IOException {
+        assertThrows(IOException.class, () -> qrImageStore.salvar("QRCode-1.png", saida -> {
+            saida.write(1);
+            throw new IOException("Falha simulada");
+        }));
+
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            assertEquals(0, arquivos.filter(Files::isRegularFile).count(), "Nenhum arquivo deve permanecer após a falha");
+        }
+        assertTrue(qrImageStore.ler("QRCode-1.png").isEmpty(), "Imagem com falha não deve ser lida");
+    }
+
+    @Test
+    void testSubstituindoERemovendoImagem() throws IOException {
+        qrImageStore.salvar("QRCode-1.png", saida -> saida.write(1));
+        qrImageStore.salvar("QRCode-1.png", saida -> saida.write(2));
+
+        assertArrayEquals(new byte[]{2}, qrImageStore.ler("QRCode-1.png").orElseThrow(), "Imagem deve ser substituída");
+        assertTrue(qrImageStore.remover("QRCode-1.png"), "Imagem existente deve ser removida");
+        assertFalse(qrImageStore.remover("QRCode-1.png"), "Imagem já removida não deve ser encontrada");
+        assertThrows(IllegalArgumentException.class, () -> qrImageStore.ler("../QRCode-1.png"), "Chave com separador deve ser recusada");
+    }
+}
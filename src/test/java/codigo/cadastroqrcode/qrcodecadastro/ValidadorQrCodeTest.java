@@ -0,0 +1,68 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.dto.ErroCampoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.service.ValidadorQrCode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidadorQrCodeTest {
+
+    @Test
+    void testLendoValoresEmCentavos() {
+        assertEquals(10000, ValidadorQrCode.lerCentavos("100.00"));
+        assertEquals(10000, ValidadorQrCode.lerCentavos("100"));
+        assertEquals(159990, ValidadorQrCode.lerCentavos("1599.9"));
+        assertEquals(50, ValidadorQrCode.lerCentavos(".5"));
+        assertEquals(500, ValidadorQrCode.lerCentavos(" 005. "));
+        assertEquals(123, ValidadorQrCode.lerCentavos("1.2300"), "Zeros após a segunda casa não mudam o valor");
+        assertEquals(0, ValidadorQrCode.lerCentavos("0.00"));
+        assertEquals(ValidadorQrCode.CENTAVOS_MAXIMO, ValidadorQrCode.lerCentavos("9999999999.99"));
+    }
+
+    @Test
+    void testRecusandoValoresInvalidosSemExcecao() {
+        for (String valor : new String[]{null, "", "   ", ".", "abc", "1e3", "-5", "+5", "1,50", "1.000,00", "NaN", "Infinity", "0x10", "10.5a"}) {
+            assertTrue(ValidadorQrCode.lerCentavos(valor) < 0, "Valor deve ser recusado: " + valor);
+        }
+        assertTrue(ValidadorQrCode.lerCentavos("10.005") < 0, "Mais de duas casas decimais não é um valor exato em centavos");
+        assertTrue(ValidadorQrCode.lerCentavos("10000000000") < 0, "Valor acima do máximo deve ser recusado");
+    }
+
+    @Test
+    void testCentavosIguaisAoBigDecimal() {
+        for (String valor : new String[]{"0.01", "0.1", "1", "19.99", "250.5", "1000000.00", "9999999999.99", "42.10"}) {
+            long esperado = new BigDecimal(valor).movePointRight(2).longValueExact();
+            long centavos = ValidadorQrCode.lerCentavos(valor);
+            assertEquals(esperado, centavos, valor);
+            assertEquals(new BigDecimal(valor).setScale(2).toPlainString(), ValidadorQrCode.formatarCentavos(centavos));
+        }
+    }
+
+    @Test
+    void testTodosOsErrosDeCampoJuntos() {
+        List<ErroCampoDTO> erros = ValidadorQrCode.validar(null, ValidadorQrCode.lerCentavos("abc"), null, null,
+                LocalDate.now().minusDays(1), false);
+
+        assertEquals(List.of(ValidadorQrCode.CAMPO_ID, ValidadorQrCode.CAMPO_VALOR, ValidadorQrCode.CAMPO_DATA_ATUALIZACAO,
+                        ValidadorQrCode.CAMPO_DATA_EXPIRACAO, ValidadorQrCode.CAMPO_DATA_VENCIMENTO),
+                erros.stream().map(ErroCampoDTO::getCampo).toList());
+        assertEquals("O valor deve ter no máximo 2 casas decimais", ValidadorQrCode.validar(1L, ValidadorQrCode.lerCentavos("1.001"),
+                LocalDate.now(), LocalDate.now(), null, false).get(0).getMensagem());
+    }
+
+    @Test
+    void testCadastroValidoSemAlocarErros() {
+        LocalDate hoje = LocalDate.now();
+        List<ErroCampoDTO> erros = ValidadorQrCode.validar(1L, ValidadorQrCode.lerCentavos("10.00"), hoje, hoje.plusDays(30), hoje, true);
+
+        assertTrue(erros.isEmpty());
+        assertSame(List.of(), erros, "Cadastro válido deve devolver a lista vazia compartilhada");
+        assertEquals(1, ValidadorQrCode.validar(1L, 1000, hoje, hoje, null, true).size(), "Vencimento obrigatório ausente");
+        assertTrue(ValidadorQrCode.validar(1L, 1000, hoje, hoje, null, false).isEmpty(), "Vencimento opcional ausente");
+    }
+}
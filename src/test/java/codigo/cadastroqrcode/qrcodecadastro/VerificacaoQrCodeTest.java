@@ -0,0 +1,107 @@
+package codigo.cadastroqrcode.qrcodecadastro;
+
+import codigo.cadastroqrcode.qrcodecadastro.config.QrCodeProperties;
+import codigo.cadastroqrcode.qrcodecadastro.dto.ResultadoVerificacaoDTO;
+import codigo.cadastroqrcode.qrcodecadastro.dto.SituacaoVerificacao;
+import codigo.cadastroqrcode.qrcodecadastro.entity.QrCode;
+import codigo.cadastroqrcode.qrcodecadastro.repository.QrCodeRepository;
+import codigo.cadastroqrcode.qrcodecadastro.service.CodificadorPayload;
+import codigo.cadastroqrcode.qrcodecadastro.service.LimitadorJdbc;
+import codigo.cadastroqrcode.qrcodecadastro.service.MetricasQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.PerfisRenderizacao;
+import codigo.cadastroqrcode.qrcodecadastro.service.RenderizadorQrCode;
+import codigo.cadastroqrcode.qrcodecadastro.service.VerificacaoQrCode;
+import com.google.zxing.common.BitMatrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class VerificacaoQrCodeTest {
+
+    private final QrCodeRepository qrCodeRepository = mock(QrCodeRepository.class);
+
+    private final QrCodeProperties propriedades = new QrCodeProperties();
+
+    private final CodificadorPayload codificadorPayload = new CodificadorPayload(propriedades);
+
+    private final VerificacaoQrCode verificacao = new VerificacaoQrCode(qrCodeRepository, new LimitadorJdbc(propriedades), codificadorPayload,
+            new MetricasQrCode(ObservationRegistry.NOOP, new SimpleMeterRegistry()), propriedades);
+
+    @Test
+    void testConsultasRepetidasServidasPeloCache() {
+        QrCode qrCode = criarQrCode(7L, "OPEN", LocalDate.now());
+        when(qrCodeRepository.findById(7L)).thenReturn(Optional.of(qrCode));
+        String conteudo = codificadorPayload.codificar(qrCode);
+
+        for (int i = 0; i < 100; i++) {
+            ResultadoVerificacaoDTO resultado = verificacao.verificar(conteudo);
+            assertTrue(resultado.isValido(), "QR Code aberto que expira hoje ainda é válido");
+        }
+
+        verify(qrCodeRepository, times(1)).findById(7L);
+        assertEquals(SituacaoVerificacao.NAO_ENCONTRADO, verificacao.verificar(8L).getSituacao());
+        assertEquals(SituacaoVerificacao.NAO_ENCONTRADO, verificacao.verificar(8L).getSituacao());
+        verify(qrCodeRepository, times(1)).findById(8L);
+    }
+
+    @Test
+    void testSituacoesInvalidas() {
+        when(qrCodeRepository.findById(1L)).thenReturn(Optional.of(criarQrCode(1L, "OPEN", LocalDate.now().minusDays(1))));
+        when(qrCodeRepository.findById(2L)).thenReturn(Optional.of(criarQrCode(2L, "EXPIRED", LocalDate.now().plusDays(1))));
+
+        assertEquals(SituacaoVerificacao.EXPIRADO, verificacao.verificar(1L).getSituacao(), "Expiração vencida deve invalidar mesmo antes da tarefa agendada");
+        assertEquals(SituacaoVerificacao.STATUS_INVALIDO, verificacao.verificar(2L).getSituacao());
+        assertFalse(verificacao.verificar(2L).isValido());
+    }
+
+    @Test
+    void testConteudoAlteradoComIdExistenteRecusado() {
+        QrCode qrCode = criarQrCode(5L, "OPEN", LocalDate.now().plusDays(30));
+        when(qrCodeRepository.findById(5L)).thenReturn(Optional.of(qrCode));
+        String original = codificadorPayload.codificar(qrCode);
+
+        assertEquals(SituacaoVerificacao.CONTEUDO_DIVERGENTE, verificacao.verificar(original.replace("Valor: 10.00", "Valor: 1.00")).getSituacao(),
+                "Valor alterado não pode ser aceito");
+        assertEquals(SituacaoVerificacao.CONTEUDO_DIVERGENTE, verificacao.verificar("ID: 5").getSituacao(), "Somente o ID não basta");
+        assertFalse(verificacao.verificar("{\"id\":5,\"v\":\"10.00\"}").isValido(), "JSON incompleto não pode ser aceito");
+        assertTrue(verificacao.verificar(original).isValido());
+        assertTrue(verificacao.verificar(codificadorPayload.codificar(qrCode, QrCodeProperties.Payload.Formato.BASE45)).isValido(),
+                "Imagens geradas em outro formato continuam verificáveis");
+        assertTrue(verificacao.verificar(5L).isValido(), "Consulta pelo ID não confere conteúdo");
+    }
+
+    @Test
+    void testVerificandoImagemGerada() throws Exception {
+        QrCode qrCode = criarQrCode(99L, "OPEN", LocalDate.now().plusDays(30));
+        when(qrCodeRepository.findById(99L)).thenReturn(Optional.of(qrCode));
+        String payload = new CodificadorPayload(propriedades).codificar(qrCode);
+        BitMatrix matriz = new PerfisRenderizacao(propriedades).cadastro().codificar(payload, 0, 0);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        RenderizadorQrCode.escreverPng(matriz, RenderizadorQrCode.escalaPara(matriz, 400), png);
+
+        ResultadoVerificacaoDTO resultado = verificacao.verificarImagem(new ByteArrayInputStream(png.toByteArray()));
+
+        assertEquals(99L, resultado.getId());
+        assertTrue(resultado.isValido());
+        assertThrows(IllegalArgumentException.class, () -> verificacao.verificarImagem(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+    }
+
+    private QrCode criarQrCode(Long id, String status, LocalDate dataExpiracao) {
+        QrCode qrCode = new QrCode();
+        qrCode.setId(id);
+        qrCode.setValor("10.00");
+        qrCode.setDescricao("Mensalidade");
+        qrCode.setStatus(status);
+        qrCode.setDataAtualizacao(LocalDate.now());
+        qrCode.setDataExpiracao(dataExpiracao);
+        return qrCode;
+    }
+}